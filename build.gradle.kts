@@ -16,6 +16,14 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.10.2")
 }
 
+sourceSets {
+    create("java21") {
+        java {
+            srcDir("src/main/java21")
+        }
+    }
+}
+
 java {
     toolchain {
         languageVersion = JavaLanguageVersion.of(21)
@@ -29,10 +37,39 @@ tasks.withType<JavaCompile>().configureEach {
     options.release.set(11)
 }
 
+// Java 21 layer of the multi-release JAR: classes in src/main/java21 replace their Java 11
+// counterparts on Java 21 and newer runtimes.
+tasks.named<JavaCompile>("compileJava21Java") {
+    options.release.set(21)
+}
+
+tasks.jar {
+    into("META-INF/versions/21") {
+        from(sourceSets["java21"].output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
 tasks.withType<Test>().configureEach {
     useJUnitPlatform()
 }
 
+// Runs the tests again with the Java 21 layer ahead of the Java 11 classes, as on a Java 21
+// runtime loading the multi-release JAR.
+val testJava21 by tasks.registering(Test::class) {
+    description = "Runs the tests against the Java 21 layer of the multi-release JAR."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets["java21"].output + sourceSets.test.get().runtimeClasspath
+    systemProperty("pdfgate.expectVirtualThreads", "true")
+}
+
+tasks.check {
+    dependsOn(testJava21)
+}
+
 tasks.matching { it.name == "plainJavadocJar" }.configureEach {
     enabled = false
 }
@@ -0,0 +1,183 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that holds a {@link PdfGateBulkhead} permit while the request is in flight and reports
+ * the round trip and throttling outcome when it returns the permit.
+ *
+ * <p>The round trip ends when the response headers arrive, but the permit is held until the
+ * response body is closed, for both {@link #execute()} and {@link #enqueue(Callback)}, so the
+ * limit bounds reading responses as well as waiting for them.
+ */
+final class BulkheadCall extends ForwardingCall {
+  private final PdfGateBulkhead bulkhead;
+  private Runnable pendingTask;
+  private Callback pendingCallback;
+
+  BulkheadCall(Call delegate, PdfGateBulkhead bulkhead) {
+    super(delegate);
+    this.bulkhead = bulkhead;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    bulkhead.acquire();
+    long start = System.nanoTime();
+    Response response;
+    try {
+      response = delegate().execute();
+    } catch (IOException e) {
+      releaseAfterFailure(start, e);
+      throw e;
+    } catch (RuntimeException | Error e) {
+      bulkhead.release();
+      throw e;
+    }
+    return releaseOnClose(response, System.nanoTime() - start);
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        clearPending(this);
+        delegate().enqueue(new PermitReleasingCallback(responseCallback, System.nanoTime()));
+      }
+    };
+    synchronized (this) {
+      pendingTask = task;
+      pendingCallback = responseCallback;
+    }
+    try {
+      bulkhead.enqueue(task);
+    } catch (PdfGateQueueFullException e) {
+      clearPending(task);
+      responseCallback.onFailure(this, e);
+    }
+  }
+
+  @Override
+  public void cancel() {
+    super.cancel();
+    Runnable task;
+    Callback callback;
+    synchronized (this) {
+      task = pendingTask;
+      callback = pendingCallback;
+    }
+    if (task != null && bulkhead.remove(task)) {
+      clearPending(task);
+      callback.onFailure(this, new IOException("Canceled"));
+    }
+  }
+
+  private synchronized void clearPending(Runnable task) {
+    if (pendingTask == task) {
+      pendingTask = null;
+      pendingCallback = null;
+    }
+  }
+
+  /**
+   * Returns the response with a body that returns the permit when it is closed.
+   *
+   * <p>Releasing may run tasks granted the freed permit on the closing thread; if one of them
+   * fails, the body is already closed and the permit returned.
+   */
+  private Response releaseOnClose(Response response, long rttNanos) {
+    boolean throttled = isThrottled(response);
+    ResponseBody body = response.body();
+    if (body == null) {
+      bulkhead.release(rttNanos, throttled);
+      return response;
+    }
+    AtomicBoolean released = new AtomicBoolean();
+    Source source = new ForwardingSource(body.source()) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          if (released.compareAndSet(false, true)) {
+            bulkhead.release(rttNanos, throttled);
+          }
+        }
+      }
+    };
+    return response.newBuilder()
+        .body(ResponseBody.create(Okio.buffer(source), body.contentType(), body.contentLength()))
+        .build();
+  }
+
+  /**
+   * Returns whether the API asked the client to back off.
+   */
+  private static boolean isThrottled(Response response) {
+    return response.code() == 429 || response.code() == 503;
+  }
+
+  /**
+   * Releases the permit after a transport failure; only timeouts count as a congestion signal,
+   * and cancellations are not sampled.
+   */
+  private void releaseAfterFailure(long start, IOException e) {
+    if (e instanceof InterruptedIOException && !isCanceled()) {
+      bulkhead.release(System.nanoTime() - start, true);
+    } else {
+      bulkhead.release();
+    }
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new BulkheadCall(delegate().clone(), bulkhead);
+  }
+
+  /**
+   * Forwards results to the caller, releasing the permit on failure or once the response body
+   * is closed.
+   */
+  private final class PermitReleasingCallback implements Callback {
+    private final Callback callback;
+    private final long start;
+
+    private PermitReleasingCallback(Callback callback, long start) {
+      this.callback = callback;
+      this.start = start;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+      try {
+        callback.onFailure(BulkheadCall.this, e);
+      } finally {
+        releaseAfterFailure(start, e);
+      }
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+      Response released = releaseOnClose(response, System.nanoTime() - start);
+      try {
+        callback.onResponse(BulkheadCall.this, released);
+      } catch (IOException | RuntimeException | Error e) {
+        released.close();
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body that writes the remaining bytes of a {@link ByteBuffer}.
+ *
+ * <p>Bytes are copied from the buffer straight into the sink, so direct and memory-mapped
+ * buffers are never staged in a heap array. Every write uses a fresh duplicate, leaving the
+ * buffer's position untouched and making the body replayable.
+ */
+final class ByteBufferRequestBody extends RequestBody {
+  private final ByteBuffer buffer;
+  private final MediaType mediaType;
+
+  ByteBufferRequestBody(ByteBuffer buffer, MediaType mediaType) {
+    this.buffer = buffer;
+    this.mediaType = mediaType;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return mediaType;
+  }
+
+  @Override
+  public long contentLength() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    ByteBuffer source = buffer.duplicate();
+    while (source.hasRemaining()) {
+      sink.write(source);
+    }
+  }
+}
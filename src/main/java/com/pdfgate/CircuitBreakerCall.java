@@ -0,0 +1,85 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that asks a {@link PdfGateCircuitBreaker} for admission and reports the outcome to it.
+ *
+ * <p>Rejected calls fail with {@link PdfGateCircuitOpenException} without reaching the
+ * transport. I/O errors and {@code 5xx} responses count as failures; canceled calls are not
+ * counted. The call wraps the transport directly, inside the rate limiter and bulkhead, so the
+ * duration it records starts when the request is dispatched and a client saturated by its own
+ * limits cannot trip the breaker against a healthy API.
+ */
+final class CircuitBreakerCall extends ForwardingCall {
+  private final PdfGateCircuitBreaker breaker;
+
+  CircuitBreakerCall(Call delegate, PdfGateCircuitBreaker breaker) {
+    super(delegate);
+    this.breaker = breaker;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    if (!breaker.tryAcquire()) {
+      throw new PdfGateCircuitOpenException(breaker.getEndpoint());
+    }
+    long start = System.nanoTime();
+    try {
+      Response response = delegate().execute();
+      breaker.onResult(System.nanoTime() - start, isServerError(response));
+      return response;
+    } catch (IOException e) {
+      recordFailure(start);
+      throw e;
+    } catch (RuntimeException | Error e) {
+      breaker.onIgnored();
+      throw e;
+    }
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    if (!breaker.tryAcquire()) {
+      responseCallback.onFailure(this, new PdfGateCircuitOpenException(breaker.getEndpoint()));
+      return;
+    }
+    long start = System.nanoTime();
+    delegate().enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        recordFailure(start);
+        responseCallback.onFailure(CircuitBreakerCall.this, e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+        breaker.onResult(System.nanoTime() - start, isServerError(response));
+        responseCallback.onResponse(CircuitBreakerCall.this, response);
+      }
+    });
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new CircuitBreakerCall(delegate().clone(), breaker);
+  }
+
+  private static boolean isServerError(Response response) {
+    return response.code() >= 500;
+  }
+
+  private void recordFailure(long start) {
+    if (isCanceled()) {
+      breaker.onIgnored();
+    } else {
+      breaker.onResult(System.nanoTime() - start, true);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that references a previously uploaded document instead of uploading the file again, and
+ * falls back to the upload when the API reports the document is gone.
+ */
+final class DeduplicatedUploadCall extends ForwardingCall {
+  private final Call upload;
+  private final PdfGateUploadCache cache;
+  private final String digest;
+
+  DeduplicatedUploadCall(Call delegate, Call upload, PdfGateUploadCache cache, String digest) {
+    super(delegate);
+    this.upload = upload;
+    this.cache = cache;
+    this.digest = digest;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    Response response = delegate().execute();
+    if (!isGone(response)) {
+      return response;
+    }
+    response.close();
+    cache.invalidate(digest);
+    return upload.execute();
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    delegate().enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        responseCallback.onFailure(DeduplicatedUploadCall.this, e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+        if (!isGone(response)) {
+          responseCallback.onResponse(DeduplicatedUploadCall.this, response);
+          return;
+        }
+        response.close();
+        cache.invalidate(digest);
+        upload.enqueue(new Callback() {
+          @Override
+          public void onFailure(@NotNull Call call, @NotNull IOException e) {
+            responseCallback.onFailure(DeduplicatedUploadCall.this, e);
+          }
+
+          @Override
+          public void onResponse(@NotNull Call call, @NotNull Response response)
+              throws IOException {
+            responseCallback.onResponse(DeduplicatedUploadCall.this, response);
+          }
+        });
+      }
+    });
+  }
+
+  @Override
+  public void cancel() {
+    super.cancel();
+    upload.cancel();
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new DeduplicatedUploadCall(delegate().clone(), upload.clone(), cache, digest);
+  }
+
+  private static boolean isGone(Response response) {
+    return response.code() == 404 || response.code() == 410;
+  }
+}
@@ -1,15 +1,40 @@
 package com.pdfgate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.Supplier;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.ByteString;
 
 /**
  * Represents a binary file payload for multipart PDF uploads.
+ *
+ * <p>The payload is either held in memory, as a byte array or a {@link ByteBuffer}, streamed
+ * from a file with {@link #fromPath(Path)}, or streamed from any source with
+ * {@link #fromStream(String, Supplier, long, String)}. The streaming and direct buffer variants
+ * keep large PDFs off the heap.
  */
 public final class FileParam {
   private final String name;
   private final byte[] data;
+  private final Path path;
+  private final Supplier<? extends InputStream> streamSupplier;
+  private final long streamLength;
+  private final ByteBuffer buffer;
   private final String type;
+  private volatile MediaType mediaType;
+  private volatile String digest;
 
   /**
    * Creates a file payload with the default content type.
@@ -31,9 +56,113 @@ public final class FileParam {
   public FileParam(String name, byte[] data, String type) {
     this.name = Objects.requireNonNull(name, "name");
     this.data = Objects.requireNonNull(data, "data");
+    this.path = null;
+    this.streamSupplier = null;
+    this.streamLength = -1;
+    this.buffer = null;
     this.type = type;
   }
 
+  private FileParam(String name, Path path, Supplier<? extends InputStream> streamSupplier,
+                    long streamLength, ByteBuffer buffer, String type) {
+    this.name = Objects.requireNonNull(name, "name");
+    this.data = null;
+    this.path = path;
+    this.streamSupplier = streamSupplier;
+    this.streamLength = streamLength;
+    this.buffer = buffer;
+    this.type = type;
+  }
+
+  /**
+   * Creates a file payload streamed from a file, named after the file.
+   *
+   * @param path file to upload.
+   * @return the file payload.
+   */
+  public static FileParam fromPath(Path path) {
+    return fromPath(path, null);
+  }
+
+  /**
+   * Creates a file payload streamed from a file with an explicit content type.
+   *
+   * <p>The file is read when the request is sent, and again if it is retried, so it must not
+   * change until the request completes.
+   *
+   * @param path file to upload.
+   * @param type content type, or {@code null} to let the client infer it.
+   * @return the file payload.
+   */
+  public static FileParam fromPath(Path path, String type) {
+    Objects.requireNonNull(path, "path");
+    Path fileName = path.getFileName();
+    return new FileParam(fileName == null ? path.toString() : fileName.toString(), path, null,
+        -1, null, type);
+  }
+
+  /**
+   * Creates a file payload of unknown length streamed from an input stream.
+   *
+   * @param name file name.
+   * @param streamSupplier opens a new stream over the payload.
+   * @return the file payload.
+   */
+  public static FileParam fromStream(String name, Supplier<? extends InputStream> streamSupplier) {
+    return fromStream(name, streamSupplier, -1, null);
+  }
+
+  /**
+   * Creates a file payload streamed from an input stream, such as a blob storage download.
+   *
+   * <p>{@code streamSupplier} is called each time the request is sent, including retries, and
+   * must return a new stream positioned at the start of the payload; the client closes it.
+   * With a known {@code length} the upload sends {@code Content-Length}; otherwise it is sent
+   * with chunked transfer encoding.
+   *
+   * @param name file name.
+   * @param streamSupplier opens a new stream over the payload.
+   * @param length payload size in bytes, or {@code -1} when unknown.
+   * @param type content type, or {@code null} to let the client infer it.
+   * @return the file payload.
+   */
+  public static FileParam fromStream(String name, Supplier<? extends InputStream> streamSupplier,
+                                     long length, String type) {
+    Objects.requireNonNull(streamSupplier, "streamSupplier");
+    if (length < -1) {
+      throw new IllegalArgumentException("length must be -1 or greater.");
+    }
+    return new FileParam(name, null, streamSupplier, length, null, type);
+  }
+
+  /**
+   * Creates a file payload from the remaining bytes of a buffer.
+   *
+   * @param name file name.
+   * @param buffer heap, direct or memory-mapped buffer holding the payload.
+   * @return the file payload.
+   */
+  public static FileParam fromByteBuffer(String name, ByteBuffer buffer) {
+    return fromByteBuffer(name, buffer, null);
+  }
+
+  /**
+   * Creates a file payload from the remaining bytes of a buffer with an explicit content type.
+   *
+   * <p>The bytes between the buffer's current position and limit are uploaded; later changes
+   * to the buffer's position or limit do not affect the payload, but its contents must not
+   * change until the request completes. The buffer is never copied to a heap array.
+   *
+   * @param name file name.
+   * @param buffer heap, direct or memory-mapped buffer holding the payload.
+   * @param type content type, or {@code null} to let the client infer it.
+   * @return the file payload.
+   */
+  public static FileParam fromByteBuffer(String name, ByteBuffer buffer, String type) {
+    Objects.requireNonNull(buffer, "buffer");
+    return new FileParam(name, null, null, -1, buffer.duplicate(), type);
+  }
+
   /**
    * Returns the filename.
    *
@@ -46,12 +175,31 @@ public final class FileParam {
   /**
    * Returns the file bytes.
    *
-   * @return the file bytes.
+   * @return the file bytes, or {@code null} when the payload is streamed.
    */
   public byte[] getData() {
     return data;
   }
 
+  /**
+   * Returns the file the payload is streamed from.
+   *
+   * @return the file, or {@code null} when the payload is not streamed from a file.
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Returns a read-only view of the buffer holding the payload.
+   *
+   * @return a read-only view of the payload buffer, or {@code null} when the payload is not
+   *     held in a buffer.
+   */
+  public ByteBuffer getByteBuffer() {
+    return buffer == null ? null : buffer.asReadOnlyBuffer();
+  }
+
   /**
    * Returns the content type override, if provided.
    *
@@ -61,6 +209,91 @@ public final class FileParam {
     return type;
   }
 
+  /**
+   * Resolves the media type used for multipart uploads, caching it on first use.
+   */
+  MediaType mediaType() {
+    MediaType resolved = mediaType;
+    if (resolved == null) {
+      String mimeType = type;
+      if (mimeType == null || mimeType.isBlank()) {
+        mimeType = URLConnection.guessContentTypeFromName(name);
+      }
+      if (mimeType == null || mimeType.isBlank()) {
+        mimeType = "application/octet-stream";
+      }
+      resolved = MediaType.get(mimeType);
+      mediaType = resolved;
+    }
+    return resolved;
+  }
+
+  /**
+   * Returns the SHA-256 digest of the payload as lowercase hex, computing it on first use and
+   * caching it on this instance.
+   *
+   * @return the digest, or {@code null} for streamed payloads, which are not read an extra
+   *     time, and for files that cannot be read.
+   */
+  String digest() {
+    String resolved = digest;
+    if (resolved == null && streamSupplier == null) {
+      MessageDigest sha256;
+      try {
+        sha256 = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 is not available.", e);
+      }
+      if (data != null) {
+        sha256.update(data);
+      } else if (buffer != null) {
+        sha256.update(buffer.duplicate());
+      } else {
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), sha256)) {
+          in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+          return null;
+        }
+      }
+      resolved = ByteString.of(sha256.digest()).hex();
+      digest = resolved;
+    }
+    return resolved;
+  }
+
+  /**
+   * Returns the payload size in bytes, or {@code -1} for a stream of unknown length.
+   *
+   * @throws IOException when the file size cannot be read.
+   */
+  long contentLength() throws IOException {
+    if (data != null) {
+      return data.length;
+    }
+    if (buffer != null) {
+      return buffer.remaining();
+    }
+    return path != null ? Files.size(path) : streamLength;
+  }
+
+  /**
+   * Creates the multipart part body for this payload. Bodies are replayable: files and streams
+   * are reopened on every write.
+   */
+  RequestBody requestBody() {
+    RequestBody body;
+    if (data != null) {
+      body = RequestBody.create(data, mediaType());
+    } else if (buffer != null) {
+      body = new ByteBufferRequestBody(buffer, mediaType());
+    } else {
+      body = path != null
+          ? new PathRequestBody(path, mediaType())
+          : new StreamRequestBody(streamSupplier, streamLength, mediaType());
+    }
+    return new FileRequestBody(this, body);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -72,13 +305,20 @@ public final class FileParam {
     FileParam fileParam = (FileParam) o;
     return Objects.equals(name, fileParam.name)
         && Arrays.equals(data, fileParam.data)
+        && Objects.equals(path, fileParam.path)
+        && Objects.equals(streamSupplier, fileParam.streamSupplier)
+        && streamLength == fileParam.streamLength
+        && buffer == fileParam.buffer
         && Objects.equals(type, fileParam.type);
   }
 
   @Override
   public int hashCode() {
-    int result = Objects.hash(name, type);
+    // Buffers are compared by identity: hashing a large or memory-mapped buffer's contents
+    // would read it all, and its contents may legitimately change once the request completes.
+    int result = Objects.hash(name, path, streamSupplier, streamLength, type);
     result = 31 * result + Arrays.hashCode(data);
+    result = 31 * result + System.identityHashCode(buffer);
     return result;
   }
 }
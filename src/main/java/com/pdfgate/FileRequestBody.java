@@ -0,0 +1,44 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body that uploads the payload of a {@link FileParam}.
+ *
+ * <p>Keeping the {@link FileParam} lets cache keys use its {@link FileParam#digest()}, which is
+ * computed once per instance, instead of hashing the upload again on every request.
+ */
+final class FileRequestBody extends RequestBody {
+  private final FileParam file;
+  private final RequestBody delegate;
+
+  FileRequestBody(FileParam file, RequestBody delegate) {
+    this.file = file;
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns the file this body uploads.
+   */
+  FileParam file() {
+    return file;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return delegate.contentType();
+  }
+
+  @Override
+  public long contentLength() throws IOException {
+    return delegate.contentLength();
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    delegate.writeTo(sink);
+  }
+}
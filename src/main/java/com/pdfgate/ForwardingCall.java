@@ -0,0 +1,77 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base {@link Call} that forwards every operation to a delegate call.
+ *
+ * <p>Subclasses override the operations they decorate and rebuild themselves around a cloned
+ * delegate in {@link #clone()}.
+ */
+abstract class ForwardingCall implements Call {
+  private final Call delegate;
+
+  protected ForwardingCall(Call delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns the call that operations are forwarded to.
+   */
+  protected final Call delegate() {
+    return delegate;
+  }
+
+  @NotNull
+  @Override
+  public Request request() {
+    return delegate.request();
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    return delegate.execute();
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    delegate.enqueue(responseCallback);
+  }
+
+  @Override
+  public void cancel() {
+    delegate.cancel();
+  }
+
+  @Override
+  public boolean isExecuted() {
+    return delegate.isExecuted();
+  }
+
+  @Override
+  public boolean isCanceled() {
+    return delegate.isCanceled();
+  }
+
+  @NotNull
+  @Override
+  public Timeout timeout() {
+    return delegate.timeout();
+  }
+
+  @NotNull
+  @Override
+  public abstract Call clone();
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
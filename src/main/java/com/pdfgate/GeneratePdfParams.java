@@ -14,6 +14,7 @@ import java.util.Map;
  */
 public abstract class GeneratePdfParams {
   private final String html;
+  private final transient HtmlSource htmlSource;
   private final String url;
   private final Boolean jsonResponse;
   private final Long preSignedUrlExpiresIn;
@@ -51,6 +52,7 @@ public abstract class GeneratePdfParams {
    */
   protected GeneratePdfParams(Builder builder) {
     this.html = builder.html;
+    this.htmlSource = builder.htmlSource;
     this.url = builder.url;
     this.jsonResponse = builder.jsonResponse;
     this.preSignedUrlExpiresIn = builder.preSignedUrlExpiresIn;
@@ -100,6 +102,15 @@ public abstract class GeneratePdfParams {
     return html;
   }
 
+  /**
+   * Returns the streamed HTML content to render.
+   *
+   * @return the streamed HTML content, or {@code null} when not set.
+   */
+  public HtmlSource getHtmlSource() {
+    return htmlSource;
+  }
+
   /**
    * Returns the public URL to render.
    *
@@ -635,6 +646,7 @@ public abstract class GeneratePdfParams {
    */
   public static final class Builder {
     private String html;
+    private HtmlSource htmlSource;
     private String url;
     private Boolean jsonResponse;
     private Long preSignedUrlExpiresIn;
@@ -679,6 +691,17 @@ public abstract class GeneratePdfParams {
       return this;
     }
 
+    /**
+     * Sets HTML content to render, streamed into the request instead of held as a string.
+     *
+     * @param htmlSource streamed HTML content to render.
+     * @return this builder.
+     */
+    public Builder html(HtmlSource htmlSource) {
+      this.htmlSource = htmlSource;
+      return this;
+    }
+
     /**
      * Sets the public URL to render.
      *
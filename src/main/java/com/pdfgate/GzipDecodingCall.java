@@ -0,0 +1,107 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that decodes gzip-encoded responses as a stream, for requests that negotiated
+ * compression with {@code Accept-Encoding: gzip}.
+ *
+ * <p>Transports only decompress transparently when they added {@code Accept-Encoding}
+ * themselves, so decoding here behaves the same on every transport and lets the work be
+ * measured. Decompression time excludes the time spent reading from the network.
+ */
+final class GzipDecodingCall extends ForwardingCall {
+  private final PdfGateCompressionStats stats;
+
+  GzipDecodingCall(Call delegate, PdfGateCompressionStats stats) {
+    super(delegate);
+    this.stats = stats;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    return decode(delegate().execute());
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    delegate().enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        responseCallback.onFailure(GzipDecodingCall.this, e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+        responseCallback.onResponse(GzipDecodingCall.this, decode(response));
+      }
+    });
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new GzipDecodingCall(delegate().clone(), stats);
+  }
+
+  private Response decode(Response response) {
+    ResponseBody body = response.body();
+    if (body == null
+        || body.contentLength() == 0
+        || !"gzip".equalsIgnoreCase(response.header("Content-Encoding"))) {
+      return response;
+    }
+    MeteredSource network = new MeteredSource(body.source());
+    MeteredSource decoded = new MeteredSource(new GzipSource(network)) {
+      private boolean closed;
+
+      @Override
+      public void close() throws IOException {
+        super.close();
+        if (!closed) {
+          closed = true;
+          stats.recordResponse(bytes, network.bytes, nanos - network.nanos);
+        }
+      }
+    };
+    return response.newBuilder()
+        .removeHeader("Content-Encoding")
+        .removeHeader("Content-Length")
+        .body(ResponseBody.create(Okio.buffer(decoded), body.contentType(), -1))
+        .build();
+  }
+
+  /**
+   * Counts the bytes read from a source and the time spent reading them.
+   */
+  private static class MeteredSource extends ForwardingSource {
+    long bytes;
+    long nanos;
+
+    MeteredSource(Source delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+      long start = System.nanoTime();
+      long read = super.read(sink, byteCount);
+      nanos += System.nanoTime() - start;
+      if (read > 0) {
+        bytes += read;
+      }
+      return read;
+    }
+  }
+}
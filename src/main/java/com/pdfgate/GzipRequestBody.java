@@ -0,0 +1,96 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.GzipSink;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * Request body that gzip-compresses another body as it is written, recording the sizes and
+ * the time spent compressing in a {@link PdfGateCompressionStats}.
+ *
+ * <p>The compressed length is not known up front, so the body is sent with chunked transfer
+ * encoding. Compression time excludes the time spent writing to the network.
+ */
+final class GzipRequestBody extends RequestBody {
+  private final RequestBody delegate;
+  private final PdfGateCompressionStats stats;
+
+  GzipRequestBody(RequestBody delegate, PdfGateCompressionStats stats) {
+    this.delegate = delegate;
+    this.stats = stats;
+  }
+
+  /**
+   * Returns the uncompressed body.
+   */
+  RequestBody delegate() {
+    return delegate;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return delegate.contentType();
+  }
+
+  @Override
+  public long contentLength() {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    MeteredSink network = new MeteredSink(sink, true);
+    MeteredSink gzip = new MeteredSink(new GzipSink(network), false);
+    try (BufferedSink compressed = Okio.buffer(gzip)) {
+      delegate.writeTo(compressed);
+    }
+    stats.recordRequest(gzip.bytes, network.bytes, gzip.nanos - network.nanos);
+  }
+
+  /**
+   * Counts the bytes and time spent in a sink. The network side is flushed rather than closed,
+   * as the transport owns it.
+   */
+  private static final class MeteredSink extends ForwardingSink {
+    private final boolean keepOpen;
+    private long bytes;
+    private long nanos;
+
+    MeteredSink(Sink delegate, boolean keepOpen) {
+      super(delegate);
+      this.keepOpen = keepOpen;
+    }
+
+    @Override
+    public void write(Buffer source, long byteCount) throws IOException {
+      long start = System.nanoTime();
+      super.write(source, byteCount);
+      nanos += System.nanoTime() - start;
+      bytes += byteCount;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      long start = System.nanoTime();
+      super.flush();
+      nanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public void close() throws IOException {
+      long start = System.nanoTime();
+      if (keepOpen) {
+        super.flush();
+      } else {
+        super.close();
+      }
+      nanos += System.nanoTime() - start;
+    }
+  }
+}
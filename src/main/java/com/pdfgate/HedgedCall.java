@@ -0,0 +1,204 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that sends a second attempt when the first is slower than recent requests, keeps the
+ * first response and cancels the other attempt.
+ *
+ * <p>The hedge is a {@link Call#clone()} of the primary attempt, dispatched asynchronously. With
+ * HTTP/1.1 the primary attempt still occupies its connection, so the hedge runs on another one.
+ * Synchronous callers run the primary attempt on their own thread and return whichever
+ * response arrives first.
+ */
+final class HedgedCall extends ForwardingCall {
+  private final PdfGateHedgePolicy policy;
+  private final PdfGateLatencyTracker latencies;
+  private final PdfGateRetryBudget budget;
+  private Call hedge;
+  private ScheduledFuture<?> hedgeTimer;
+  private int inFlight;
+  private boolean decided;
+  private volatile boolean canceled;
+
+  HedgedCall(Call delegate, PdfGateHedgePolicy policy, PdfGateLatencyTracker latencies,
+             PdfGateRetryBudget budget) {
+    super(delegate);
+    this.policy = policy;
+    this.latencies = latencies;
+    this.budget = budget;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    Callback callback = new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) {
+        result.complete(response);
+      }
+    };
+    startRace(callback);
+    long start = System.nanoTime();
+    try {
+      onAttemptResponse(delegate(), delegate().execute(), start, callback);
+    } catch (IOException e) {
+      onAttemptFailure(delegate(), e, callback);
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a hedged response");
+    } catch (ExecutionException e) {
+      throw (IOException) e.getCause();
+    }
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    startRace(responseCallback);
+    delegate().enqueue(new AttemptCallback(responseCallback, System.nanoTime()));
+  }
+
+  @Override
+  public void cancel() {
+    canceled = true;
+    Call hedgeCall;
+    ScheduledFuture<?> timer;
+    synchronized (this) {
+      hedgeCall = hedge;
+      timer = hedgeTimer;
+    }
+    if (timer != null) {
+      timer.cancel(false);
+    }
+    super.cancel();
+    if (hedgeCall != null) {
+      hedgeCall.cancel();
+    }
+  }
+
+  /**
+   * Returns whether the caller canceled this call. Cancelling the losing attempt after the other
+   * one responded does not count, so outer calls still retry or record the winning response.
+   */
+  @Override
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new HedgedCall(delegate().clone(), policy, latencies, budget);
+  }
+
+  /**
+   * Registers the primary attempt and schedules the hedge at the latency percentile.
+   */
+  private void startRace(Callback callback) {
+    budget.recordRequest();
+    long hedgeDelayNanos = latencies.percentile(policy.getPercentile());
+    synchronized (this) {
+      inFlight = 1;
+      if (hedgeDelayNanos >= 0) {
+        hedgeTimer = PdfGateScheduler.get().schedule(
+            () -> sendHedge(callback), hedgeDelayNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private void sendHedge(Callback callback) {
+    Call hedgeCall;
+    synchronized (this) {
+      if (decided || canceled || !budget.tryRetry()) {
+        return;
+      }
+      hedgeCall = delegate().clone();
+      hedge = hedgeCall;
+      inFlight++;
+    }
+    hedgeCall.enqueue(new AttemptCallback(callback, System.nanoTime()));
+  }
+
+  /**
+   * Reports the first response to the caller and cancels the other attempt.
+   */
+  private void onAttemptResponse(Call attempt, Response response, long start, Callback callback)
+      throws IOException {
+    Call loser;
+    synchronized (this) {
+      if (decided) {
+        response.close();
+        return;
+      }
+      decided = true;
+      inFlight--;
+      loser = attempt == hedge ? delegate() : hedge;
+      if (hedgeTimer != null) {
+        hedgeTimer.cancel(false);
+      }
+    }
+    latencies.record(System.nanoTime() - start);
+    if (loser != null) {
+      loser.cancel();
+    }
+    callback.onResponse(this, response);
+  }
+
+  /**
+   * Reports a failure once no other attempt can still succeed.
+   */
+  private void onAttemptFailure(Call attempt, IOException e, Callback callback) {
+    synchronized (this) {
+      if (decided || --inFlight > 0) {
+        return;
+      }
+      decided = true;
+      if (hedgeTimer != null) {
+        hedgeTimer.cancel(false);
+      }
+    }
+    callback.onFailure(this, e);
+  }
+
+  /**
+   * Routes the outcome of one attempt into the race.
+   */
+  private final class AttemptCallback implements Callback {
+    private final Callback callback;
+    private final long start;
+
+    private AttemptCallback(Callback callback, long start) {
+      this.callback = callback;
+      this.start = start;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+      onAttemptFailure(call, e, callback);
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+      onAttemptResponse(call, response, start, callback);
+    }
+  }
+}
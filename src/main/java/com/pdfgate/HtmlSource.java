@@ -0,0 +1,87 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Streams HTML for {@link GeneratePdfParams.Builder#html(HtmlSource)} straight into the
+ * request body, so large documents are never held as one {@link String}.
+ *
+ * <p>A source is read each time the request is sent, including retries, and must produce the
+ * same HTML every time.
+ */
+public final class HtmlSource {
+  private final HtmlWriter writer;
+
+  /**
+   * Writes HTML to the request body.
+   */
+  @FunctionalInterface
+  public interface HtmlWriter {
+    /**
+     * Writes the full HTML document.
+     *
+     * @param out destination for the HTML; it must not be closed.
+     * @throws IOException when the HTML cannot be written.
+     */
+    void writeTo(Writer out) throws IOException;
+  }
+
+  private HtmlSource(HtmlWriter writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Creates a source that copies HTML from a reader.
+   *
+   * @param readerSupplier opens a new reader positioned at the start of the HTML; the client
+   *     closes it.
+   * @return the HTML source.
+   */
+  public static HtmlSource fromReader(Supplier<? extends Reader> readerSupplier) {
+    Objects.requireNonNull(readerSupplier, "readerSupplier");
+    return new HtmlSource(out -> {
+      try (Reader reader = readerSupplier.get()) {
+        if (reader == null) {
+          throw new IOException("readerSupplier returned null.");
+        }
+        reader.transferTo(out);
+      }
+    });
+  }
+
+  /**
+   * Creates a source that writes HTML chunks in order, such as rendered template fragments.
+   *
+   * @param chunks HTML chunks; iterated once per send.
+   * @return the HTML source.
+   */
+  public static HtmlSource fromChunks(Iterable<? extends CharSequence> chunks) {
+    Objects.requireNonNull(chunks, "chunks");
+    return new HtmlSource(out -> {
+      for (CharSequence chunk : chunks) {
+        out.append(chunk);
+      }
+    });
+  }
+
+  /**
+   * Creates a source that lets a callback, such as a template engine, write the HTML.
+   *
+   * @param writer writes the HTML; called once per send.
+   * @return the HTML source.
+   */
+  public static HtmlSource fromWriter(HtmlWriter writer) {
+    return new HtmlSource(Objects.requireNonNull(writer, "writer"));
+  }
+
+  /**
+   * Writes the HTML to {@code out}.
+   */
+  void writeTo(Writer out) throws IOException {
+    writer.writeTo(out);
+  }
+}
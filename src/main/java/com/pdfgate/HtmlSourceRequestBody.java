@@ -0,0 +1,165 @@
+package com.pdfgate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Generate PDF request body whose {@code html} member is streamed from an {@link HtmlSource}
+ * and JSON-escaped as it is written, so the HTML never exists as a string, an escaped string
+ * or an encoded byte array.
+ *
+ * <p>The remaining parameters are small and serialized with Gson as usual. The body has no
+ * known length and is sent with chunked transfer encoding.
+ */
+final class HtmlSourceRequestBody extends RequestBody {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final HtmlSource source;
+  private final JsonObject params;
+  private final MediaType mediaType;
+
+  HtmlSourceRequestBody(HtmlSource source, JsonObject params, MediaType mediaType) {
+    this.source = source;
+    this.params = params;
+    this.mediaType = mediaType;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return mediaType;
+  }
+
+  @Override
+  public long contentLength() {
+    return -1;
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    Gson gson = PdfGateJson.gson();
+    // The writer is flushed but not closed: closing it would close the sink.
+    Writer out = new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8);
+    out.write("{\"html\":\"");
+    source.writeTo(new JsonStringWriter(out));
+    out.write('"');
+    for (Map.Entry<String, JsonElement> member : params.entrySet()) {
+      if (member.getKey().equals("html")) {
+        continue;
+      }
+      out.write(',');
+      gson.toJson(new JsonPrimitive(member.getKey()), out);
+      out.write(':');
+      gson.toJson(member.getValue(), out);
+    }
+    out.write('}');
+    out.flush();
+  }
+
+  /**
+   * Escapes characters for the inside of a JSON string literal.
+   */
+  private static final class JsonStringWriter extends Writer {
+    private final Writer out;
+
+    JsonStringWriter(Writer out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      escape((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+      int start = off;
+      int end = off + len;
+      for (int i = off; i < end; i++) {
+        if (needsEscape(chars[i])) {
+          out.write(chars, start, i - start);
+          escape(chars[i]);
+          start = i + 1;
+        }
+      }
+      out.write(chars, start, end - start);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      append(str, off, off + len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+      CharSequence chars = csq == null ? "null" : csq;
+      int run = start;
+      for (int i = start; i < end; i++) {
+        if (needsEscape(chars.charAt(i))) {
+          out.append(chars, run, i);
+          escape(chars.charAt(i));
+          run = i + 1;
+        }
+      }
+      out.append(chars, run, end);
+      return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+      CharSequence chars = csq == null ? "null" : csq;
+      return append(chars, 0, chars.length());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static boolean needsEscape(char c) {
+      return c < 0x20 || c == '"' || c == '\\' || c == '\u2028' || c == '\u2029';
+    }
+
+    private void escape(char c) throws IOException {
+      switch (c) {
+        case '"':
+          out.write("\\\"");
+          break;
+        case '\\':
+          out.write("\\\\");
+          break;
+        case '\n':
+          out.write("\\n");
+          break;
+        case '\r':
+          out.write("\\r");
+          break;
+        case '\t':
+          out.write("\\t");
+          break;
+        default:
+          if (needsEscape(c)) {
+            out.write("\\u");
+            out.write(HEX[(c >> 12) & 0xf]);
+            out.write(HEX[(c >> 8) & 0xf]);
+            out.write(HEX[(c >> 4) & 0xf]);
+            out.write(HEX[c & 0xf]);
+          } else {
+            out.write(c);
+          }
+      }
+    }
+  }
+}
@@ -0,0 +1,377 @@
+package com.pdfgate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.AsyncTimeout;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Pipe;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Call} that sends an OkHttp {@link Request} with the JDK {@link HttpClient}.
+ *
+ * <p>Both {@link #execute()} and {@link #enqueue(Callback)} use
+ * {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}, so no thread waits for
+ * the response headers. The response body is exposed as a stream, read by whoever consumes the
+ * {@link Response}.
+ *
+ * <p>{@link #cancel()} closes the response body stream and times out reads of it after the
+ * endpoint timeout. On JDK 16 and later it also aborts the exchange itself. Before JDK 16,
+ * canceling the future returned by {@code sendAsync} does not abort the request, so a call
+ * canceled before its response headers arrive keeps its connection until they do.
+ */
+final class JdkHttpCall implements Call {
+  /**
+   * Headers managed by the JDK client that cannot be set on a request.
+   */
+  private static final Set<String> RESTRICTED_HEADERS =
+      Set.of("connection", "content-length", "expect", "host", "upgrade");
+  /**
+   * Bytes a request body may be ahead of the JDK client before its writer waits.
+   */
+  private static final long BODY_PIPE_SIZE = 64 * 1024;
+
+  private final HttpClient httpClient;
+  /**
+   * Runs the threads that write request bodies into the pipe the JDK client reads.
+   */
+  private final Executor bodyWriter;
+  private final Request request;
+  private final Duration timeout;
+  /**
+   * Per-read timeout of the response body. Cancels the call when a read waits too long.
+   */
+  private final AsyncTimeout okioTimeout;
+  private final AtomicBoolean executed = new AtomicBoolean();
+  private volatile boolean canceled;
+  private volatile CompletableFuture<?> inFlight;
+  private volatile Pipe bodyPipe;
+  private volatile InputStream responseStream;
+
+  JdkHttpCall(HttpClient httpClient, Executor bodyWriter, Request request, Duration timeout) {
+    this.httpClient = httpClient;
+    this.bodyWriter = bodyWriter;
+    this.request = request;
+    this.timeout = timeout;
+    this.okioTimeout = new AsyncTimeout() {
+      @Override
+      protected void timedOut() {
+        JdkHttpCall.this.cancel();
+      }
+    };
+    okioTimeout.timeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @NotNull
+  @Override
+  public Request request() {
+    return request;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    markExecuted();
+    CompletableFuture<Response> future = send();
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the response");
+    } catch (ExecutionException e) {
+      throw asIoException(e.getCause());
+    }
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    markExecuted();
+    CompletableFuture<Response> future;
+    try {
+      future = send();
+    } catch (IOException e) {
+      responseCallback.onFailure(this, e);
+      return;
+    }
+    future.whenComplete((response, error) -> {
+      if (error != null) {
+        responseCallback.onFailure(this, asIoException(error));
+        return;
+      }
+      try {
+        responseCallback.onResponse(this, response);
+      } catch (IOException e) {
+        response.close();
+      } catch (RuntimeException | Error e) {
+        // Mirrors OkHttp: the callback is told the call failed, and the error is not swallowed
+        // by the future but handed to the thread's uncaught exception handler.
+        response.close();
+        cancel();
+        IOException canceled = new IOException("canceled due to " + e);
+        canceled.addSuppressed(e);
+        responseCallback.onFailure(this, canceled);
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+      }
+    });
+  }
+
+  @Override
+  public void cancel() {
+    canceled = true;
+    CompletableFuture<?> future = inFlight;
+    if (future != null) {
+      future.cancel(true);
+    }
+    Pipe pipe = bodyPipe;
+    if (pipe != null) {
+      pipe.cancel();
+    }
+    closeResponseStream();
+  }
+
+  @Override
+  public boolean isExecuted() {
+    return executed.get();
+  }
+
+  @Override
+  public boolean isCanceled() {
+    return canceled;
+  }
+
+  @NotNull
+  @Override
+  public Timeout timeout() {
+    return okioTimeout;
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new JdkHttpCall(httpClient, bodyWriter, request, timeout);
+  }
+
+  private void markExecuted() {
+    if (!executed.compareAndSet(false, true)) {
+      throw new IllegalStateException("Already Executed");
+    }
+  }
+
+  /**
+   * Starts the exchange and maps the JDK response to an OkHttp response once headers arrive.
+   */
+  private CompletableFuture<Response> send() throws IOException {
+    if (canceled) {
+      throw new IOException("Canceled");
+    }
+    HttpRequest httpRequest = toHttpRequest();
+    long sentAt = System.currentTimeMillis();
+    CompletableFuture<HttpResponse<InputStream>> future =
+        httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+    inFlight = future;
+    if (canceled) {
+      future.cancel(true);
+    }
+    return future.thenApply(response -> toResponse(response, sentAt));
+  }
+
+  private HttpRequest toHttpRequest() throws IOException {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(request.url().uri())
+        .timeout(timeout);
+    Headers headers = request.headers();
+    for (int i = 0; i < headers.size(); i++) {
+      String name = headers.name(i);
+      if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+        builder.header(name, headers.value(i));
+      }
+    }
+    RequestBody body = request.body();
+    if (body == null) {
+      return builder.method(request.method(), HttpRequest.BodyPublishers.noBody()).build();
+    }
+    MediaType contentType = body.contentType();
+    if (contentType != null && request.header("Content-Type") == null) {
+      builder.header("Content-Type", contentType.toString());
+    }
+    return builder.method(request.method(), toBodyPublisher(body)).build();
+  }
+
+  /**
+   * Publishes the request body as it is written, keeping a known length so fixed-length bodies
+   * are not sent chunked.
+   */
+  private HttpRequest.BodyPublisher toBodyPublisher(RequestBody body) throws IOException {
+    long length = body.contentLength();
+    if (length == 0) {
+      return HttpRequest.BodyPublishers.noBody();
+    }
+    HttpRequest.BodyPublisher publisher =
+        HttpRequest.BodyPublishers.ofInputStream(() -> openBodyStream(body));
+    return length < 0
+        ? publisher
+        : HttpRequest.BodyPublishers.fromPublisher(publisher, length);
+  }
+
+  /**
+   * Starts writing the body into a bounded pipe on a worker thread and returns its read end.
+   *
+   * <p>The writer waits while the JDK client is {@link #BODY_PIPE_SIZE} bytes behind, so the
+   * body is never held in memory as a whole. A failure to write the body fails the read, and
+   * with it the request, instead of sending a truncated body.
+   */
+  private InputStream openBodyStream(RequestBody body) {
+    Pipe pipe = new Pipe(BODY_PIPE_SIZE);
+    pipe.sink().timeout().timeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    bodyPipe = pipe;
+    if (canceled) {
+      pipe.cancel();
+    }
+    AtomicReference<IOException> failure = new AtomicReference<>();
+    bodyWriter.execute(() -> {
+      BufferedSink sink = Okio.buffer(pipe.sink());
+      try {
+        body.writeTo(sink);
+        sink.close();
+      } catch (IOException e) {
+        failure.set(e);
+        pipe.cancel();
+      } catch (RuntimeException | Error e) {
+        failure.set(new IOException("Failed to write the request body", e));
+        pipe.cancel();
+      }
+    });
+    return new FilterInputStream(Okio.buffer(pipe.source()).inputStream()) {
+      @Override
+      public int read() throws IOException {
+        try {
+          return super.read();
+        } catch (IOException e) {
+          throw writeFailure(e);
+        }
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        try {
+          return super.read(b, off, len);
+        } catch (IOException e) {
+          throw writeFailure(e);
+        }
+      }
+
+      private IOException writeFailure(IOException e) {
+        IOException cause = failure.get();
+        return cause == null ? e : cause;
+      }
+    };
+  }
+
+  private Response toResponse(HttpResponse<InputStream> httpResponse, long sentAt) {
+    Headers.Builder headersBuilder = new Headers.Builder();
+    for (Map.Entry<String, List<String>> header : httpResponse.headers().map().entrySet()) {
+      if (header.getKey().startsWith(":")) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        headersBuilder.add(header.getKey(), value);
+      }
+    }
+    Headers headers = headersBuilder.build();
+    String contentTypeHeader = headers.get("Content-Type");
+    MediaType contentType = contentTypeHeader == null ? null : MediaType.parse(contentTypeHeader);
+    long contentLength = parseContentLength(headers.get("Content-Length"));
+    responseStream = httpResponse.body();
+    if (canceled) {
+      closeResponseStream();
+    }
+    ResponseBody body = ResponseBody.create(
+        Okio.buffer(okioTimeout.source(Okio.source(httpResponse.body()))),
+        contentType,
+        contentLength
+    );
+    return new Response.Builder()
+        .request(request)
+        .protocol(httpResponse.version() == HttpClient.Version.HTTP_2
+            ? Protocol.HTTP_2
+            : Protocol.HTTP_1_1)
+        .code(httpResponse.statusCode())
+        .message("")
+        .headers(headers)
+        .body(body)
+        .sentRequestAtMillis(sentAt)
+        .receivedResponseAtMillis(System.currentTimeMillis())
+        .build();
+  }
+
+  /**
+   * Closes the response body stream, failing a read that is waiting on it.
+   */
+  private void closeResponseStream() {
+    InputStream stream = responseStream;
+    if (stream == null) {
+      return;
+    }
+    try {
+      stream.close();
+    } catch (IOException ignored) {
+      // The body is being abandoned, nothing to report.
+    }
+  }
+
+  private static long parseContentLength(String value) {
+    if (value == null) {
+      return -1L;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  private static IOException asIoException(Throwable t) {
+    Throwable cause = t;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if (cause instanceof CancellationException) {
+      return new IOException("Canceled");
+    }
+    return new IOException(cause);
+  }
+}
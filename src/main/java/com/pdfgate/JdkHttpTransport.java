@@ -0,0 +1,36 @@
+package com.pdfgate;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+import okhttp3.Call;
+import okhttp3.Request;
+
+/**
+ * Transport backed by the JDK {@link HttpClient}.
+ *
+ * <p>The JDK client sends requests and waits for responses with non-blocking I/O, multiplexing
+ * requests over HTTP/2 connections when the server supports it. Asynchronous calls therefore
+ * only occupy a thread while a response body is being read, not while the API renders.
+ */
+final class JdkHttpTransport implements PdfGateTransport {
+  private final HttpClient httpClient;
+  private final Executor bodyWriter;
+  private final PdfGateConfig config;
+
+  JdkHttpTransport(PdfGateConfig config) {
+    HttpClient.Builder builder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(config.getDefaultTimeout());
+    if (config.isVirtualThreads()) {
+      builder.executor(PdfGateThreads.newVirtualThreadExecutor("pdfgate-http"));
+    }
+    this.httpClient = builder.build();
+    this.bodyWriter = PdfGateThreads.newVirtualThreadExecutor("pdfgate-body-writer");
+    this.config = config;
+  }
+
+  @Override
+  public Call newCall(PdfGateEndpoint endpoint, Request request) {
+    return new JdkHttpCall(httpClient, bodyWriter, request, config.getTimeout(endpoint));
+  }
+}
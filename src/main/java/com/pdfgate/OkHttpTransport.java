@@ -0,0 +1,37 @@
+package com.pdfgate;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * Transport backed by OkHttp.
+ */
+final class OkHttpTransport implements PdfGateTransport {
+  /**
+   * Per-endpoint OkHttp clients derived from the base client with endpoint timeouts.
+   */
+  private final Map<PdfGateEndpoint, OkHttpClient> clients =
+      new EnumMap<>(PdfGateEndpoint.class);
+
+  /**
+   * Derives one client per endpoint so timeouts are applied without rebuilding clients per call.
+   */
+  OkHttpTransport(OkHttpClient httpClient, PdfGateConfig config) {
+    for (PdfGateEndpoint endpoint : PdfGateEndpoint.values()) {
+      Duration timeout = config.getTimeout(endpoint);
+      clients.put(endpoint, httpClient.newBuilder()
+          .callTimeout(timeout)
+          .readTimeout(timeout)
+          .build());
+    }
+  }
+
+  @Override
+  public Call newCall(PdfGateEndpoint endpoint, Request request) {
+    return clients.get(endpoint).newCall(request);
+  }
+}
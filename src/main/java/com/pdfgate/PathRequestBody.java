@@ -0,0 +1,56 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * Request body that streams a file from disk.
+ *
+ * <p>The file is opened again on every {@link #writeTo(BufferedSink)}, so retries replay it.
+ * Its size is read once and sent as {@code Content-Length}; a file that shrinks afterwards
+ * fails the upload instead of sending a truncated body.
+ */
+final class PathRequestBody extends RequestBody {
+  private final Path path;
+  private final MediaType mediaType;
+  private long contentLength = -1;
+
+  PathRequestBody(Path path, MediaType mediaType) {
+    this.path = path;
+    this.mediaType = mediaType;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return mediaType;
+  }
+
+  @Override
+  public synchronized long contentLength() throws IOException {
+    if (contentLength < 0) {
+      contentLength = Files.size(path);
+    }
+    return contentLength;
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    long length = contentLength();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long position = 0;
+      while (position < length) {
+        long transferred = channel.transferTo(position, length - position, sink);
+        if (transferred <= 0) {
+          throw new IOException("File " + path + " is shorter than its announced length.");
+        }
+        position += transferred;
+      }
+    }
+  }
+}
@@ -2,7 +2,19 @@ package com.pdfgate;
 
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 /**
@@ -21,6 +33,27 @@ public final class PdfGate {
    * Enqueues calls and adapts responses for async usage.
    */
   private final PdfGateEnqueuer enqueuer;
+  /**
+   * Configuration used to create this client.
+   */
+  private final PdfGateConfig config;
+  /**
+   * Transport shared with clients derived through {@link #withApiKey(String)}.
+   */
+  private final PdfGateTransport transport;
+  /**
+   * Shares identical concurrent requests, or {@code null} when coalescing is disabled.
+   */
+  private final PdfGateCoalescer coalescer;
+  /**
+   * Persistent cache of generated PDFs, or {@code null} when result caching is disabled.
+   */
+  private final PdfGateResultCache resultCache;
+  /**
+   * In-memory cache of file responses shared with clients derived through
+   * {@link #withApiKey(String)}, or {@code null} when it is disabled.
+   */
+  private final PdfGateMemoryCache memoryCache;
 
   /**
    * Creates a client with the default configuration.
@@ -38,6 +71,18 @@ public final class PdfGate {
    * @param config configuration for base URL, timeouts, and headers.
    */
   public PdfGate(String apiKey, PdfGateConfig config) {
+    this(builder().apiKey(apiKey).config(config));
+  }
+
+  private PdfGate(Builder builder) {
+    this(builder.apiKey, builder.config, resolveTransport(builder),
+        builder.config.getMemoryCacheMaxBytes() == 0
+            ? null
+            : new PdfGateMemoryCache(builder.config.getMemoryCacheMaxBytes()));
+  }
+
+  private PdfGate(String apiKey, PdfGateConfig config, PdfGateTransport transport,
+                  PdfGateMemoryCache memoryCache) {
     if (apiKey == null || apiKey.isBlank()) {
       throw new IllegalArgumentException("apiKey must be provided.");
     }
@@ -45,17 +90,238 @@ public final class PdfGate {
       throw new IllegalArgumentException("config must be provided.");
     }
     UrlBuilder urlBuilder = new UrlBuilder(apiKey, config);
-    OkHttpClient httpClient = new OkHttpClient.Builder()
-        .connectTimeout(config.getDefaultTimeout())
-        .build();
-    this.callBuilder = new PdfGateCallBuilder(apiKey, httpClient, config, urlBuilder);
+    this.config = config;
+    this.transport = transport;
+    this.callBuilder = new PdfGateCallBuilder(apiKey, transport, config, urlBuilder);
     this.enqueuer = new PdfGateEnqueuer();
+    this.coalescer = config.isCoalesceRequests() ? new PdfGateCoalescer() : null;
+    this.resultCache = config.getResultCacheDirectory() == null
+        ? null
+        : PdfGateResultCache.open(config);
+    this.memoryCache = memoryCache;
+  }
+
+  /**
+   * Creates a new builder for clients that share an OkHttp client, connection pool or
+   * dispatcher.
+   *
+   * @return the builder for PDFGate clients.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a client for another API key that shares this client's configuration, connection
+   * pool and dispatcher.
+   *
+   * <p>Use it to serve many API keys (for example one per tenant) over one warm pool.
+   *
+   * @param apiKey API key used for authentication.
+   * @return a client authenticated with {@code apiKey}.
+   */
+  public PdfGate withApiKey(String apiKey) {
+    return new PdfGate(apiKey, config, transport, memoryCache);
+  }
+
+  /**
+   * Creates a dispatcher sized so per-endpoint limits, not the dispatcher, bound concurrency.
+   */
+  private static Dispatcher createDispatcher(PdfGateConfig config) {
+    long maxRequests = 0;
+    for (PdfGateEndpoint endpoint : PdfGateEndpoint.values()) {
+      maxRequests += config.getMaxConcurrentRequests(endpoint);
+    }
+    int limit = (int) Math.min(maxRequests, Integer.MAX_VALUE);
+    Dispatcher dispatcher = config.isVirtualThreads()
+        ? new Dispatcher(PdfGateThreads.newVirtualThreadExecutor("pdfgate-dispatcher"))
+        : new Dispatcher();
+    dispatcher.setMaxRequests(limit);
+    dispatcher.setMaxRequestsPerHost(limit);
+    return dispatcher;
+  }
+
+  /**
+   * Creates the transport selected by the configuration.
+   */
+  private static PdfGateTransport resolveTransport(Builder builder) {
+    if (builder.config == null) {
+      throw new IllegalArgumentException("config must be provided.");
+    }
+    boolean okHttpComponents = builder.httpClient != null
+        || builder.connectionPool != null
+        || builder.dispatcher != null;
+    switch (builder.config.getTransport()) {
+      case JDK_HTTP_CLIENT:
+        if (okHttpComponents) {
+          throw new IllegalArgumentException(
+              "httpClient, connectionPool and dispatcher require the OKHTTP transport.");
+        }
+        return new JdkHttpTransport(builder.config);
+      case OKHTTP:
+      default:
+        return new OkHttpTransport(resolveHttpClient(builder), builder.config);
+    }
+  }
+
+  /**
+   * Resolves the base OkHttp client, reusing injected components when provided.
+   */
+  private static OkHttpClient resolveHttpClient(Builder builder) {
+    if (builder.httpClient != null
+        && builder.connectionPool == null
+        && builder.dispatcher == null) {
+      return builder.httpClient;
+    }
+    OkHttpClient.Builder clientBuilder = builder.httpClient != null
+        ? builder.httpClient.newBuilder()
+        : new OkHttpClient.Builder()
+            .connectTimeout(builder.config.getDefaultTimeout())
+            .dispatcher(createDispatcher(builder.config));
+    if (builder.connectionPool != null) {
+      clientBuilder.connectionPool(builder.connectionPool);
+    } else if (builder.httpClient == null) {
+      clientBuilder.connectionPool(new ConnectionPool(
+          builder.config.getMaxIdleConnections(),
+          builder.config.getKeepAliveDuration().toMillis(),
+          TimeUnit.MILLISECONDS
+      ));
+    }
+    if (builder.dispatcher != null) {
+      clientBuilder.dispatcher(builder.dispatcher);
+    }
+    return clientBuilder.build();
+  }
+
+  /**
+   * Executes a call, sharing it with an identical call already in flight when coalescing is
+   * enabled.
+   */
+  private <T> T executeShared(Call call, PdfGateCoalescer.Execution<T> execution,
+                              UnaryOperator<T> copy) throws PdfGateException {
+    String fingerprint = coalescer == null ? null : PdfGateCoalescer.fingerprint(call.request());
+    if (fingerprint == null) {
+      return execution.execute();
+    }
+    return coalescer.execute(fingerprint, execution, copy);
+  }
+
+  /**
+   * Enqueues a call, sharing it with an identical call already in flight when coalescing is
+   * enabled.
+   */
+  private <T> CompletableFuture<T> enqueueShared(Call call,
+                                                 Supplier<CompletableFuture<T>> execution,
+                                                 UnaryOperator<T> copy) {
+    if (coalescer == null) {
+      return execution.get();
+    }
+    String fingerprint;
+    try {
+      fingerprint = PdfGateCoalescer.fingerprint(call.request());
+    } catch (PdfGateException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    if (fingerprint == null) {
+      return execution.get();
+    }
+    return coalescer.executeAsync(fingerprint, execution, copy);
+  }
+
+  /**
+   * Returns the result cache key for a generate PDF call, or {@code null} when its result must
+   * not be cached.
+   */
+  private String resultCacheKey(CallFile call, GeneratePdfParams params) {
+    if (resultCache == null || !isCacheable(params)) {
+      return null;
+    }
+    return PdfGateResultCache.key(call.request(), params);
+  }
+
+  /**
+   * Returns whether the PDF generated from {@code params} may be served from a cache: it must
+   * not depend on a page or on the time, unless caching such PDFs is enabled.
+   */
+  private boolean isCacheable(GeneratePdfParams params) {
+    return config.isCacheDynamicResults()
+        || params.getUrl() == null && params.getJavascript() == null;
+  }
+
+  /**
+   * Executes a file call, serving it from the in-memory cache when it is enabled and
+   * {@code cacheable} is set.
+   */
+  private byte[] executeCached(CallFile call, PdfGateEndpoint endpoint, boolean cacheable,
+                               PdfGateCoalescer.Execution<byte[]> execution)
+      throws PdfGateException {
+    String key = memoryCache == null || !cacheable
+        ? null
+        : PdfGateMemoryCache.key(call.request());
+    if (key == null) {
+      return execution.execute();
+    }
+    byte[] cached = memoryCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    long start = System.nanoTime();
+    byte[] file = execution.execute();
+    memoryCache.recordLatency(endpoint, System.nanoTime() - start);
+    memoryCache.put(key, file, endpoint);
+    return file;
+  }
+
+  /**
+   * Enqueues a file call, serving it from the in-memory cache when it is enabled and
+   * {@code cacheable} is set.
+   */
+  private CompletableFuture<byte[]> enqueueCached(CallFile call, PdfGateEndpoint endpoint,
+                                                  boolean cacheable,
+                                                  Supplier<CompletableFuture<byte[]>> execution) {
+    String key = memoryCache == null || !cacheable
+        ? null
+        : PdfGateMemoryCache.key(call.request());
+    if (key == null) {
+      return execution.get();
+    }
+    byte[] cached = memoryCache.get(key);
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    long start = System.nanoTime();
+    // The caller's future completes only after the file was copied into the cache, so changes
+    // the caller makes to its array cannot reach the cached entry.
+    return storeBeforeCompleting(execution.get(), file -> {
+      memoryCache.recordLatency(endpoint, System.nanoTime() - start);
+      memoryCache.put(key, file, endpoint);
+    });
+  }
+
+  /**
+   * Returns a future that completes with the file once {@code store} has run on it, and cancels
+   * {@code future} when it is cancelled.
+   */
+  private static CompletableFuture<byte[]> storeBeforeCompleting(CompletableFuture<byte[]> future,
+                                                                 Consumer<byte[]> store) {
+    CompletableFuture<byte[]> stored = future.thenApply(file -> {
+      store.accept(file);
+      return file;
+    });
+    stored.whenComplete((file, error) -> {
+      if (stored.isCancelled()) {
+        future.cancel(true);
+      }
+    });
+    return stored;
   }
 
   /**
    * Generates a PDF from HTML or a URL and returns raw bytes.
    *
-   * <p>The API expects either {@code html} or {@code url} to be set in {@code params}.
+   * <p>The API expects either {@code html} or {@code url} to be set in {@code params}. When
+   * {@link PdfGateConfig.Builder#resultCacheDirectory(Path)} is set, a PDF generated earlier
+   * from the same parameters is returned from disk.
    *
    * @param params parameters for the generate PDF request.
    * @return the generated PDF bytes.
@@ -63,7 +329,21 @@ public final class PdfGate {
    */
   public byte[] generatePdf(GeneratePdfFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(generatePdfCall(params));
+    CallFile call = generatePdfCall(params);
+    return executeCached(call, PdfGateEndpoint.GENERATE_PDF, isCacheable(params), () -> {
+      String key = resultCacheKey(call, params);
+      byte[] cached = key == null ? null : resultCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+      return executeShared(call, () -> {
+        byte[] pdf = PdfGateCallExecutor.execute(call);
+        if (key != null) {
+          resultCache.put(key, pdf);
+        }
+        return pdf;
+      }, byte[]::clone);
+    });
   }
 
   /**
@@ -75,19 +355,35 @@ public final class PdfGate {
    */
   public PdfGateDocument generatePdf(GeneratePdfJsonParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(generatePdfCall(params));
+    CallJson call = generatePdfCall(params);
+    return executeShared(call, () -> PdfGateCallExecutor.execute(call),
+        UnaryOperator.identity());
   }
 
   /**
    * Generates a PDF from HTML or a URL asynchronously and returns raw bytes.
    *
    * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   * PDFs found in the result cache complete the future immediately.
    *
    * @param params parameters for the generate PDF request.
    * @return a future that completes with the generated PDF bytes.
    */
   public CompletableFuture<byte[]> generatePdfAsync(GeneratePdfFileParams params) {
-    return enqueuer.enqueueAsFuture(generatePdfCall(params));
+    CallFile call = generatePdfCall(params);
+    return enqueueCached(call, PdfGateEndpoint.GENERATE_PDF, isCacheable(params), () -> {
+      String key = resultCacheKey(call, params);
+      byte[] cached = key == null ? null : resultCache.get(key);
+      if (cached != null) {
+        return CompletableFuture.completedFuture(cached);
+      }
+      return enqueueShared(call, () -> {
+        CompletableFuture<byte[]> future = enqueuer.enqueueAsFuture(call);
+        return key == null
+            ? future
+            : storeBeforeCompleting(future, pdf -> resultCache.put(key, pdf));
+      }, byte[]::clone);
+    });
   }
 
   /**
@@ -99,7 +395,160 @@ public final class PdfGate {
    * @return a future that completes with the generated document metadata.
    */
   public CompletableFuture<PdfGateDocument> generatePdfAsync(GeneratePdfJsonParams params) {
-    return enqueuer.enqueueAsFuture(generatePdfCall(params));
+    CallJson call = generatePdfCall(params);
+    return enqueueShared(call, () -> enqueuer.enqueueAsFuture(call), UnaryOperator.identity());
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL and streams it to a file with constant memory.
+   *
+   * <p>The file is created or replaced once the download completes; if it fails midway, an
+   * existing file is left untouched.
+   *
+   * @param params parameters for the generate PDF request.
+   * @param target file to write the PDF to.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long generatePdf(GeneratePdfFileParams params, Path target)
+      throws IOException {
+    return download(generatePdfCall(params), target);
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL and streams it to a channel with constant memory.
+   *
+   * @param params parameters for the generate PDF request.
+   * @param target channel to write the PDF to; it is left open.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long generatePdf(GeneratePdfFileParams params, WritableByteChannel target)
+      throws IOException {
+    return download(generatePdfCall(params), target);
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously and streams it to a file.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the generate PDF request.
+   * @param target file to write the PDF to.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> generatePdfAsync(GeneratePdfFileParams params, Path target) {
+    return downloadAsync(generatePdfCall(params), target);
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously and streams it to a channel.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the generate PDF request.
+   * @param target channel to write the PDF to; it is left open.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> generatePdfAsync(GeneratePdfFileParams params,
+                                                 WritableByteChannel target) {
+    return downloadAsync(generatePdfCall(params), target);
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously and publishes it to a subscriber in
+   * chunks as it arrives.
+   *
+   * <p>Chunks are only read while the subscriber has outstanding demand. Errors, including
+   * non-2xx responses, are signalled through {@link Flow.Subscriber#onError(Throwable)} as
+   * {@link PdfGateException}.
+   *
+   * @param params parameters for the generate PDF request.
+   * @param subscriber receives the PDF in chunks.
+   */
+  public void generatePdfAsync(GeneratePdfFileParams params,
+                               Flow.Subscriber<? super ByteBuffer> subscriber) {
+    downloadAsync(generatePdfCall(params), subscriber);
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL and returns a stream over the live response body.
+   *
+   * <p>The method returns as soon as the response headers arrive, so the PDF can be relayed
+   * while it downloads. The caller must close the stream to release the connection.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return a stream over the generated PDF.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public InputStream generatePdfStream(GeneratePdfFileParams params)
+      throws IOException {
+    return openStream(generatePdfCall(params));
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously and returns a stream over the live
+   * response body.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   * The caller must close the stream to release the connection.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return a future that completes with a stream over the generated PDF.
+   */
+  public CompletableFuture<InputStream> generatePdfStreamAsync(GeneratePdfFileParams params) {
+    return openStreamAsync(generatePdfCall(params));
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL into a re-readable result that spills to a temporary
+   * file above {@link PdfGateConfig#getSpillThreshold()}.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return the generated PDF; the caller must close it.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateFileResult generatePdfResult(GeneratePdfFileParams params)
+      throws PdfGateException {
+    return downloadResult(generatePdfCall(params));
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously into a re-readable result that spills to
+   * a temporary file above {@link PdfGateConfig#getSpillThreshold()}.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return a future that completes with the generated PDF; the caller must close it.
+   */
+  public CompletableFuture<PdfGateFileResult> generatePdfResultAsync(
+      GeneratePdfFileParams params) {
+    return downloadResultAsync(generatePdfCall(params));
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL into pooled segments instead of one contiguous array.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return the generated PDF; the caller should release it.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateBytes generatePdfBytes(GeneratePdfFileParams params) throws PdfGateException {
+    return downloadBytes(generatePdfCall(params));
+  }
+
+  /**
+   * Generates a PDF from HTML or a URL asynchronously into pooled segments instead of one
+   * contiguous array.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the generate PDF request.
+   * @return a future that completes with the generated PDF; the caller should release it.
+   */
+  public CompletableFuture<PdfGateBytes> generatePdfBytesAsync(GeneratePdfFileParams params) {
+    return downloadBytesAsync(generatePdfCall(params));
   }
 
   /**
@@ -133,7 +582,9 @@ public final class PdfGate {
    */
   public byte[] flattenPdf(FlattenPdfFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(flattenPdfCall(params));
+    CallFile call = flattenPdfCall(params);
+    return executeCached(call, PdfGateEndpoint.FLATTEN_PDF, true,
+        () -> PdfGateCallExecutor.execute(call));
   }
 
   /**
@@ -157,7 +608,9 @@ public final class PdfGate {
    * @return a future that completes with the flattened PDF bytes.
    */
   public CompletableFuture<byte[]> flattenPdfAsync(FlattenPdfFileParams params) {
-    return enqueuer.enqueueAsFuture(flattenPdfCall(params));
+    CallFile call = flattenPdfCall(params);
+    return enqueueCached(call, PdfGateEndpoint.FLATTEN_PDF, true,
+        () -> enqueuer.enqueueAsFuture(call));
   }
 
   /**
@@ -203,7 +656,9 @@ public final class PdfGate {
    */
   public byte[] protectPdf(ProtectPdfFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(protectPdfCall(params));
+    CallFile call = protectPdfCall(params);
+    return executeCached(call, PdfGateEndpoint.PROTECT_PDF, true,
+        () -> PdfGateCallExecutor.execute(call));
   }
 
   /**
@@ -227,7 +682,9 @@ public final class PdfGate {
    * @return a future that completes with the protected PDF bytes.
    */
   public CompletableFuture<byte[]> protectPdfAsync(ProtectPdfFileParams params) {
-    return enqueuer.enqueueAsFuture(protectPdfCall(params));
+    CallFile call = protectPdfCall(params);
+    return enqueueCached(call, PdfGateEndpoint.PROTECT_PDF, true,
+        () -> enqueuer.enqueueAsFuture(call));
   }
 
   /**
@@ -273,7 +730,9 @@ public final class PdfGate {
    */
   public byte[] compressPdf(CompressPdfFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(compressPdfCall(params));
+    CallFile call = compressPdfCall(params);
+    return executeCached(call, PdfGateEndpoint.COMPRESS_PDF, true,
+        () -> PdfGateCallExecutor.execute(call));
   }
 
   /**
@@ -297,7 +756,9 @@ public final class PdfGate {
    * @return a future that completes with the compressed PDF bytes.
    */
   public CompletableFuture<byte[]> compressPdfAsync(CompressPdfFileParams params) {
-    return enqueuer.enqueueAsFuture(compressPdfCall(params));
+    CallFile call = compressPdfCall(params);
+    return enqueueCached(call, PdfGateEndpoint.COMPRESS_PDF, true,
+        () -> enqueuer.enqueueAsFuture(call));
   }
 
   /**
@@ -345,7 +806,9 @@ public final class PdfGate {
    */
   public byte[] watermarkPdf(WatermarkPdfFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(watermarkPdfCall(params));
+    CallFile call = watermarkPdfCall(params);
+    return executeCached(call, PdfGateEndpoint.WATERMARK_PDF, true,
+        () -> PdfGateCallExecutor.execute(call));
   }
 
   /**
@@ -369,7 +832,9 @@ public final class PdfGate {
    * @return a future that completes with the watermarked PDF bytes.
    */
   public CompletableFuture<byte[]> watermarkPdfAsync(WatermarkPdfFileParams params) {
-    return enqueuer.enqueueAsFuture(watermarkPdfCall(params));
+    CallFile call = watermarkPdfCall(params);
+    return enqueueCached(call, PdfGateEndpoint.WATERMARK_PDF, true,
+        () -> enqueuer.enqueueAsFuture(call));
   }
 
   /**
@@ -447,7 +912,9 @@ public final class PdfGate {
    */
   public PdfGateDocument getDocument(GetDocumentParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(getDocumentCall(params));
+    CallJson call = getDocumentCall(params);
+    return executeShared(call, () -> PdfGateCallExecutor.execute(call),
+        UnaryOperator.identity());
   }
 
   /**
@@ -459,7 +926,8 @@ public final class PdfGate {
    * @return a future that completes with the document metadata.
    */
   public CompletableFuture<PdfGateDocument> getDocumentAsync(GetDocumentParams params) {
-    return enqueuer.enqueueAsFuture(getDocumentCall(params));
+    CallJson call = getDocumentCall(params);
+    return enqueueShared(call, () -> enqueuer.enqueueAsFuture(call), UnaryOperator.identity());
   }
 
   /**
@@ -483,7 +951,9 @@ public final class PdfGate {
    */
   public byte[] getFile(GetFileParams params)
       throws IOException {
-    return PdfGateCallExecutor.execute(getFileCall(params));
+    CallFile call = getFileCall(params);
+    return executeCached(call, PdfGateEndpoint.GET_FILE, true,
+        () -> executeShared(call, () -> PdfGateCallExecutor.execute(call), byte[]::clone));
   }
 
   /**
@@ -495,7 +965,183 @@ public final class PdfGate {
    * @return a future that completes with the stored PDF bytes.
    */
   public CompletableFuture<byte[]> getFileAsync(GetFileParams params) {
-    return enqueuer.enqueueAsFuture(getFileCall(params));
+    CallFile call = getFileCall(params);
+    return enqueueCached(call, PdfGateEndpoint.GET_FILE, true,
+        () -> enqueueShared(call, () -> enqueuer.enqueueAsFuture(call), byte[]::clone));
+  }
+
+  /**
+   * Retrieves a stored document file and streams it to a file with constant memory.
+   *
+   * <p>The file is created or replaced once the download completes; if it fails midway, an
+   * existing file is left untouched.
+   *
+   * @param params parameters for the get file request.
+   * @param target file to write the PDF to.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long getFile(GetFileParams params, Path target)
+      throws IOException {
+    return download(getFileCall(params), target);
+  }
+
+  /**
+   * Retrieves a stored document file and streams it to a channel with constant memory.
+   *
+   * @param params parameters for the get file request.
+   * @param target channel to write the PDF to; it is left open.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long getFile(GetFileParams params, WritableByteChannel target)
+      throws IOException {
+    return download(getFileCall(params), target);
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously and streams it to a file.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the get file request.
+   * @param target file to write the PDF to.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> getFileAsync(GetFileParams params, Path target) {
+    return downloadAsync(getFileCall(params), target);
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously and streams it to a channel.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the get file request.
+   * @param target channel to write the PDF to; it is left open.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> getFileAsync(GetFileParams params, WritableByteChannel target) {
+    return downloadAsync(getFileCall(params), target);
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously and publishes it to a subscriber in
+   * chunks as it arrives.
+   *
+   * <p>Chunks are only read while the subscriber has outstanding demand. Errors, including
+   * non-2xx responses, are signalled through {@link Flow.Subscriber#onError(Throwable)} as
+   * {@link PdfGateException}.
+   *
+   * @param params parameters for the get file request.
+   * @param subscriber receives the PDF in chunks.
+   */
+  public void getFileAsync(GetFileParams params, Flow.Subscriber<? super ByteBuffer> subscriber) {
+    downloadAsync(getFileCall(params), subscriber);
+  }
+
+  /**
+   * Retrieves a stored document file as a stream over the live response body.
+   *
+   * <p>The caller must close the stream to release the connection.
+   *
+   * @param params parameters for the get file request.
+   * @return a stream over the stored PDF.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public InputStream getFileStream(GetFileParams params)
+      throws IOException {
+    return openStream(getFileCall(params));
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously as a stream over the live response body.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   * The caller must close the stream to release the connection.
+   *
+   * @param params parameters for the get file request.
+   * @return a future that completes with a stream over the stored PDF.
+   */
+  public CompletableFuture<InputStream> getFileStreamAsync(GetFileParams params) {
+    return openStreamAsync(getFileCall(params));
+  }
+
+  /**
+   * Retrieves a stored document file into a re-readable result that spills to a temporary
+   * file above {@link PdfGateConfig#getSpillThreshold()}.
+   *
+   * @param params parameters for the get file request.
+   * @return the stored PDF; the caller must close it.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateFileResult getFileResult(GetFileParams params) throws PdfGateException {
+    return downloadResult(getFileCall(params));
+  }
+
+  /**
+   * Retrieves the file of a document into a re-readable result, using the document size to
+   * decide up front whether to spill to a temporary file when the response does not declare
+   * its length.
+   *
+   * @param document the document whose file to retrieve.
+   * @return the stored PDF; the caller must close it.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateFileResult getFileResult(PdfGateDocument document) throws PdfGateException {
+    return PdfGateCallExecutor.execute(getFileCall(fileParams(document)),
+        config.getSpillThreshold(), sizeHint(document));
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously into a re-readable result that spills to
+   * a temporary file above {@link PdfGateConfig#getSpillThreshold()}.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the get file request.
+   * @return a future that completes with the stored PDF; the caller must close it.
+   */
+  public CompletableFuture<PdfGateFileResult> getFileResultAsync(GetFileParams params) {
+    return downloadResultAsync(getFileCall(params));
+  }
+
+  /**
+   * Retrieves the file of a document asynchronously into a re-readable result, using the
+   * document size to decide up front whether to spill to a temporary file.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param document the document whose file to retrieve.
+   * @return a future that completes with the stored PDF; the caller must close it.
+   */
+  public CompletableFuture<PdfGateFileResult> getFileResultAsync(PdfGateDocument document) {
+    return enqueuer.enqueueAsFuture(getFileCall(fileParams(document)),
+        config.getSpillThreshold(), sizeHint(document));
+  }
+
+  /**
+   * Retrieves a stored document file into pooled segments instead of one contiguous array.
+   *
+   * @param params parameters for the get file request.
+   * @return the stored PDF; the caller should release it.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateBytes getFileBytes(GetFileParams params) throws PdfGateException {
+    return downloadBytes(getFileCall(params));
+  }
+
+  /**
+   * Retrieves a stored document file asynchronously into pooled segments instead of one
+   * contiguous array.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param params parameters for the get file request.
+   * @return a future that completes with the stored PDF; the caller should release it.
+   */
+  public CompletableFuture<PdfGateBytes> getFileBytesAsync(GetFileParams params) {
+    return downloadBytesAsync(getFileCall(params));
   }
 
   /**
@@ -508,6 +1154,209 @@ public final class PdfGate {
     return new PdfGateFileCall(callBuilder.buildGetFileCall(params));
   }
 
+  /**
+   * Executes a file call and streams the response to a file with constant memory.
+   *
+   * <p>Use it with any {@code *Call} method returning {@link CallFile}, such as
+   * {@link #compressPdfCall(CompressPdfFileParams)}. The file is created or replaced once the
+   * download completes; if it fails midway, an existing file is left untouched.
+   *
+   * @param call the call to execute.
+   * @param target file to write the response to.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long download(CallFile call, Path target) throws PdfGateException {
+    return PdfGateCallExecutor.execute(call, requireTarget(target));
+  }
+
+  /**
+   * Executes a file call and streams the response to a channel with constant memory.
+   *
+   * @param call the call to execute.
+   * @param target channel to write the response to; it is left open.
+   * @return the number of bytes written.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public long download(CallFile call, WritableByteChannel target) throws PdfGateException {
+    return PdfGateCallExecutor.execute(call, requireTarget(target));
+  }
+
+  /**
+   * Enqueues a file call that streams the response to a file.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param call the call to enqueue.
+   * @param target file to write the response to.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> downloadAsync(CallFile call, Path target) {
+    return enqueuer.enqueueAsFuture(call, requireTarget(target));
+  }
+
+  /**
+   * Enqueues a file call that streams the response to a channel.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param call the call to enqueue.
+   * @param target channel to write the response to; it is left open.
+   * @return a future that completes with the number of bytes written.
+   */
+  public CompletableFuture<Long> downloadAsync(CallFile call, WritableByteChannel target) {
+    return enqueuer.enqueueAsFuture(call, requireTarget(target));
+  }
+
+  /**
+   * Enqueues a file call that publishes the response to a subscriber in chunks as it arrives.
+   *
+   * <p>The subscriber receives {@code onSubscribe} once the response headers arrive, then one
+   * chunk per unit of requested demand, read on the thread that signals demand, and finally
+   * exactly one of {@code onComplete} or {@code onError}. Request {@link Long#MAX_VALUE} to
+   * read without backpressure. Cancelling the subscription aborts the download and releases
+   * the connection. Chunks are never reused, so subscribers may keep them.
+   *
+   * @param call the call to enqueue.
+   * @param subscriber receives the response body in chunks.
+   */
+  public void downloadAsync(CallFile call, Flow.Subscriber<? super ByteBuffer> subscriber) {
+    if (subscriber == null) {
+      throw new IllegalArgumentException("subscriber must be provided.");
+    }
+    enqueuer.enqueue(call, subscriber);
+  }
+
+  /**
+   * Executes a file call and returns a stream over the live response body.
+   *
+   * <p>The response status is checked before returning, so the stream only ever carries a
+   * PDF. The caller must close it to release the connection.
+   *
+   * @param call the call to execute.
+   * @return a stream over the response body.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public InputStream openStream(CallFile call) throws PdfGateException {
+    return PdfGateCallExecutor.openStream(call);
+  }
+
+  /**
+   * Enqueues a file call and returns a stream over the live response body once the response
+   * headers arrive.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   * The caller must close the stream to release the connection.
+   *
+   * @param call the call to enqueue.
+   * @return a future that completes with a stream over the response body.
+   */
+  public CompletableFuture<InputStream> openStreamAsync(CallFile call) {
+    return enqueuer.enqueueStreamAsFuture(call);
+  }
+
+  /**
+   * Executes a file call into a re-readable result that is kept in memory up to
+   * {@link PdfGateConfig#getSpillThreshold()} bytes and spilled to a temporary file beyond it.
+   *
+   * @param call the call to execute.
+   * @return the response body; the caller must close it to delete any temporary file.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateFileResult downloadResult(CallFile call) throws PdfGateException {
+    return PdfGateCallExecutor.execute(call, config.getSpillThreshold(), -1);
+  }
+
+  /**
+   * Enqueues a file call that reads the response into a re-readable result that spills to a
+   * temporary file above {@link PdfGateConfig#getSpillThreshold()}.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param call the call to enqueue.
+   * @return a future that completes with the response body; the caller must close it.
+   */
+  public CompletableFuture<PdfGateFileResult> downloadResultAsync(CallFile call) {
+    return enqueuer.enqueueAsFuture(call, config.getSpillThreshold(), -1);
+  }
+
+  /**
+   * Executes a file call and reads the response into pooled segments instead of one
+   * contiguous array, avoiding humongous allocations for large PDFs.
+   *
+   * @param call the call to execute.
+   * @return the response body; release it to recycle its segments.
+   * @throws PdfGateException when the request fails or the API returns a non-2xx response.
+   */
+  public PdfGateBytes downloadBytes(CallFile call) throws PdfGateException {
+    return PdfGateCallExecutor.executeSegmented(call);
+  }
+
+  /**
+   * Enqueues a file call that reads the response into pooled segments instead of one
+   * contiguous array.
+   *
+   * <p>The returned future completes exceptionally with {@link PdfGateException} on errors.
+   *
+   * @param call the call to enqueue.
+   * @return a future that completes with the response body; release it to recycle its
+   *     segments.
+   */
+  public CompletableFuture<PdfGateBytes> downloadBytesAsync(CallFile call) {
+    return enqueuer.enqueueSegmentedAsFuture(call);
+  }
+
+  private static <T> T requireTarget(T target) {
+    if (target == null) {
+      throw new IllegalArgumentException("target must be provided.");
+    }
+    return target;
+  }
+
+  private static GetFileParams fileParams(PdfGateDocument document) {
+    if (document == null) {
+      throw new IllegalArgumentException("document must be provided.");
+    }
+    return GetFileParams.builder().documentId(document.getId()).build();
+  }
+
+  private static long sizeHint(PdfGateDocument document) {
+    Long size = document.getSize();
+    return size == null ? -1 : size;
+  }
+
+  /**
+   * Returns the current request load of an endpoint.
+   *
+   * <p>Concurrency limits and queue sizes are configured per endpoint on
+   * {@link PdfGateConfig.Builder#maxConcurrentRequests(PdfGateEndpoint, int)} and
+   * {@link PdfGateConfig.Builder#maxQueuedRequests(PdfGateEndpoint, int)}.
+   *
+   * @param endpoint the endpoint to inspect.
+   * @return a snapshot of the endpoint's active and queued requests.
+   */
+  public PdfGateEndpointMetrics getEndpointMetrics(PdfGateEndpoint endpoint) {
+    if (endpoint == null) {
+      throw new IllegalArgumentException("endpoint must be provided.");
+    }
+    return new PdfGateEndpointMetrics(callBuilder.bulkhead(endpoint),
+        callBuilder.circuitBreaker(endpoint), callBuilder.compressionStats(endpoint));
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts of the in-memory result cache.
+   *
+   * <p>The cache is enabled with {@link PdfGateConfig.Builder#memoryCacheMaxBytes(long)} and
+   * shared with clients derived through {@link #withApiKey(String)}.
+   *
+   * @return a snapshot of the cache counters, all zero when the cache is disabled.
+   */
+  public PdfGateCacheMetrics getCacheMetrics() {
+    return memoryCache == null
+        ? new PdfGateCacheMetrics(0, 0, 0, 0, 0)
+        : memoryCache.metrics();
+  }
+
   /**
    * Enqueues a JSON response call and maps the response to {@link PdfGateDocument}.
    *
@@ -538,4 +1387,92 @@ public final class PdfGate {
     enqueuer.enqueue(call, callback);
   }
 
+  /**
+   * Builder for {@link PdfGate} clients.
+   *
+   * <p>Inject an existing {@link OkHttpClient}, {@link ConnectionPool} or {@link Dispatcher} to
+   * let several clients with different API keys multiplex over the same connections and
+   * threads. When no pool is provided, one is created from
+   * {@link PdfGateConfig#getMaxIdleConnections()} and
+   * {@link PdfGateConfig#getKeepAliveDuration()}.
+   */
+  public static final class Builder {
+    private String apiKey;
+    private PdfGateConfig config = PdfGateConfig.defaultConfig();
+    private OkHttpClient httpClient;
+    private ConnectionPool connectionPool;
+    private Dispatcher dispatcher;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the API key used for authentication.
+     *
+     * @param apiKey API key used for authentication.
+     * @return this builder.
+     */
+    public Builder apiKey(String apiKey) {
+      this.apiKey = apiKey;
+      return this;
+    }
+
+    /**
+     * Sets the client configuration.
+     *
+     * @param config configuration for base URL, timeouts, and connections.
+     * @return this builder.
+     */
+    public Builder config(PdfGateConfig config) {
+      this.config = config;
+      return this;
+    }
+
+    /**
+     * Sets the base OkHttp client whose connection pool, dispatcher and settings are shared.
+     *
+     * <p>Endpoint timeouts from the configuration are still applied per call.
+     *
+     * @param httpClient the OkHttp client to share.
+     * @return this builder.
+     */
+    public Builder httpClient(OkHttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    /**
+     * Sets the connection pool to share between clients.
+     *
+     * @param connectionPool the connection pool to share.
+     * @return this builder.
+     */
+    public Builder connectionPool(ConnectionPool connectionPool) {
+      this.connectionPool = connectionPool;
+      return this;
+    }
+
+    /**
+     * Sets the dispatcher to share between clients.
+     *
+     * <p>The dispatcher's per-host limit also caps asynchronous requests across all endpoints,
+     * so size it to at least the sum of the configured endpoint limits.
+     *
+     * @param dispatcher the dispatcher to share.
+     * @return this builder.
+     */
+    public Builder dispatcher(Dispatcher dispatcher) {
+      this.dispatcher = dispatcher;
+      return this;
+    }
+
+    /**
+     * Builds the client.
+     *
+     * @return the configured {@link PdfGate} client.
+     */
+    public PdfGate build() {
+      return new PdfGate(this);
+    }
+  }
 }
@@ -0,0 +1,75 @@
+package com.pdfgate;
+
+/**
+ * Adaptive concurrency limit for one endpoint, adjusted from round-trip time samples.
+ *
+ * <p>The limit grows by one while the endpoint is well utilized and latency stays close to the
+ * best observed round trip (additive increase), shrinks by one when latency suggests requests
+ * are queueing on the server (Vegas-style), and is cut multiplicatively when the API throttles
+ * with {@code 429}/{@code 503} or a request times out. Callers must synchronize access.
+ */
+final class PdfGateAdaptiveLimit {
+  /**
+   * Initial limit when adaptive limiting starts.
+   */
+  static final int INITIAL_LIMIT = 8;
+  /**
+   * Multiplier applied to the limit on throttling or timeouts.
+   */
+  private static final double BACKOFF_RATIO = 0.9;
+  /**
+   * Estimated queued requests below which the limit may grow.
+   */
+  private static final double ALPHA = 3;
+  /**
+   * Estimated queued requests above which the limit shrinks.
+   */
+  private static final double BETA = 6;
+  /**
+   * Samples after which the minimum round trip is re-measured, so it follows workload changes.
+   */
+  private static final int MIN_RTT_RESET_SAMPLES = 500;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private double limit;
+  private long minRttNanos = Long.MAX_VALUE;
+  private int samplesSinceReset;
+
+  PdfGateAdaptiveLimit(int maxLimit) {
+    this.minLimit = 1;
+    this.maxLimit = maxLimit;
+    this.limit = Math.min(INITIAL_LIMIT, maxLimit);
+  }
+
+  /**
+   * Records a completed request and returns the new limit.
+   *
+   * @param rttNanos time from dispatch to response headers.
+   * @param inFlight requests in flight when the request completed, including itself.
+   * @param dropped whether the API throttled the request or it timed out.
+   */
+  int update(long rttNanos, int inFlight, boolean dropped) {
+    if (dropped) {
+      limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+      return getLimit();
+    }
+    if (++samplesSinceReset >= MIN_RTT_RESET_SAMPLES) {
+      samplesSinceReset = 0;
+      minRttNanos = rttNanos;
+    } else {
+      minRttNanos = Math.min(minRttNanos, rttNanos);
+    }
+    double queued = rttNanos <= 0 ? 0 : limit * (1 - (double) minRttNanos / rttNanos);
+    if (queued > BETA) {
+      limit = Math.max(minLimit, limit - 1);
+    } else if (queued < ALPHA && inFlight * 2 >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+    return getLimit();
+  }
+
+  int getLimit() {
+    return (int) limit;
+  }
+}
@@ -0,0 +1,59 @@
+package com.pdfgate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over SHA-256 hex digests, sized for a 1% false positive rate.
+ *
+ * <p>Digests are already uniformly distributed, so the probe positions are derived from their
+ * leading bits with double hashing instead of rehashing them.
+ */
+final class PdfGateBloomFilter {
+  private static final int HASH_COUNT = 7;
+  private static final double BITS_PER_ENTRY = 9.6;
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+
+  PdfGateBloomFilter(int expectedEntries) {
+    long bits = Math.max(64, (long) Math.ceil(Math.max(1, expectedEntries) * BITS_PER_ENTRY));
+    this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+    this.bitCount = words.length() * 64L;
+  }
+
+  /**
+   * Adds a digest to the filter.
+   */
+  void add(String digest) {
+    long h1 = hash(digest, 0);
+    long h2 = hash(digest, 16);
+    for (int i = 0; i < HASH_COUNT; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long word = words.get(index);
+      while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+        word = words.get(index);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code false} when the digest was definitely never added.
+   */
+  boolean mightContain(String digest) {
+    long h1 = hash(digest, 0);
+    long h2 = hash(digest, 16);
+    for (int i = 0; i < HASH_COUNT; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash(String digest, int offset) {
+    return Long.parseUnsignedLong(digest.substring(offset, offset + 16), 16);
+  }
+}
@@ -0,0 +1,216 @@
+package com.pdfgate;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits concurrent requests for one endpoint and queues the excess in FIFO order.
+ *
+ * <p>Synchronous callers block until a permit is granted; asynchronous callers register a task
+ * that runs once a permit is available. Requests are rejected only when the queue is full.
+ * When an {@link PdfGateAdaptiveLimit} is attached, the limit follows the samples reported on
+ * {@link #release(long, boolean)}.
+ */
+final class PdfGateBulkhead {
+  private final PdfGateEndpoint endpoint;
+  private final int maxQueued;
+  /**
+   * Adjusts the limit from request samples, or {@code null} for a fixed limit.
+   */
+  private final PdfGateAdaptiveLimit adaptiveLimit;
+  private final ReentrantLock lock = new ReentrantLock();
+  /**
+   * Tasks waiting for a permit, each granted one when it is polled.
+   */
+  private final Deque<Runnable> waiters = new ArrayDeque<>();
+  private int limit;
+  private int active;
+
+  PdfGateBulkhead(PdfGateEndpoint endpoint, int limit, int maxQueued,
+                  PdfGateAdaptiveLimit adaptiveLimit) {
+    this.endpoint = endpoint;
+    this.limit = adaptiveLimit == null ? limit : adaptiveLimit.getLimit();
+    this.maxQueued = maxQueued;
+    this.adaptiveLimit = adaptiveLimit;
+  }
+
+  /**
+   * Blocks until a permit is granted.
+   *
+   * @throws PdfGateException when the queue is full or the thread is interrupted.
+   */
+  void acquire() throws PdfGateException {
+    CountDownLatch granted = new CountDownLatch(1);
+    Runnable waiter = granted::countDown;
+    enqueue(waiter);
+    try {
+      granted.await();
+    } catch (InterruptedException e) {
+      if (!remove(waiter)) {
+        release();
+      }
+      Thread.currentThread().interrupt();
+      throw PdfGateException.fromException(
+          new InterruptedIOException("Interrupted while waiting for a request permit"));
+    }
+  }
+
+  /**
+   * Runs {@code task} with a permit, immediately when one is free or later from
+   * {@link #release()}. The task owns the permit and must release it, unless it throws, in
+   * which case the bulkhead takes the permit back.
+   *
+   * @throws PdfGateQueueFullException when the queue is full.
+   */
+  void enqueue(Runnable task) throws PdfGateQueueFullException {
+    lock.lock();
+    try {
+      if (active < limit && waiters.isEmpty()) {
+        active++;
+      } else if (waiters.size() >= maxQueued) {
+        throw new PdfGateQueueFullException(endpoint);
+      } else {
+        waiters.addLast(task);
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    runGranted(task);
+  }
+
+  /**
+   * Removes a queued task that has not been granted a permit yet.
+   *
+   * @return whether the task was still queued.
+   */
+  boolean remove(Runnable task) {
+    lock.lock();
+    try {
+      return waiters.remove(task);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a permit without a sample, handing free permits to queued tasks.
+   */
+  void release() {
+    List<Runnable> granted;
+    lock.lock();
+    try {
+      active--;
+      granted = grantWaiters();
+    } finally {
+      lock.unlock();
+    }
+    runAll(granted);
+  }
+
+  /**
+   * Returns a permit and reports how the request went, adjusting an adaptive limit.
+   *
+   * @param rttNanos time from dispatch to response headers.
+   * @param dropped whether the API throttled the request or it timed out.
+   */
+  void release(long rttNanos, boolean dropped) {
+    List<Runnable> granted;
+    lock.lock();
+    try {
+      if (adaptiveLimit != null) {
+        limit = adaptiveLimit.update(rttNanos, active, dropped);
+      }
+      active--;
+      granted = grantWaiters();
+    } finally {
+      lock.unlock();
+    }
+    runAll(granted);
+  }
+
+  /**
+   * Hands free permits to queued tasks in FIFO order. Must be called with the lock held.
+   */
+  private List<Runnable> grantWaiters() {
+    List<Runnable> granted = new ArrayList<>();
+    while (active < limit && !waiters.isEmpty()) {
+      active++;
+      granted.add(waiters.pollFirst());
+    }
+    return granted;
+  }
+
+  /**
+   * Runs granted tasks, each isolated from the others' failures, then rethrows the first
+   * failure.
+   */
+  private void runAll(List<Runnable> tasks) {
+    Throwable failure = null;
+    for (Runnable task : tasks) {
+      try {
+        runGranted(task);
+      } catch (RuntimeException | Error e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure != null) {
+      throw (Error) failure;
+    }
+  }
+
+  /**
+   * Runs a task that holds a permit, returning the permit if the task fails.
+   */
+  private void runGranted(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException | Error e) {
+      release();
+      throw e;
+    }
+  }
+
+  int getLimit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getActiveCount() {
+    lock.lock();
+    try {
+      return active;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getQueuedCount() {
+    lock.lock();
+    try {
+      return waiters.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  PdfGateEndpoint getEndpoint() {
+    return endpoint;
+  }
+}
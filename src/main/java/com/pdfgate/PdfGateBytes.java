@@ -0,0 +1,217 @@
+package com.pdfgate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * A file response held in a chain of pooled fixed-size segments instead of one contiguous
+ * array.
+ *
+ * <p>Large PDFs never become a single humongous allocation, and {@link #release()} returns the
+ * segments to a shared pool for the next download instead of leaving them to the garbage
+ * collector. The content must not be read once released; reads and {@link #release()} share a
+ * lock, so a segment is never recycled while it is being copied.
+ */
+public final class PdfGateBytes implements Closeable {
+  private final List<byte[]> segments;
+  private final long size;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile boolean released;
+
+  private PdfGateBytes(List<byte[]> segments, long size) {
+    this.segments = segments;
+    this.size = size;
+  }
+
+  /**
+   * Reads a successful response body into pooled segments.
+   */
+  static PdfGateBytes read(Response response) throws IOException {
+    PdfGateResponseParser.ensureSuccess(response);
+    ResponseBody body = response.body();
+    List<byte[]> segments = new ArrayList<>();
+    if (body == null) {
+      return new PdfGateBytes(segments, 0);
+    }
+    BufferedSource source = body.source();
+    long size = 0;
+    try {
+      while (true) {
+        byte[] segment = PdfGateSegmentPool.take();
+        segments.add(segment);
+        int filled = 0;
+        while (filled < segment.length) {
+          int read = source.read(segment, filled, segment.length - filled);
+          if (read == -1) {
+            return new PdfGateBytes(segments, size + filled);
+          }
+          filled += read;
+        }
+        size += filled;
+      }
+    } catch (IOException | RuntimeException e) {
+      segments.forEach(PdfGateSegmentPool::recycle);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the content size in bytes.
+   *
+   * @return the content size in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Writes the content to a stream without copying it. The stream is left open.
+   *
+   * @param out stream to write to.
+   * @throws IOException when writing fails.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    lock.readLock().lock();
+    try {
+      ensureNotReleased();
+      long remaining = size;
+      for (byte[] segment : segments) {
+        int length = (int) Math.min(segment.length, remaining);
+        if (length == 0) {
+          break;
+        }
+        out.write(segment, 0, length);
+        remaining -= length;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns a new stream over the content. The stream reads the segments in place, so the
+   * content must not be released until the stream is no longer used.
+   *
+   * @return a stream over the content.
+   */
+  public InputStream asInputStream() {
+    ensureNotReleased();
+    return new SegmentInputStream();
+  }
+
+  /**
+   * Copies the content into one contiguous array.
+   *
+   * @return a copy of the content.
+   * @throws IllegalStateException when the content is too large for an array.
+   */
+  public byte[] toByteArray() {
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("content is too large for a byte array.");
+    }
+    lock.readLock().lock();
+    try {
+      ensureNotReleased();
+      byte[] bytes = new byte[(int) size];
+      int offset = 0;
+      for (byte[] segment : segments) {
+        int length = Math.min(segment.length, bytes.length - offset);
+        System.arraycopy(segment, 0, bytes, offset, length);
+        offset += length;
+      }
+      return bytes;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the segments to the shared pool. Calling this more than once has no effect.
+   */
+  public void release() {
+    lock.writeLock().lock();
+    try {
+      if (released) {
+        return;
+      }
+      released = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    segments.forEach(PdfGateSegmentPool::recycle);
+  }
+
+  /**
+   * Releases the content, so results can be used in a try-with-resources block.
+   */
+  @Override
+  public void close() {
+    release();
+  }
+
+  private void ensureNotReleased() {
+    if (released) {
+      throw new IllegalStateException("bytes are released.");
+    }
+  }
+
+  /**
+   * Reads the segments in order, failing once the content is released. Each read holds the
+   * shared read lock while it copies.
+   */
+  private final class SegmentInputStream extends InputStream {
+    private long position;
+
+    @Override
+    public int read() throws IOException {
+      byte[] one = new byte[1];
+      return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      lock.readLock().lock();
+      try {
+        if (released) {
+          throw new IOException("bytes are released.");
+        }
+        if (len == 0) {
+          return 0;
+        }
+        if (position >= size) {
+          return -1;
+        }
+        int segmentIndex = (int) (position / PdfGateSegmentPool.SEGMENT_SIZE);
+        int segmentOffset = (int) (position % PdfGateSegmentPool.SEGMENT_SIZE);
+        int length = (int) Math.min(
+            Math.min(len, PdfGateSegmentPool.SEGMENT_SIZE - segmentOffset), size - position);
+        System.arraycopy(segments.get(segmentIndex), segmentOffset, b, off, length);
+        position += length;
+        return length;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    public int available() {
+      return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+
+    @Override
+    public long skip(long n) {
+      long skipped = Math.max(0, Math.min(n, size - position));
+      position += skipped;
+      return skipped;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.pdfgate;
+
+/**
+ * Totals of the in-memory result cache since the client was created.
+ *
+ * <p>Obtain it from {@link PdfGate#getCacheMetrics()}. All values stay zero unless
+ * {@link PdfGateConfig.Builder#memoryCacheMaxBytes(long)} is set.
+ */
+public final class PdfGateCacheMetrics {
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long entryCount;
+  private final long weightedSize;
+
+  PdfGateCacheMetrics(long hits, long misses, long evictions, long entryCount,
+                      long weightedSize) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.entryCount = entryCount;
+    this.weightedSize = weightedSize;
+  }
+
+  /**
+   * Returns the number of lookups answered from the cache.
+   *
+   * @return the number of cache hits.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that had to call the API.
+   *
+   * @return the number of cache misses.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries removed to stay within the size budget, including new
+   * entries that were not admitted.
+   *
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the number of cached files.
+   *
+   * @return the number of cached files.
+   */
+  public long getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Returns the total size of the cached files.
+   *
+   * @return the cached bytes.
+   */
+  public long getWeightedSize() {
+    return weightedSize;
+  }
+}
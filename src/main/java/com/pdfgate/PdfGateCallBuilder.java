@@ -1,16 +1,22 @@
 package com.pdfgate;
 
-import java.net.URLConnection;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
 import okhttp3.Call;
+import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 
 /**
  * Builds OkHttp calls for PdfGate API requests.
+ *
+ * <p>Endpoint URLs and authentication headers are prepared once when the builder is created,
+ * so building a call only allocates the request and its body.
  */
 final class PdfGateCallBuilder {
   /**
@@ -19,17 +25,58 @@ final class PdfGateCallBuilder {
   private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
 
   /**
-   * API key used to authenticate requests.
+   * Authentication headers sent with every request.
    */
-  private final String apiKey;
+  private final Headers authHeaders;
   /**
-   * Base OkHttp client used to create per-endpoint clients.
+   * Transport that creates the underlying HTTP calls.
    */
-  private final OkHttpClient httpClient;
+  private final PdfGateTransport transport;
   /**
-   * SDK configuration for timeouts and domains.
+   * Per-endpoint concurrency limits and queues.
    */
-  private final PdfGateConfig config;
+  private final Map<PdfGateEndpoint, PdfGateBulkhead> bulkheads;
+  /**
+   * Per-endpoint rate limiters for this API key, fed by the API's rate-limit headers.
+   */
+  private final Map<PdfGateEndpoint, PdfGateRateLimiter> rateLimiters;
+  /**
+   * Per-endpoint retry policies.
+   */
+  private final Map<PdfGateEndpoint, PdfGateRetryPolicy> retryPolicies;
+  /**
+   * Per-endpoint retry budgets shared by all calls of this client.
+   */
+  private final Map<PdfGateEndpoint, PdfGateRetryBudget> retryBudgets;
+  /**
+   * Hedging policy for idempotent GET endpoints, or {@code null} when disabled.
+   */
+  private final PdfGateHedgePolicy hedgePolicy;
+  /**
+   * Per-endpoint recent latencies that set the hedging delay.
+   */
+  private final Map<PdfGateEndpoint, PdfGateLatencyTracker> latencies;
+  /**
+   * Per-endpoint hedging budgets.
+   */
+  private final Map<PdfGateEndpoint, PdfGateRetryBudget> hedgeBudgets;
+  /**
+   * Per-endpoint circuit breakers, present only for endpoints with a policy.
+   */
+  private final Map<PdfGateEndpoint, PdfGateCircuitBreaker> circuitBreakers;
+  /**
+   * Smallest JSON request body that is gzip-compressed, or {@code -1} when disabled.
+   */
+  private final long gzipThreshold;
+  /**
+   * Per-endpoint totals of the gzip work done.
+   */
+  private final Map<PdfGateEndpoint, PdfGateCompressionStats> compressionStats;
+  /**
+   * Digests of uploaded files and the documents storing them, or {@code null} when upload
+   * deduplication is disabled.
+   */
+  private final PdfGateUploadCache uploadCache;
   /**
    * URL builder for API endpoints.
    */
@@ -38,34 +85,94 @@ final class PdfGateCallBuilder {
   /**
    * Creates a new call builder for PdfGate requests.
    */
-  PdfGateCallBuilder(String apiKey, OkHttpClient httpClient, PdfGateConfig config,
+  PdfGateCallBuilder(String apiKey, PdfGateTransport transport, PdfGateConfig config,
                      UrlBuilder urlBuilder) {
-    this.apiKey = apiKey;
-    this.httpClient = httpClient;
-    this.config = config;
+    this.authHeaders = Headers.of("Authorization", "Bearer " + apiKey);
+    this.transport = transport;
+    this.bulkheads = buildBulkheads(config);
+    this.rateLimiters = new EnumMap<>(PdfGateEndpoint.class);
+    this.retryPolicies = new EnumMap<>(PdfGateEndpoint.class);
+    this.retryBudgets = new EnumMap<>(PdfGateEndpoint.class);
+    this.hedgePolicy = config.getHedgePolicy();
+    this.latencies = new EnumMap<>(PdfGateEndpoint.class);
+    this.hedgeBudgets = new EnumMap<>(PdfGateEndpoint.class);
+    this.circuitBreakers = new EnumMap<>(PdfGateEndpoint.class);
+    this.gzipThreshold = config.getGzipThreshold();
+    this.compressionStats = new EnumMap<>(PdfGateEndpoint.class);
+    this.uploadCache = config.getUploadCacheSize() > 0
+        ? new PdfGateUploadCache(config.getUploadCacheSize())
+        : null;
+    for (PdfGateEndpoint endpoint : PdfGateEndpoint.values()) {
+      PdfGateRetryPolicy retryPolicy = config.getRetryPolicy(endpoint);
+      compressionStats.put(endpoint, new PdfGateCompressionStats());
+      rateLimiters.put(endpoint, new PdfGateRateLimiter());
+      retryPolicies.put(endpoint, retryPolicy);
+      retryBudgets.put(endpoint, new PdfGateRetryBudget(retryPolicy.getRetryRatio()));
+      if (hedgePolicy != null && isHedgeable(endpoint)) {
+        latencies.put(endpoint, new PdfGateLatencyTracker());
+        hedgeBudgets.put(endpoint, new PdfGateRetryBudget(hedgePolicy.getHedgeRatio()));
+      }
+      PdfGateCircuitBreakerPolicy circuitBreakerPolicy = config.getCircuitBreakerPolicy(endpoint);
+      if (circuitBreakerPolicy != null) {
+        circuitBreakers.put(endpoint, new PdfGateCircuitBreaker(
+            endpoint, circuitBreakerPolicy, config.getCircuitBreakerListener()));
+      }
+    }
     this.urlBuilder = urlBuilder;
   }
 
+  /**
+   * Creates one bulkhead per endpoint from the configured limits.
+   */
+  private static Map<PdfGateEndpoint, PdfGateBulkhead> buildBulkheads(PdfGateConfig config) {
+    Map<PdfGateEndpoint, PdfGateBulkhead> bulkheads = new EnumMap<>(PdfGateEndpoint.class);
+    for (PdfGateEndpoint endpoint : PdfGateEndpoint.values()) {
+      int maxConcurrent = config.getMaxConcurrentRequests(endpoint);
+      bulkheads.put(endpoint, new PdfGateBulkhead(
+          endpoint,
+          maxConcurrent,
+          config.getMaxQueuedRequests(endpoint),
+          config.isAdaptiveConcurrency() ? new PdfGateAdaptiveLimit(maxConcurrent) : null
+      ));
+    }
+    return bulkheads;
+  }
+
+  /**
+   * Returns the bulkhead guarding an endpoint.
+   */
+  PdfGateBulkhead bulkhead(PdfGateEndpoint endpoint) {
+    return bulkheads.get(endpoint);
+  }
+
+  /**
+   * Returns the circuit breaker guarding an endpoint, or {@code null} when it has none.
+   */
+  PdfGateCircuitBreaker circuitBreaker(PdfGateEndpoint endpoint) {
+    return circuitBreakers.get(endpoint);
+  }
+
+  /**
+   * Returns the totals of the gzip work done for an endpoint.
+   */
+  PdfGateCompressionStats compressionStats(PdfGateEndpoint endpoint) {
+    return compressionStats.get(endpoint);
+  }
+
   /**
    * Builds the call for generating a PDF.
    */
   Call buildGeneratePdfCall(GeneratePdfParams params) {
     validateGeneratePdfParams(params);
-    String jsonBody = PdfGateJson.gson().toJson(params);
-    RequestBody body = RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
-    String requestUrl = urlBuilder.generatePdf();
-    Request request = new Request.Builder()
-        .url(requestUrl)
-        .header("Authorization", "Bearer " + apiKey)
-        .post(body)
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getGeneratePdfTimeout())
-        .readTimeout(config.getGeneratePdfTimeout())
-        .build();
-
-    return client.newCall(request);
+    RequestBody body;
+    if (params.getHtmlSource() != null) {
+      body = new HtmlSourceRequestBody(params.getHtmlSource(),
+          PdfGateJson.gson().toJsonTree(params).getAsJsonObject(), JSON_MEDIA_TYPE);
+    } else {
+      String jsonBody = PdfGateJson.gson().toJson(params);
+      body = RequestBody.create(jsonBody, JSON_MEDIA_TYPE);
+    }
+    return newPostCall(PdfGateEndpoint.GENERATE_PDF, urlBuilder.generatePdf(), body);
   }
 
   /**
@@ -77,34 +184,11 @@ final class PdfGateCallBuilder {
         .setType(MultipartBody.FORM);
     addFlattenPdfCommonFields(bodyBuilder, params.getJsonResponse(),
         params.getPreSignedUrlExpiresIn(), params.getMetadata());
+    MultipartBody.Part filePart =
+        addFileOrDocumentId(bodyBuilder, params.getFile(), params.getDocumentId());
 
-    FileParam file = params.getFile();
-    if (file != null) {
-      MediaType mediaType = resolveFileMediaType(file);
-      bodyBuilder.addFormDataPart(
-          "file",
-          file.getName(),
-          RequestBody.create(file.getData(), mediaType)
-      );
-    } else {
-      String documentId = params.getDocumentId();
-      if (documentId != null && !documentId.isBlank()) {
-        bodyBuilder.addFormDataPart("documentId", documentId);
-      }
-    }
-
-    Request request = new Request.Builder()
-        .url(urlBuilder.flattenPdf())
-        .header("Authorization", "Bearer " + apiKey)
-        .post(bodyBuilder.build())
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getFlattenPdfTimeout())
-        .readTimeout(config.getFlattenPdfTimeout())
-        .build();
-
-    return client.newCall(request);
+    return newUploadCall(PdfGateEndpoint.FLATTEN_PDF, urlBuilder.flattenPdf(), bodyBuilder.build(),
+        params.getFile(), filePart);
   }
 
   /**
@@ -131,46 +215,22 @@ final class PdfGateCallBuilder {
         params.getPreSignedUrlExpiresIn(),
         params.getMetadata()
     );
-
-    FileParam file = params.getFile();
-    if (file != null) {
-      MediaType mediaType = resolveFileMediaType(file);
-      bodyBuilder.addFormDataPart(
-          "file",
-          file.getName(),
-          RequestBody.create(file.getData(), mediaType)
-      );
-    } else {
-      String documentId = params.getDocumentId();
-      if (documentId != null && !documentId.isBlank()) {
-        bodyBuilder.addFormDataPart("documentId", documentId);
-      }
-    }
+    MultipartBody.Part filePart =
+        addFileOrDocumentId(bodyBuilder, params.getFile(), params.getDocumentId());
 
     if (params.getType() == WatermarkPdfParams.WatermarkType.IMAGE) {
       FileParam watermark = params.getWatermark();
       if (watermark != null) {
-        MediaType mediaType = resolveFileMediaType(watermark);
         bodyBuilder.addFormDataPart(
             "watermark",
             watermark.getName(),
-            RequestBody.create(watermark.getData(), mediaType)
+            watermark.requestBody()
         );
       }
     }
 
-    Request request = new Request.Builder()
-        .url(urlBuilder.watermarkPdf())
-        .header("Authorization", "Bearer " + apiKey)
-        .post(bodyBuilder.build())
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getDefaultTimeout())
-        .readTimeout(config.getDefaultTimeout())
-        .build();
-
-    return client.newCall(request);
+    return newUploadCall(PdfGateEndpoint.WATERMARK_PDF, urlBuilder.watermarkPdf(),
+        bodyBuilder.build(), params.getFile(), filePart);
   }
 
   /**
@@ -193,34 +253,11 @@ final class PdfGateCallBuilder {
         params.getPreSignedUrlExpiresIn(),
         params.getMetadata()
     );
+    MultipartBody.Part filePart =
+        addFileOrDocumentId(bodyBuilder, params.getFile(), params.getDocumentId());
 
-    FileParam file = params.getFile();
-    if (file != null) {
-      MediaType mediaType = resolveFileMediaType(file);
-      bodyBuilder.addFormDataPart(
-          "file",
-          file.getName(),
-          RequestBody.create(file.getData(), mediaType)
-      );
-    } else {
-      String documentId = params.getDocumentId();
-      if (documentId != null && !documentId.isBlank()) {
-        bodyBuilder.addFormDataPart("documentId", documentId);
-      }
-    }
-
-    Request request = new Request.Builder()
-        .url(urlBuilder.protectPdf())
-        .header("Authorization", "Bearer " + apiKey)
-        .post(bodyBuilder.build())
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getProtectPdfTimeout())
-        .readTimeout(config.getProtectPdfTimeout())
-        .build();
-
-    return client.newCall(request);
+    return newUploadCall(PdfGateEndpoint.PROTECT_PDF, urlBuilder.protectPdf(), bodyBuilder.build(),
+        params.getFile(), filePart);
   }
 
   /**
@@ -237,34 +274,11 @@ final class PdfGateCallBuilder {
         params.getPreSignedUrlExpiresIn(),
         params.getMetadata()
     );
+    MultipartBody.Part filePart =
+        addFileOrDocumentId(bodyBuilder, params.getFile(), params.getDocumentId());
 
-    FileParam file = params.getFile();
-    if (file != null) {
-      MediaType mediaType = resolveFileMediaType(file);
-      bodyBuilder.addFormDataPart(
-          "file",
-          file.getName(),
-          RequestBody.create(file.getData(), mediaType)
-      );
-    } else {
-      String documentId = params.getDocumentId();
-      if (documentId != null && !documentId.isBlank()) {
-        bodyBuilder.addFormDataPart("documentId", documentId);
-      }
-    }
-
-    Request request = new Request.Builder()
-        .url(urlBuilder.compressPdf())
-        .header("Authorization", "Bearer " + apiKey)
-        .post(bodyBuilder.build())
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getCompressPdfTimeout())
-        .readTimeout(config.getCompressPdfTimeout())
-        .build();
-
-    return client.newCall(request);
+    return newUploadCall(PdfGateEndpoint.COMPRESS_PDF, urlBuilder.compressPdf(),
+        bodyBuilder.build(), params.getFile(), filePart);
   }
 
   /**
@@ -274,34 +288,11 @@ final class PdfGateCallBuilder {
     validateExtractPdfFormDataParams(params);
     MultipartBody.Builder bodyBuilder = new MultipartBody.Builder()
         .setType(MultipartBody.FORM);
+    MultipartBody.Part filePart =
+        addFileOrDocumentId(bodyBuilder, params.getFile(), params.getDocumentId());
 
-    FileParam file = params.getFile();
-    if (file != null) {
-      MediaType mediaType = resolveFileMediaType(file);
-      bodyBuilder.addFormDataPart(
-          "file",
-          file.getName(),
-          RequestBody.create(file.getData(), mediaType)
-      );
-    } else {
-      String documentId = params.getDocumentId();
-      if (documentId != null && !documentId.isBlank()) {
-        bodyBuilder.addFormDataPart("documentId", documentId);
-      }
-    }
-
-    Request request = new Request.Builder()
-        .url(urlBuilder.extractPdfFormData())
-        .header("Authorization", "Bearer " + apiKey)
-        .post(bodyBuilder.build())
-        .build();
-
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getDefaultTimeout())
-        .readTimeout(config.getDefaultTimeout())
-        .build();
-
-    return client.newCall(request);
+    return newUploadCall(PdfGateEndpoint.EXTRACT_PDF_FORM_DATA, urlBuilder.extractPdfFormData(),
+        bodyBuilder.build(), params.getFile(), filePart);
   }
 
   /**
@@ -309,48 +300,154 @@ final class PdfGateCallBuilder {
    */
   Call buildGetDocumentCall(GetDocumentParams params) {
     validateGetDocumentParams(params);
-    String requestUrl = urlBuilder.getDocument(params.getDocumentId());
-    HttpUrl url = HttpUrl.parse(requestUrl);
-    if (url == null) {
-      throw new IllegalArgumentException("Failed to build document URL.");
+    HttpUrl url = urlBuilder.getDocument(params.getDocumentId(),
+        params.getPreSignedUrlExpiresIn());
+    return newGetCall(PdfGateEndpoint.GET_DOCUMENT, url);
+  }
+
+  /**
+   * Builds the call for retrieving a document's file.
+   */
+  Call buildGetFileCall(GetFileParams params) {
+    validateGetFileParams(params);
+    return newGetCall(PdfGateEndpoint.GET_FILE, urlBuilder.getFile(params.getDocumentId()));
+  }
+
+  /**
+   * Creates an authenticated POST call on the endpoint's client.
+   */
+  private Call newPostCall(PdfGateEndpoint endpoint, HttpUrl url, RequestBody body) {
+    if (shouldCompress(body)) {
+      body = new GzipRequestBody(body, compressionStats.get(endpoint));
     }
-    HttpUrl.Builder urlBuilder = url.newBuilder();
-    if (params.getPreSignedUrlExpiresIn() != null) {
-      urlBuilder.addQueryParameter("preSignedUrlExpiresIn",
-          params.getPreSignedUrlExpiresIn().toString());
+    Request.Builder request = new Request.Builder()
+        .url(url)
+        .headers(authHeaders)
+        .post(body);
+    if (body instanceof GzipRequestBody) {
+      request.header("Content-Encoding", "gzip");
     }
+    if (retryPolicies.get(endpoint).getMaxAttempts() > 1) {
+      request.header("Idempotency-Key", UUID.randomUUID().toString());
+    }
+    return newCall(endpoint, request.build());
+  }
+
+  /**
+   * Creates an authenticated GET call on the endpoint's client.
+   */
+  private Call newGetCall(PdfGateEndpoint endpoint, HttpUrl url) {
     Request request = new Request.Builder()
-        .url(urlBuilder.build())
-        .header("Authorization", "Bearer " + apiKey)
+        .url(url)
+        .headers(authHeaders)
         .get()
         .build();
+    return newCall(endpoint, request);
+  }
 
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getDefaultTimeout())
-        .readTimeout(config.getDefaultTimeout())
-        .build();
+  /**
+   * Returns whether a request body is JSON at or above the gzip threshold. Bodies of unknown
+   * length are streamed and assumed to be large.
+   */
+  private boolean shouldCompress(RequestBody body) {
+    MediaType contentType = body.contentType();
+    if (gzipThreshold < 0 || contentType == null || !"json".equals(contentType.subtype())) {
+      return false;
+    }
+    try {
+      long contentLength = body.contentLength();
+      return contentLength < 0 || contentLength >= gzipThreshold;
+    } catch (IOException e) {
+      return true;
+    }
+  }
 
-    return client.newCall(request);
+  /**
+   * Returns whether an endpoint is an idempotent GET that may be hedged.
+   */
+  private static boolean isHedgeable(PdfGateEndpoint endpoint) {
+    return endpoint == PdfGateEndpoint.GET_DOCUMENT || endpoint == PdfGateEndpoint.GET_FILE;
   }
 
   /**
-   * Builds the call for retrieving a document's file.
+   * Creates the call on the transport behind the endpoint's policies, outermost first: retries,
+   * hedging, so each retry may be hedged, the rate limiter, so a request waiting for a token does
+   * not hold a concurrency slot, the bulkhead, then the circuit breaker, so its slow-call timer
+   * covers only the request itself and not the client's own token and queue waits. Retries and
+   * hedges pass through all of them again, so every attempt is admitted and counted.
    */
-  Call buildGetFileCall(GetFileParams params) {
-    validateGetFileParams(params);
-    String requestUrl = urlBuilder.getFile(params.getDocumentId());
-    Request request = new Request.Builder()
-        .url(requestUrl)
-        .header("Authorization", "Bearer " + apiKey)
-        .get()
-        .build();
+  private Call newCall(PdfGateEndpoint endpoint, Request request) {
+    if (gzipThreshold >= 0) {
+      request = request.newBuilder().header("Accept-Encoding", "gzip").build();
+    }
+    Call call = transport.newCall(endpoint, request);
+    if (gzipThreshold >= 0) {
+      call = new GzipDecodingCall(call, compressionStats.get(endpoint));
+    }
+    if (circuitBreakers.containsKey(endpoint)) {
+      call = new CircuitBreakerCall(call, circuitBreakers.get(endpoint));
+    }
+    call = new BulkheadCall(call, bulkheads.get(endpoint));
+    call = new RateLimitedCall(call, rateLimiters.get(endpoint));
+    if (latencies.containsKey(endpoint)) {
+      call = new HedgedCall(call, hedgePolicy, latencies.get(endpoint), hedgeBudgets.get(endpoint));
+    }
+    PdfGateRetryPolicy retryPolicy = retryPolicies.get(endpoint);
+    if (retryPolicy.getMaxAttempts() > 1) {
+      call = new RetryingCall(call, retryPolicy, retryBudgets.get(endpoint));
+    }
+    return call;
+  }
 
-    OkHttpClient client = httpClient.newBuilder()
-        .callTimeout(config.getDefaultTimeout())
-        .readTimeout(config.getDefaultTimeout())
-        .build();
+  /**
+   * Adds the file part when a file is provided, otherwise the document ID field.
+   *
+   * @return the file part, or {@code null} when no file is uploaded.
+   */
+  private MultipartBody.Part addFileOrDocumentId(MultipartBody.Builder bodyBuilder,
+                                                 FileParam file, String documentId) {
+    if (file != null) {
+      MultipartBody.Part filePart = MultipartBody.Part.createFormData(
+          "file",
+          file.getName(),
+          file.requestBody()
+      );
+      bodyBuilder.addPart(filePart);
+      return filePart;
+    } else if (documentId != null && !documentId.isBlank()) {
+      bodyBuilder.addFormDataPart("documentId", documentId);
+    }
+    return null;
+  }
 
-    return client.newCall(request);
+  /**
+   * Creates a POST call that uploads a file, or references the document already holding the
+   * same bytes when upload deduplication is enabled.
+   */
+  private Call newUploadCall(PdfGateEndpoint endpoint, HttpUrl url, MultipartBody body,
+                             FileParam file, MultipartBody.Part filePart) {
+    String digest = uploadCache == null || filePart == null ? null : file.digest();
+    if (digest == null) {
+      return newPostCall(endpoint, url, body);
+    }
+    Call upload = newPostCall(endpoint, url, body);
+    if (endpoint != PdfGateEndpoint.EXTRACT_PDF_FORM_DATA) {
+      upload = new UploadRecordingCall(upload, uploadCache, digest);
+    }
+    String documentId = uploadCache.lookup(digest);
+    if (documentId == null) {
+      return upload;
+    }
+    MultipartBody.Builder reuse = new MultipartBody.Builder().setType(MultipartBody.FORM);
+    for (MultipartBody.Part part : body.parts()) {
+      if (part == filePart) {
+        reuse.addFormDataPart("documentId", documentId);
+      } else {
+        reuse.addPart(part);
+      }
+    }
+    return new DeduplicatedUploadCall(newPostCall(endpoint, url, reuse.build()), upload,
+        uploadCache, digest);
   }
 
   /**
@@ -362,11 +459,17 @@ final class PdfGateCallBuilder {
     }
     String html = params.getHtml();
     String url = params.getUrl();
-    if ((html == null || html.isBlank()) && (url == null || url.isBlank())) {
+    boolean hasHtml = html != null && !html.isBlank();
+    if (!hasHtml && params.getHtmlSource() == null && (url == null || url.isBlank())) {
       throw new IllegalArgumentException(
           "Either the 'html' or 'url' parameters must be provided to generate a PDF."
       );
     }
+    if (hasHtml && params.getHtmlSource() != null) {
+      throw new IllegalArgumentException(
+          "The 'html' parameter cannot be combined with an HTML source."
+      );
+    }
   }
 
   /**
@@ -553,9 +656,7 @@ final class PdfGateCallBuilder {
       if (file.getName() == null || file.getName().isBlank()) {
         throw new IllegalArgumentException("file name must be provided.");
       }
-      if (file.getData() == null || file.getData().length == 0) {
-        throw new IllegalArgumentException("file data must be provided.");
-      }
+      requireContent(file, "file");
     }
   }
 
@@ -578,9 +679,7 @@ final class PdfGateCallBuilder {
       if (file.getName() == null || file.getName().isBlank()) {
         throw new IllegalArgumentException("file name must be provided.");
       }
-      if (file.getData() == null || file.getData().length == 0) {
-        throw new IllegalArgumentException("file data must be provided.");
-      }
+      requireContent(file, "file");
     }
     if (params.getType() == WatermarkPdfParams.WatermarkType.TEXT) {
       if (params.getText() == null || params.getText().isBlank()) {
@@ -595,9 +694,7 @@ final class PdfGateCallBuilder {
       if (watermark.getName() == null || watermark.getName().isBlank()) {
         throw new IllegalArgumentException("watermark file name must be provided.");
       }
-      if (watermark.getData() == null || watermark.getData().length == 0) {
-        throw new IllegalArgumentException("watermark file data must be provided.");
-      }
+      requireContent(watermark, "watermark file");
     }
   }
 
@@ -617,9 +714,7 @@ final class PdfGateCallBuilder {
       if (file.getName() == null || file.getName().isBlank()) {
         throw new IllegalArgumentException("file name must be provided.");
       }
-      if (file.getData() == null || file.getData().length == 0) {
-        throw new IllegalArgumentException("file data must be provided.");
-      }
+      requireContent(file, "file");
     }
   }
 
@@ -639,9 +734,7 @@ final class PdfGateCallBuilder {
       if (file.getName() == null || file.getName().isBlank()) {
         throw new IllegalArgumentException("file name must be provided.");
       }
-      if (file.getData() == null || file.getData().length == 0) {
-        throw new IllegalArgumentException("file data must be provided.");
-      }
+      requireContent(file, "file");
     }
   }
 
@@ -661,9 +754,7 @@ final class PdfGateCallBuilder {
       if (file.getName() == null || file.getName().isBlank()) {
         throw new IllegalArgumentException("file name must be provided.");
       }
-      if (file.getData() == null || file.getData().length == 0) {
-        throw new IllegalArgumentException("file data must be provided.");
-      }
+      requireContent(file, "file");
     }
   }
 
@@ -694,16 +785,17 @@ final class PdfGateCallBuilder {
   }
 
   /**
-   * Resolves a file's media type for multipart uploads.
+   * Ensures a file payload is readable and not empty.
    */
-  private MediaType resolveFileMediaType(FileParam file) {
-    String mimeType = file.getType();
-    if (mimeType == null || mimeType.isBlank()) {
-      mimeType = URLConnection.guessContentTypeFromName(file.getName());
+  private static void requireContent(FileParam file, String label) {
+    long length;
+    try {
+      length = file.contentLength();
+    } catch (IOException e) {
+      throw new IllegalArgumentException(label + " data cannot be read.", e);
     }
-    if (mimeType == null || mimeType.isBlank()) {
-      mimeType = "application/octet-stream";
+    if (length == 0) {
+      throw new IllegalArgumentException(label + " data must be provided.");
     }
-    return MediaType.get(mimeType);
   }
 }
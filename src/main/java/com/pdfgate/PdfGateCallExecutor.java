@@ -2,6 +2,9 @@ package com.pdfgate;
 
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import okhttp3.Response;
 
 /**
@@ -40,4 +43,60 @@ final class PdfGateCallExecutor {
       throw PdfGateException.fromException(e);
     }
   }
+
+  static long execute(CallFile call, Path target) throws PdfGateException {
+    try (Response response = call.execute()) {
+      return PdfGateResponseParser.transferTo(response, target);
+    } catch (PdfGateException e) {
+      throw e;
+    } catch (IOException e) {
+      throw PdfGateException.fromException(e);
+    }
+  }
+
+  static long execute(CallFile call, WritableByteChannel target) throws PdfGateException {
+    try (Response response = call.execute()) {
+      return PdfGateResponseParser.transferTo(response, target);
+    } catch (PdfGateException e) {
+      throw e;
+    } catch (IOException e) {
+      throw PdfGateException.fromException(e);
+    }
+  }
+
+  static PdfGateFileResult execute(CallFile call, long threshold, long sizeHint)
+      throws PdfGateException {
+    try (Response response = call.execute()) {
+      return PdfGateFileResult.read(response, threshold, sizeHint);
+    } catch (PdfGateException e) {
+      throw e;
+    } catch (IOException e) {
+      throw PdfGateException.fromException(e);
+    }
+  }
+
+  static PdfGateBytes executeSegmented(CallFile call) throws PdfGateException {
+    try (Response response = call.execute()) {
+      return PdfGateBytes.read(response);
+    } catch (PdfGateException e) {
+      throw e;
+    } catch (IOException e) {
+      throw PdfGateException.fromException(e);
+    }
+  }
+
+  static InputStream openStream(CallFile call) throws PdfGateException {
+    Response response = null;
+    try {
+      response = call.execute();
+      return PdfGateResponseParser.openStream(response);
+    } catch (IOException e) {
+      if (response != null) {
+        response.close();
+      }
+      throw e instanceof PdfGateException
+          ? (PdfGateException) e
+          : PdfGateException.fromException(e);
+    }
+  }
 }
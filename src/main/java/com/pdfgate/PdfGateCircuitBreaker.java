@@ -0,0 +1,152 @@
+package com.pdfgate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Circuit breaker state machine for one endpoint, following a
+ * {@link PdfGateCircuitBreakerPolicy}.
+ */
+final class PdfGateCircuitBreaker {
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final PdfGateEndpoint endpoint;
+  private final PdfGateCircuitBreakerPolicy policy;
+  private final PdfGateCircuitBreakerListener listener;
+  /**
+   * Outcome flags of the most recent requests, used as a ring buffer.
+   */
+  private final byte[] window;
+  private int recorded;
+  private int next;
+  private int failures;
+  private int slowCalls;
+  private PdfGateCircuitState state = PdfGateCircuitState.CLOSED;
+  private long openedAtNanos;
+  private int probesLeft;
+  private int probeSuccesses;
+
+  PdfGateCircuitBreaker(PdfGateEndpoint endpoint, PdfGateCircuitBreakerPolicy policy,
+                        PdfGateCircuitBreakerListener listener) {
+    this.endpoint = endpoint;
+    this.policy = policy;
+    this.listener = listener;
+    this.window = new byte[policy.getWindowSize()];
+  }
+
+  /**
+   * Admits a request, moving an expired open circuit to half-open.
+   *
+   * @return whether the request may be sent.
+   */
+  boolean tryAcquire() {
+    List<PdfGateCircuitState> transitions = new ArrayList<>(1);
+    boolean admitted;
+    synchronized (this) {
+      if (state == PdfGateCircuitState.OPEN
+          && System.nanoTime() - openedAtNanos >= policy.getOpenDuration().toNanos()) {
+        transition(PdfGateCircuitState.HALF_OPEN, transitions);
+      }
+      if (state == PdfGateCircuitState.HALF_OPEN) {
+        admitted = probesLeft > 0;
+        if (admitted) {
+          probesLeft--;
+        }
+      } else {
+        admitted = state == PdfGateCircuitState.CLOSED;
+      }
+    }
+    notifyListener(transitions);
+    return admitted;
+  }
+
+  /**
+   * Records the outcome of an admitted request.
+   *
+   * @param durationNanos time from dispatching the request to the outcome.
+   * @param failed whether the request failed with an I/O error or a server error.
+   */
+  void onResult(long durationNanos, boolean failed) {
+    boolean slow = durationNanos >= policy.getSlowCallDuration().toNanos();
+    List<PdfGateCircuitState> transitions = new ArrayList<>(1);
+    synchronized (this) {
+      if (state == PdfGateCircuitState.HALF_OPEN) {
+        if (failed || slow) {
+          transition(PdfGateCircuitState.OPEN, transitions);
+        } else if (++probeSuccesses >= policy.getHalfOpenCalls()) {
+          transition(PdfGateCircuitState.CLOSED, transitions);
+        }
+      } else if (state == PdfGateCircuitState.CLOSED) {
+        record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+        if (recorded >= policy.getMinimumCalls()
+            && ((double) failures / recorded >= policy.getFailureRateThreshold()
+            || (double) slowCalls / recorded >= policy.getSlowCallRateThreshold())) {
+          transition(PdfGateCircuitState.OPEN, transitions);
+        }
+      }
+    }
+    notifyListener(transitions);
+  }
+
+  /**
+   * Returns the permit of an admitted request that ended without an outcome, such as a
+   * canceled one.
+   */
+  synchronized void onIgnored() {
+    if (state == PdfGateCircuitState.HALF_OPEN) {
+      probesLeft++;
+    }
+  }
+
+  synchronized PdfGateCircuitState getState() {
+    return state;
+  }
+
+  PdfGateEndpoint getEndpoint() {
+    return endpoint;
+  }
+
+  private void record(byte outcome) {
+    if (recorded == window.length) {
+      byte evicted = window[next];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      recorded++;
+    }
+    window[next] = outcome;
+    next = (next + 1) % window.length;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+  }
+
+  /**
+   * Changes state and queues the listener notification. Must be called with the lock held.
+   */
+  private void transition(PdfGateCircuitState to, List<PdfGateCircuitState> transitions) {
+    transitions.add(state);
+    transitions.add(to);
+    state = to;
+    if (to == PdfGateCircuitState.OPEN) {
+      openedAtNanos = System.nanoTime();
+    } else if (to == PdfGateCircuitState.HALF_OPEN) {
+      probesLeft = policy.getHalfOpenCalls();
+      probeSuccesses = 0;
+    } else {
+      recorded = 0;
+      next = 0;
+      failures = 0;
+      slowCalls = 0;
+    }
+  }
+
+  private void notifyListener(List<PdfGateCircuitState> transitions) {
+    if (listener == null) {
+      return;
+    }
+    for (int i = 0; i < transitions.size(); i += 2) {
+      listener.onStateChange(endpoint, transitions.get(i), transitions.get(i + 1));
+    }
+  }
+}
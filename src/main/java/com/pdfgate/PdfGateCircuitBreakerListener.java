@@ -0,0 +1,19 @@
+package com.pdfgate;
+
+/**
+ * Receives circuit breaker state transitions.
+ *
+ * <p>Invoked on the thread that completed or admitted the request causing the transition, so
+ * implementations should return quickly.
+ */
+@FunctionalInterface
+public interface PdfGateCircuitBreakerListener {
+  /**
+   * Called after an endpoint's circuit breaker changed state.
+   *
+   * @param endpoint the endpoint whose circuit breaker changed state.
+   * @param from the previous state.
+   * @param to the new state.
+   */
+  void onStateChange(PdfGateEndpoint endpoint, PdfGateCircuitState from, PdfGateCircuitState to);
+}
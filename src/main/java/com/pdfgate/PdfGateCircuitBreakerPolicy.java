@@ -0,0 +1,226 @@
+package com.pdfgate;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Circuit breaker settings for an endpoint.
+ *
+ * <p>The breaker tracks the outcome of the last {@code windowSize} requests. Once at least
+ * {@code minimumCalls} were recorded and the share of failures (I/O errors and {@code 5xx}
+ * responses) reaches {@code failureRateThreshold}, or the share of requests slower than
+ * {@code slowCallDuration} reaches {@code slowCallRateThreshold}, the circuit opens. While
+ * open, requests fail fast with {@link PdfGateCircuitOpenException}. After
+ * {@code openDuration}, {@code halfOpenCalls} probe requests are let through: if all of them
+ * succeed quickly the circuit closes, otherwise it opens again.
+ */
+public final class PdfGateCircuitBreakerPolicy {
+  private final double failureRateThreshold;
+  private final double slowCallRateThreshold;
+  private final Duration slowCallDuration;
+  private final int windowSize;
+  private final int minimumCalls;
+  private final Duration openDuration;
+  private final int halfOpenCalls;
+
+  private PdfGateCircuitBreakerPolicy(Builder builder) {
+    this.failureRateThreshold = requireRate(builder.failureRateThreshold, "failureRateThreshold");
+    this.slowCallRateThreshold = requireRate(builder.slowCallRateThreshold,
+        "slowCallRateThreshold");
+    this.slowCallDuration = Objects.requireNonNull(builder.slowCallDuration, "slowCallDuration");
+    this.windowSize = requirePositive(builder.windowSize, "windowSize");
+    this.minimumCalls = requirePositive(builder.minimumCalls, "minimumCalls");
+    this.openDuration = Objects.requireNonNull(builder.openDuration, "openDuration");
+    this.halfOpenCalls = requirePositive(builder.halfOpenCalls, "halfOpenCalls");
+  }
+
+  /**
+   * Creates a new builder with the default circuit breaker settings.
+   *
+   * @return the builder for circuit breaker policies.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the failure share that opens the circuit.
+   *
+   * @return the failure share that opens the circuit.
+   */
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /**
+   * Returns the slow call share that opens the circuit.
+   *
+   * @return the slow call share that opens the circuit.
+   */
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /**
+   * Returns the duration from which a request counts as slow.
+   *
+   * @return the duration from which a request counts as slow.
+   */
+  public Duration getSlowCallDuration() {
+    return slowCallDuration;
+  }
+
+  /**
+   * Returns the number of recent requests the rates are computed over.
+   *
+   * @return the number of recent requests the rates are computed over.
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * Returns the number of recorded requests required before the circuit can open.
+   *
+   * @return the number of recorded requests required before the circuit can open.
+   */
+  public int getMinimumCalls() {
+    return minimumCalls;
+  }
+
+  /**
+   * Returns how long the circuit stays open before probing.
+   *
+   * @return how long the circuit stays open before probing.
+   */
+  public Duration getOpenDuration() {
+    return openDuration;
+  }
+
+  /**
+   * Returns the number of probe requests let through while half-open.
+   *
+   * @return the number of probe requests let through while half-open.
+   */
+  public int getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  private static double requireRate(double value, String name) {
+    if (!(value > 0 && value <= 1)) {
+      throw new IllegalArgumentException(name + " must be greater than 0 and at most 1.");
+    }
+    return value;
+  }
+
+  private static int requirePositive(int value, String name) {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be at least 1.");
+    }
+    return value;
+  }
+
+  /**
+   * Builder for {@link PdfGateCircuitBreakerPolicy}.
+   */
+  public static final class Builder {
+    private double failureRateThreshold = 0.5;
+    private double slowCallRateThreshold = 1.0;
+    private Duration slowCallDuration = Duration.ofSeconds(60);
+    private int windowSize = 50;
+    private int minimumCalls = 20;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenCalls = 3;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the failure share that opens the circuit.
+     *
+     * @param failureRateThreshold the share, greater than 0 and at most 1.
+     * @return this builder.
+     */
+    public Builder failureRateThreshold(double failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the slow call share that opens the circuit.
+     *
+     * @param slowCallRateThreshold the share, greater than 0 and at most 1.
+     * @return this builder.
+     */
+    public Builder slowCallRateThreshold(double slowCallRateThreshold) {
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the duration from which a request counts as slow, measured for each attempt from
+     * admission to the response headers, including time spent waiting for a rate limit token or
+     * a concurrency slot.
+     *
+     * @param slowCallDuration the duration from which a request counts as slow.
+     * @return this builder.
+     */
+    public Builder slowCallDuration(Duration slowCallDuration) {
+      this.slowCallDuration = slowCallDuration;
+      return this;
+    }
+
+    /**
+     * Sets the number of recent requests the rates are computed over.
+     *
+     * @param windowSize the number of requests, at least 1.
+     * @return this builder.
+     */
+    public Builder windowSize(int windowSize) {
+      this.windowSize = windowSize;
+      return this;
+    }
+
+    /**
+     * Sets the number of recorded requests required before the circuit can open.
+     *
+     * @param minimumCalls the number of requests, at least 1.
+     * @return this builder.
+     */
+    public Builder minimumCalls(int minimumCalls) {
+      this.minimumCalls = minimumCalls;
+      return this;
+    }
+
+    /**
+     * Sets how long the circuit stays open before probing.
+     *
+     * @param openDuration how long the circuit stays open.
+     * @return this builder.
+     */
+    public Builder openDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Sets the number of probe requests let through while half-open.
+     *
+     * @param halfOpenCalls the number of probe requests, at least 1.
+     * @return this builder.
+     */
+    public Builder halfOpenCalls(int halfOpenCalls) {
+      this.halfOpenCalls = halfOpenCalls;
+      return this;
+    }
+
+    /**
+     * Builds the circuit breaker policy.
+     *
+     * @return the circuit breaker policy.
+     */
+    public PdfGateCircuitBreakerPolicy build() {
+      return new PdfGateCircuitBreakerPolicy(this);
+    }
+  }
+}
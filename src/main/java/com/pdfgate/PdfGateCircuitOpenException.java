@@ -0,0 +1,34 @@
+package com.pdfgate;
+
+import java.util.Locale;
+import okhttp3.Headers;
+
+/**
+ * Exception raised without sending a request because the endpoint's circuit breaker is open.
+ */
+public final class PdfGateCircuitOpenException extends PdfGateException {
+  /**
+   * Endpoint whose circuit breaker rejected the request.
+   */
+  private final PdfGateEndpoint endpoint;
+
+  PdfGateCircuitOpenException(PdfGateEndpoint endpoint) {
+    super(
+        "PdfGate API request rejected: circuit breaker for "
+            + endpoint.name().toLowerCase(Locale.ROOT) + " is open.",
+        -1,
+        "",
+        new Headers.Builder().build()
+    );
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Returns the endpoint whose circuit breaker rejected the request.
+   *
+   * @return the endpoint whose circuit breaker rejected the request.
+   */
+  public PdfGateEndpoint getEndpoint() {
+    return endpoint;
+  }
+}
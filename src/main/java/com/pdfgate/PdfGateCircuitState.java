@@ -0,0 +1,19 @@
+package com.pdfgate;
+
+/**
+ * States of a per-endpoint circuit breaker.
+ */
+public enum PdfGateCircuitState {
+  /**
+   * Requests flow normally while failures and slow calls are counted.
+   */
+  CLOSED,
+  /**
+   * Requests fail fast with {@link PdfGateCircuitOpenException} until the open duration ends.
+   */
+  OPEN,
+  /**
+   * A limited number of probe requests decide whether to close or reopen the circuit.
+   */
+  HALF_OPEN
+}
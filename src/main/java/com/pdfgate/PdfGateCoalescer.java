@@ -0,0 +1,153 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.HashingSink;
+import okio.Okio;
+
+/**
+ * Shares one in-flight request between concurrent callers asking for the same thing.
+ *
+ * <p>The first caller for a fingerprint sends the request; callers arriving while it is in
+ * flight wait for its result instead of sending their own. Every caller, the first included,
+ * receives the result through a copy function, so each one can get its own byte array and none
+ * can change what the others see. Once the request completes, the next caller sends a new one.
+ */
+final class PdfGateCoalescer {
+  private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * Synchronous request whose result may be shared.
+   *
+   * @param <T> result type.
+   */
+  @FunctionalInterface
+  interface Execution<T> {
+    T execute() throws PdfGateException;
+  }
+
+  /**
+   * Returns the fingerprint of a request: its method, URL, which encodes the endpoint and query
+   * parameters, and a digest of its serialized body.
+   *
+   * @return the fingerprint, or {@code null} when the body is streamed with an unknown length
+   *     and must not be read an extra time; such requests are never coalesced.
+   * @throws PdfGateException when the body cannot be serialized.
+   */
+  static String fingerprint(Request request) throws PdfGateException {
+    StringBuilder fingerprint = new StringBuilder()
+        .append(request.method())
+        .append(' ')
+        .append(request.url());
+    RequestBody body = request.body();
+    if (body instanceof GzipRequestBody) {
+      body = ((GzipRequestBody) body).delegate();
+    }
+    if (body != null) {
+      // Hashed as it is written, so large uploads are not held in memory.
+      HashingSink hashingSink = HashingSink.sha256(Okio.blackhole());
+      try {
+        if (body.contentLength() < 0) {
+          return null;
+        }
+        try (BufferedSink sink = Okio.buffer(hashingSink)) {
+          body.writeTo(sink);
+        }
+      } catch (IOException e) {
+        throw PdfGateException.fromException(e);
+      }
+      fingerprint.append(' ').append(hashingSink.hash().hex());
+    }
+    return fingerprint.toString();
+  }
+
+  /**
+   * Runs {@code execution} on the calling thread, or waits for the matching request already in
+   * flight.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T execute(String fingerprint, Execution<T> execution, UnaryOperator<T> copy)
+      throws PdfGateException {
+    CompletableFuture<T> own = new CompletableFuture<>();
+    CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(fingerprint, own);
+    if (existing != null) {
+      return copy.apply(await(existing));
+    }
+    try {
+      T result = execution.execute();
+      own.complete(result);
+      return copy.apply(result);
+    } catch (Throwable e) {
+      // Errors too, or waiters would block forever on a future nobody completes.
+      own.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(fingerprint, own);
+    }
+  }
+
+  /**
+   * Starts {@code execution}, or joins the matching request already in flight.
+   *
+   * <p>Cancelling a returned future only detaches that caller; the shared request keeps running
+   * for the others.
+   */
+  @SuppressWarnings("unchecked")
+  <T> CompletableFuture<T> executeAsync(String fingerprint,
+                                        Supplier<CompletableFuture<T>> execution,
+                                        UnaryOperator<T> copy) {
+    CompletableFuture<T> own = new CompletableFuture<>();
+    CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(fingerprint, own);
+    if (existing != null) {
+      return existing.thenApply(copy);
+    }
+    CompletableFuture<T> started;
+    try {
+      started = execution.get();
+    } catch (Throwable e) {
+      inFlight.remove(fingerprint, own);
+      own.completeExceptionally(e);
+      throw e;
+    }
+    started.whenComplete((result, error) -> {
+      inFlight.remove(fingerprint, own);
+      if (error != null) {
+        own.completeExceptionally(error);
+      } else {
+        own.complete(result);
+      }
+    });
+    return own.thenApply(copy);
+  }
+
+  private static <T> T await(CompletableFuture<T> future) throws PdfGateException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw PdfGateException.fromException(
+          new InterruptedIOException("Interrupted while waiting for a shared request"));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof PdfGateException) {
+        throw (PdfGateException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.pdfgate;
+
+/**
+ * Totals of the gzip work done for one endpoint since the client was created.
+ *
+ * <p>Obtain it from {@link PdfGateEndpointMetrics#getCompression()}. Times only cover the
+ * compression and decompression themselves, not the time spent waiting on the network. All
+ * values stay zero unless {@link PdfGateConfig.Builder#gzipThreshold(long)} is set.
+ */
+public final class PdfGateCompressionMetrics {
+  private final long requestBytes;
+  private final long compressedRequestBytes;
+  private final long compressionNanos;
+  private final long responseBytes;
+  private final long compressedResponseBytes;
+  private final long decompressionNanos;
+
+  PdfGateCompressionMetrics(long requestBytes, long compressedRequestBytes,
+                            long compressionNanos, long responseBytes,
+                            long compressedResponseBytes, long decompressionNanos) {
+    this.requestBytes = requestBytes;
+    this.compressedRequestBytes = compressedRequestBytes;
+    this.compressionNanos = compressionNanos;
+    this.responseBytes = responseBytes;
+    this.compressedResponseBytes = compressedResponseBytes;
+    this.decompressionNanos = decompressionNanos;
+  }
+
+  /**
+   * Returns the size of compressed request bodies before compression.
+   *
+   * @return the uncompressed request bytes.
+   */
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  /**
+   * Returns the size of compressed request bodies as sent.
+   *
+   * @return the compressed request bytes.
+   */
+  public long getCompressedRequestBytes() {
+    return compressedRequestBytes;
+  }
+
+  /**
+   * Returns the time spent compressing request bodies.
+   *
+   * @return the compression time in nanoseconds.
+   */
+  public long getCompressionNanos() {
+    return compressionNanos;
+  }
+
+  /**
+   * Returns the size of compressed response bodies after decompression.
+   *
+   * @return the decompressed response bytes.
+   */
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  /**
+   * Returns the size of compressed response bodies as received.
+   *
+   * @return the compressed response bytes.
+   */
+  public long getCompressedResponseBytes() {
+    return compressedResponseBytes;
+  }
+
+  /**
+   * Returns the time spent decompressing response bodies.
+   *
+   * @return the decompression time in nanoseconds.
+   */
+  public long getDecompressionNanos() {
+    return decompressionNanos;
+  }
+}
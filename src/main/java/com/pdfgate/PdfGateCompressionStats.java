@@ -0,0 +1,47 @@
+package com.pdfgate;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the gzip work done for one endpoint, so the CPU spent compressing can be
+ * weighed against the bytes saved on the wire.
+ */
+final class PdfGateCompressionStats {
+  private final LongAdder requestBytes = new LongAdder();
+  private final LongAdder compressedRequestBytes = new LongAdder();
+  private final LongAdder compressionNanos = new LongAdder();
+  private final LongAdder responseBytes = new LongAdder();
+  private final LongAdder compressedResponseBytes = new LongAdder();
+  private final LongAdder decompressionNanos = new LongAdder();
+
+  /**
+   * Records a compressed request body.
+   */
+  void recordRequest(long bytes, long compressedBytes, long nanos) {
+    requestBytes.add(bytes);
+    compressedRequestBytes.add(compressedBytes);
+    compressionNanos.add(nanos);
+  }
+
+  /**
+   * Records a decompressed portion of a response body.
+   */
+  void recordResponse(long bytes, long compressedBytes, long nanos) {
+    responseBytes.add(bytes);
+    compressedResponseBytes.add(compressedBytes);
+    decompressionNanos.add(nanos);
+  }
+
+  /**
+   * Returns a snapshot of the totals.
+   */
+  PdfGateCompressionMetrics snapshot() {
+    return new PdfGateCompressionMetrics(
+        requestBytes.sum(),
+        compressedRequestBytes.sum(),
+        compressionNanos.sum(),
+        responseBytes.sum(),
+        compressedResponseBytes.sum(),
+        decompressionNanos.sum());
+  }
+}
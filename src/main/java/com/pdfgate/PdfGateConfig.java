@@ -1,13 +1,17 @@
 package com.pdfgate;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Configuration for the PDFGate client.
  *
  * <p>Use {@link #defaultConfig()} to start with defaults and override values using the
- * factory methods when needed.
+ * factory methods when needed, or {@link #builder()} to override individual settings.
  */
 public final class PdfGateConfig {
   private static final String DEFAULT_PRODUCTION_API_DOMAIN = "https://api.pdfgate.com";
@@ -17,6 +21,15 @@ public final class PdfGateConfig {
   private static final Duration DEFAULT_FLATTEN_PDF_TIMEOUT = Duration.ofMinutes(3);
   private static final Duration DEFAULT_COMPRESS_PDF_TIMEOUT = Duration.ofMinutes(3);
   private static final Duration DEFAULT_PROTECT_PDF_TIMEOUT = Duration.ofMinutes(3);
+  private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+  private static final Duration DEFAULT_KEEP_ALIVE_DURATION = Duration.ofMinutes(5);
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 64;
+  private static final int DEFAULT_MAX_QUEUED_REQUESTS = Integer.MAX_VALUE;
+  private static final PdfGateTransportType DEFAULT_TRANSPORT = PdfGateTransportType.OKHTTP;
+  private static final long DEFAULT_SPILL_THRESHOLD = 8L * 1024 * 1024;
+  private static final long DEFAULT_RESULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+  private static final int DEFAULT_RESULT_CACHE_MAX_ENTRIES = 4096;
+  private static final Duration DEFAULT_RESULT_CACHE_TTL = Duration.ofDays(1);
 
   private final String productionApiDomain;
   private final String sandboxApiDomain;
@@ -25,23 +38,74 @@ public final class PdfGateConfig {
   private final Duration flattenPdfTimeout;
   private final Duration compressPdfTimeout;
   private final Duration protectPdfTimeout;
+  private final int maxIdleConnections;
+  private final Duration keepAliveDuration;
+  private final Map<PdfGateEndpoint, Integer> maxConcurrentRequests;
+  private final Map<PdfGateEndpoint, Integer> maxQueuedRequests;
+  private final PdfGateTransportType transport;
+  private final boolean virtualThreads;
+  private final boolean adaptiveConcurrency;
+  private final PdfGateRetryPolicy retryPolicy;
+  private final Map<PdfGateEndpoint, PdfGateRetryPolicy> retryPolicies;
+  private final PdfGateHedgePolicy hedgePolicy;
+  private final PdfGateCircuitBreakerPolicy circuitBreakerPolicy;
+  private final Map<PdfGateEndpoint, PdfGateCircuitBreakerPolicy> circuitBreakerPolicies;
+  private final PdfGateCircuitBreakerListener circuitBreakerListener;
+  private final boolean coalesceRequests;
+  private final long spillThreshold;
+  private final long gzipThreshold;
+  private final int uploadCacheSize;
+  private final Path resultCacheDirectory;
+  private final long resultCacheMaxBytes;
+  private final int resultCacheMaxEntries;
+  private final Duration resultCacheTtl;
+  private final boolean cacheDynamicResults;
+  private final long memoryCacheMaxBytes;
 
-  private PdfGateConfig(
-      String productionApiDomain,
-      String sandboxApiDomain,
-      Duration defaultTimeout,
-      Duration generatePdfTimeout,
-      Duration flattenPdfTimeout,
-      Duration compressPdfTimeout,
-      Duration protectPdfTimeout
-  ) {
-    this.productionApiDomain = requireNonBlank(productionApiDomain, "productionApiDomain");
-    this.sandboxApiDomain = requireNonBlank(sandboxApiDomain, "sandboxApiDomain");
-    this.defaultTimeout = Objects.requireNonNull(defaultTimeout, "defaultTimeout");
-    this.generatePdfTimeout = Objects.requireNonNull(generatePdfTimeout, "generatePdfTimeout");
-    this.flattenPdfTimeout = Objects.requireNonNull(flattenPdfTimeout, "flattenPdfTimeout");
-    this.compressPdfTimeout = Objects.requireNonNull(compressPdfTimeout, "compressPdfTimeout");
-    this.protectPdfTimeout = Objects.requireNonNull(protectPdfTimeout, "protectPdfTimeout");
+  private PdfGateConfig(Builder builder) {
+    this.productionApiDomain = requireNonBlank(builder.productionApiDomain, "productionApiDomain");
+    this.sandboxApiDomain = requireNonBlank(builder.sandboxApiDomain, "sandboxApiDomain");
+    this.defaultTimeout = Objects.requireNonNull(builder.defaultTimeout, "defaultTimeout");
+    this.generatePdfTimeout = Objects.requireNonNull(builder.generatePdfTimeout,
+        "generatePdfTimeout");
+    this.flattenPdfTimeout = Objects.requireNonNull(builder.flattenPdfTimeout,
+        "flattenPdfTimeout");
+    this.compressPdfTimeout = Objects.requireNonNull(builder.compressPdfTimeout,
+        "compressPdfTimeout");
+    this.protectPdfTimeout = Objects.requireNonNull(builder.protectPdfTimeout,
+        "protectPdfTimeout");
+    this.maxIdleConnections = requireNonNegative(builder.maxIdleConnections,
+        "maxIdleConnections");
+    this.keepAliveDuration = requirePositive(builder.keepAliveDuration, "keepAliveDuration");
+    this.maxConcurrentRequests = Collections.unmodifiableMap(
+        new EnumMap<>(builder.maxConcurrentRequests));
+    this.maxQueuedRequests = Collections.unmodifiableMap(new EnumMap<>(builder.maxQueuedRequests));
+    this.transport = Objects.requireNonNull(builder.transport, "transport");
+    this.virtualThreads = builder.virtualThreads;
+    this.adaptiveConcurrency = builder.adaptiveConcurrency;
+    this.retryPolicy = Objects.requireNonNull(builder.retryPolicy, "retryPolicy");
+    this.retryPolicies = Collections.unmodifiableMap(new EnumMap<>(builder.retryPolicies));
+    this.hedgePolicy = builder.hedgePolicy;
+    this.circuitBreakerPolicy = builder.circuitBreakerPolicy;
+    this.circuitBreakerPolicies = Collections.unmodifiableMap(
+        new EnumMap<>(builder.circuitBreakerPolicies));
+    this.circuitBreakerListener = builder.circuitBreakerListener;
+    this.coalesceRequests = builder.coalesceRequests;
+    this.spillThreshold = requireNonNegative(builder.spillThreshold, "spillThreshold");
+    if (builder.gzipThreshold < -1) {
+      throw new IllegalArgumentException("gzipThreshold must be -1 or greater.");
+    }
+    this.gzipThreshold = builder.gzipThreshold;
+    this.uploadCacheSize = requireNonNegative(builder.uploadCacheSize, "uploadCacheSize");
+    this.resultCacheDirectory = builder.resultCacheDirectory;
+    this.resultCacheMaxBytes = requirePositive(builder.resultCacheMaxBytes,
+        "resultCacheMaxBytes");
+    this.resultCacheMaxEntries = requirePositive(builder.resultCacheMaxEntries,
+        "resultCacheMaxEntries");
+    this.resultCacheTtl = requirePositive(builder.resultCacheTtl, "resultCacheTtl");
+    this.cacheDynamicResults = builder.cacheDynamicResults;
+    this.memoryCacheMaxBytes = requireNonNegative(builder.memoryCacheMaxBytes,
+        "memoryCacheMaxBytes");
   }
 
   /**
@@ -50,15 +114,25 @@ public final class PdfGateConfig {
    * @return the default configuration for production and sandbox domains.
    */
   public static PdfGateConfig defaultConfig() {
-    return new PdfGateConfig(
-        DEFAULT_PRODUCTION_API_DOMAIN,
-        DEFAULT_SANDBOX_API_DOMAIN,
-        DEFAULT_TIMEOUT,
-        DEFAULT_GENERATE_PDF_TIMEOUT,
-        DEFAULT_FLATTEN_PDF_TIMEOUT,
-        DEFAULT_COMPRESS_PDF_TIMEOUT,
-        DEFAULT_PROTECT_PDF_TIMEOUT
-    );
+    return builder().build();
+  }
+
+  /**
+   * Creates a new builder initialized with the default configuration.
+   *
+   * @return the builder for PDFGate configuration.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a builder initialized with this configuration's values.
+   *
+   * @return a builder for a modified copy of this configuration.
+   */
+  public Builder toBuilder() {
+    return new Builder(this);
   }
 
   /**
@@ -76,15 +150,12 @@ public final class PdfGateConfig {
       Duration defaultTimeout,
       Duration generatePdfTimeout
   ) {
-    return new PdfGateConfig(
-        productionApiDomain,
-        sandboxApiDomain,
-        defaultTimeout,
-        generatePdfTimeout,
-        DEFAULT_FLATTEN_PDF_TIMEOUT,
-        DEFAULT_COMPRESS_PDF_TIMEOUT,
-        DEFAULT_PROTECT_PDF_TIMEOUT
-    );
+    return builder()
+        .productionApiDomain(productionApiDomain)
+        .sandboxApiDomain(sandboxApiDomain)
+        .defaultTimeout(defaultTimeout)
+        .generatePdfTimeout(generatePdfTimeout)
+        .build();
   }
 
   /**
@@ -104,15 +175,13 @@ public final class PdfGateConfig {
       Duration generatePdfTimeout,
       Duration flattenPdfTimeout
   ) {
-    return new PdfGateConfig(
-        productionApiDomain,
-        sandboxApiDomain,
-        defaultTimeout,
-        generatePdfTimeout,
-        flattenPdfTimeout,
-        DEFAULT_COMPRESS_PDF_TIMEOUT,
-        DEFAULT_PROTECT_PDF_TIMEOUT
-    );
+    return builder()
+        .productionApiDomain(productionApiDomain)
+        .sandboxApiDomain(sandboxApiDomain)
+        .defaultTimeout(defaultTimeout)
+        .generatePdfTimeout(generatePdfTimeout)
+        .flattenPdfTimeout(flattenPdfTimeout)
+        .build();
   }
 
   /**
@@ -134,15 +203,14 @@ public final class PdfGateConfig {
       Duration flattenPdfTimeout,
       Duration protectPdfTimeout
   ) {
-    return new PdfGateConfig(
-        productionApiDomain,
-        sandboxApiDomain,
-        defaultTimeout,
-        generatePdfTimeout,
-        flattenPdfTimeout,
-        DEFAULT_COMPRESS_PDF_TIMEOUT,
-        protectPdfTimeout
-    );
+    return builder()
+        .productionApiDomain(productionApiDomain)
+        .sandboxApiDomain(sandboxApiDomain)
+        .defaultTimeout(defaultTimeout)
+        .generatePdfTimeout(generatePdfTimeout)
+        .flattenPdfTimeout(flattenPdfTimeout)
+        .protectPdfTimeout(protectPdfTimeout)
+        .build();
   }
 
   /**
@@ -166,15 +234,15 @@ public final class PdfGateConfig {
       Duration compressPdfTimeout,
       Duration protectPdfTimeout
   ) {
-    return new PdfGateConfig(
-        productionApiDomain,
-        sandboxApiDomain,
-        defaultTimeout,
-        generatePdfTimeout,
-        flattenPdfTimeout,
-        compressPdfTimeout,
-        protectPdfTimeout
-    );
+    return builder()
+        .productionApiDomain(productionApiDomain)
+        .sandboxApiDomain(sandboxApiDomain)
+        .defaultTimeout(defaultTimeout)
+        .generatePdfTimeout(generatePdfTimeout)
+        .flattenPdfTimeout(flattenPdfTimeout)
+        .compressPdfTimeout(compressPdfTimeout)
+        .protectPdfTimeout(protectPdfTimeout)
+        .build();
   }
 
   private static String requireNonBlank(String value, String label) {
@@ -184,6 +252,42 @@ public final class PdfGateConfig {
     return value;
   }
 
+  private static int requireNonNegative(int value, String label) {
+    if (value < 0) {
+      throw new IllegalArgumentException(label + " must not be negative.");
+    }
+    return value;
+  }
+
+  private static long requireNonNegative(long value, String label) {
+    if (value < 0) {
+      throw new IllegalArgumentException(label + " must not be negative.");
+    }
+    return value;
+  }
+
+  private static int requirePositive(int value, String label) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(label + " must be positive.");
+    }
+    return value;
+  }
+
+  private static long requirePositive(long value, String label) {
+    if (value <= 0) {
+      throw new IllegalArgumentException(label + " must be positive.");
+    }
+    return value;
+  }
+
+  private static Duration requirePositive(Duration value, String label) {
+    Objects.requireNonNull(value, label);
+    if (value.isNegative() || value.isZero()) {
+      throw new IllegalArgumentException(label + " must be positive.");
+    }
+    return value;
+  }
+
   /**
    * Returns the production API base URL.
    *
@@ -246,4 +350,721 @@ public final class PdfGateConfig {
   public Duration getProtectPdfTimeout() {
     return protectPdfTimeout;
   }
+
+  /**
+   * Returns the timeout used for requests to an endpoint.
+   *
+   * @param endpoint the endpoint to look up.
+   * @return the endpoint-specific timeout, or the default timeout when none exists.
+   */
+  public Duration getTimeout(PdfGateEndpoint endpoint) {
+    switch (endpoint) {
+      case GENERATE_PDF:
+        return generatePdfTimeout;
+      case FLATTEN_PDF:
+        return flattenPdfTimeout;
+      case COMPRESS_PDF:
+        return compressPdfTimeout;
+      case PROTECT_PDF:
+        return protectPdfTimeout;
+      default:
+        return defaultTimeout;
+    }
+  }
+
+  /**
+   * Returns the maximum number of idle connections kept in the connection pool.
+   *
+   * @return the maximum number of idle connections kept in the connection pool.
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Returns how long idle connections are kept alive in the connection pool.
+   *
+   * @return how long idle connections are kept alive in the connection pool.
+   */
+  public Duration getKeepAliveDuration() {
+    return keepAliveDuration;
+  }
+
+  /**
+   * Returns the maximum number of requests allowed in flight for an endpoint.
+   *
+   * <p>Requests above the limit wait in the endpoint's queue, so slow endpoints such as
+   * generate PDF cannot starve fast ones such as get document.
+   *
+   * @param endpoint the endpoint to look up.
+   * @return the maximum number of requests allowed in flight for the endpoint.
+   */
+  public int getMaxConcurrentRequests(PdfGateEndpoint endpoint) {
+    return maxConcurrentRequests.getOrDefault(endpoint, DEFAULT_MAX_CONCURRENT_REQUESTS);
+  }
+
+  /**
+   * Returns the maximum number of requests allowed to wait for an endpoint.
+   *
+   * <p>Requests beyond the queue capacity fail with {@link PdfGateException}.
+   *
+   * @param endpoint the endpoint to look up.
+   * @return the maximum number of requests allowed to wait for the endpoint.
+   */
+  public int getMaxQueuedRequests(PdfGateEndpoint endpoint) {
+    return maxQueuedRequests.getOrDefault(endpoint, DEFAULT_MAX_QUEUED_REQUESTS);
+  }
+
+  /**
+   * Returns the HTTP stack used to send requests.
+   *
+   * @return the HTTP stack used to send requests.
+   */
+  public PdfGateTransportType getTransport() {
+    return transport;
+  }
+
+  /**
+   * Returns whether asynchronous requests run on virtual threads.
+   *
+   * @return whether asynchronous requests run on virtual threads.
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Returns whether per-endpoint concurrency limits adapt to observed latency and throttling.
+   *
+   * @return whether per-endpoint concurrency limits adapt to observed latency and throttling.
+   */
+  public boolean isAdaptiveConcurrency() {
+    return adaptiveConcurrency;
+  }
+
+  /**
+   * Returns the retry policy for requests to an endpoint.
+   *
+   * @param endpoint the endpoint to look up.
+   * @return the endpoint-specific retry policy, or the default policy when none exists.
+   */
+  public PdfGateRetryPolicy getRetryPolicy(PdfGateEndpoint endpoint) {
+    return retryPolicies.getOrDefault(endpoint, retryPolicy);
+  }
+
+  /**
+   * Returns the hedging policy for get document and get file requests.
+   *
+   * @return the hedging policy, or {@code null} when hedging is disabled.
+   */
+  public PdfGateHedgePolicy getHedgePolicy() {
+    return hedgePolicy;
+  }
+
+  /**
+   * Returns the circuit breaker policy for requests to an endpoint.
+   *
+   * @param endpoint the endpoint to look up.
+   * @return the endpoint-specific policy, or the default policy when none exists; {@code null}
+   *     when the endpoint has no circuit breaker.
+   */
+  public PdfGateCircuitBreakerPolicy getCircuitBreakerPolicy(PdfGateEndpoint endpoint) {
+    return circuitBreakerPolicies.getOrDefault(endpoint, circuitBreakerPolicy);
+  }
+
+  /**
+   * Returns the listener notified of circuit breaker state transitions.
+   *
+   * @return the listener, or {@code null} when none is set.
+   */
+  public PdfGateCircuitBreakerListener getCircuitBreakerListener() {
+    return circuitBreakerListener;
+  }
+
+  /**
+   * Returns whether identical concurrent requests share one HTTP call.
+   *
+   * @return whether identical concurrent requests share one HTTP call.
+   */
+  public boolean isCoalesceRequests() {
+    return coalesceRequests;
+  }
+
+  /**
+   * Returns the largest file result, in bytes, kept in memory before spilling to disk.
+   *
+   * @return the spill threshold in bytes.
+   */
+  public long getSpillThreshold() {
+    return spillThreshold;
+  }
+
+  /**
+   * Returns the smallest JSON request body, in bytes, that is gzip-compressed.
+   *
+   * @return the gzip threshold in bytes, or {@code -1} when compression is disabled.
+   */
+  public long getGzipThreshold() {
+    return gzipThreshold;
+  }
+
+  /**
+   * Returns the maximum number of uploaded files remembered for deduplication.
+   *
+   * @return the upload cache size, or {@code 0} when deduplication is disabled.
+   */
+  public int getUploadCacheSize() {
+    return uploadCacheSize;
+  }
+
+  /**
+   * Returns the directory that caches generated PDFs.
+   *
+   * @return the result cache directory, or {@code null} when result caching is disabled.
+   */
+  public Path getResultCacheDirectory() {
+    return resultCacheDirectory;
+  }
+
+  /**
+   * Returns the maximum total size, in bytes, of the cached PDFs.
+   *
+   * @return the maximum total size of the cached PDFs in bytes.
+   */
+  public long getResultCacheMaxBytes() {
+    return resultCacheMaxBytes;
+  }
+
+  /**
+   * Returns the maximum number of cached PDFs.
+   *
+   * @return the maximum number of cached PDFs.
+   */
+  public int getResultCacheMaxEntries() {
+    return resultCacheMaxEntries;
+  }
+
+  /**
+   * Returns how long a cached PDF is served after it was generated.
+   *
+   * @return the time to live of cached PDFs.
+   */
+  public Duration getResultCacheTtl() {
+    return resultCacheTtl;
+  }
+
+  /**
+   * Returns whether PDFs rendered from a URL or with JavaScript are cached.
+   *
+   * @return whether PDFs that depend on the network or the time are cached.
+   */
+  public boolean isCacheDynamicResults() {
+    return cacheDynamicResults;
+  }
+
+  /**
+   * Returns the byte budget of the in-memory cache of file responses.
+   *
+   * @return the memory cache size in bytes, or {@code 0} when it is disabled.
+   */
+  public long getMemoryCacheMaxBytes() {
+    return memoryCacheMaxBytes;
+  }
+
+  /**
+   * Builder for {@link PdfGateConfig}.
+   */
+  public static final class Builder {
+    private String productionApiDomain = DEFAULT_PRODUCTION_API_DOMAIN;
+    private String sandboxApiDomain = DEFAULT_SANDBOX_API_DOMAIN;
+    private Duration defaultTimeout = DEFAULT_TIMEOUT;
+    private Duration generatePdfTimeout = DEFAULT_GENERATE_PDF_TIMEOUT;
+    private Duration flattenPdfTimeout = DEFAULT_FLATTEN_PDF_TIMEOUT;
+    private Duration compressPdfTimeout = DEFAULT_COMPRESS_PDF_TIMEOUT;
+    private Duration protectPdfTimeout = DEFAULT_PROTECT_PDF_TIMEOUT;
+    private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private Duration keepAliveDuration = DEFAULT_KEEP_ALIVE_DURATION;
+    private final Map<PdfGateEndpoint, Integer> maxConcurrentRequests =
+        new EnumMap<>(PdfGateEndpoint.class);
+    private final Map<PdfGateEndpoint, Integer> maxQueuedRequests =
+        new EnumMap<>(PdfGateEndpoint.class);
+    private PdfGateTransportType transport = DEFAULT_TRANSPORT;
+    private boolean virtualThreads;
+    private boolean adaptiveConcurrency;
+    private PdfGateRetryPolicy retryPolicy = PdfGateRetryPolicy.none();
+    private final Map<PdfGateEndpoint, PdfGateRetryPolicy> retryPolicies =
+        new EnumMap<>(PdfGateEndpoint.class);
+    private PdfGateHedgePolicy hedgePolicy;
+    private PdfGateCircuitBreakerPolicy circuitBreakerPolicy;
+    private final Map<PdfGateEndpoint, PdfGateCircuitBreakerPolicy> circuitBreakerPolicies =
+        new EnumMap<>(PdfGateEndpoint.class);
+    private PdfGateCircuitBreakerListener circuitBreakerListener;
+    private boolean coalesceRequests;
+    private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private long gzipThreshold = -1;
+    private int uploadCacheSize;
+    private Path resultCacheDirectory;
+    private long resultCacheMaxBytes = DEFAULT_RESULT_CACHE_MAX_BYTES;
+    private int resultCacheMaxEntries = DEFAULT_RESULT_CACHE_MAX_ENTRIES;
+    private Duration resultCacheTtl = DEFAULT_RESULT_CACHE_TTL;
+    private boolean cacheDynamicResults;
+    private long memoryCacheMaxBytes;
+
+    private Builder() {
+    }
+
+    private Builder(PdfGateConfig config) {
+      this.productionApiDomain = config.productionApiDomain;
+      this.sandboxApiDomain = config.sandboxApiDomain;
+      this.defaultTimeout = config.defaultTimeout;
+      this.generatePdfTimeout = config.generatePdfTimeout;
+      this.flattenPdfTimeout = config.flattenPdfTimeout;
+      this.compressPdfTimeout = config.compressPdfTimeout;
+      this.protectPdfTimeout = config.protectPdfTimeout;
+      this.maxIdleConnections = config.maxIdleConnections;
+      this.keepAliveDuration = config.keepAliveDuration;
+      this.maxConcurrentRequests.putAll(config.maxConcurrentRequests);
+      this.maxQueuedRequests.putAll(config.maxQueuedRequests);
+      this.transport = config.transport;
+      this.virtualThreads = config.virtualThreads;
+      this.adaptiveConcurrency = config.adaptiveConcurrency;
+      this.retryPolicy = config.retryPolicy;
+      this.retryPolicies.putAll(config.retryPolicies);
+      this.hedgePolicy = config.hedgePolicy;
+      this.circuitBreakerPolicy = config.circuitBreakerPolicy;
+      this.circuitBreakerPolicies.putAll(config.circuitBreakerPolicies);
+      this.circuitBreakerListener = config.circuitBreakerListener;
+      this.coalesceRequests = config.coalesceRequests;
+      this.spillThreshold = config.spillThreshold;
+      this.gzipThreshold = config.gzipThreshold;
+      this.uploadCacheSize = config.uploadCacheSize;
+      this.resultCacheDirectory = config.resultCacheDirectory;
+      this.resultCacheMaxBytes = config.resultCacheMaxBytes;
+      this.resultCacheMaxEntries = config.resultCacheMaxEntries;
+      this.resultCacheTtl = config.resultCacheTtl;
+      this.cacheDynamicResults = config.cacheDynamicResults;
+      this.memoryCacheMaxBytes = config.memoryCacheMaxBytes;
+    }
+
+    /**
+     * Sets the production API base URL.
+     *
+     * @param productionApiDomain production API base URL.
+     * @return this builder.
+     */
+    public Builder productionApiDomain(String productionApiDomain) {
+      this.productionApiDomain = productionApiDomain;
+      return this;
+    }
+
+    /**
+     * Sets the sandbox API base URL.
+     *
+     * @param sandboxApiDomain sandbox API base URL.
+     * @return this builder.
+     */
+    public Builder sandboxApiDomain(String sandboxApiDomain) {
+      this.sandboxApiDomain = sandboxApiDomain;
+      return this;
+    }
+
+    /**
+     * Sets the default timeout for requests.
+     *
+     * @param defaultTimeout default timeout for requests.
+     * @return this builder.
+     */
+    public Builder defaultTimeout(Duration defaultTimeout) {
+      this.defaultTimeout = defaultTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the timeout for generate PDF requests.
+     *
+     * @param generatePdfTimeout timeout for generate PDF requests.
+     * @return this builder.
+     */
+    public Builder generatePdfTimeout(Duration generatePdfTimeout) {
+      this.generatePdfTimeout = generatePdfTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the timeout for flatten PDF requests.
+     *
+     * @param flattenPdfTimeout timeout for flatten PDF requests.
+     * @return this builder.
+     */
+    public Builder flattenPdfTimeout(Duration flattenPdfTimeout) {
+      this.flattenPdfTimeout = flattenPdfTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the timeout for compress PDF requests.
+     *
+     * @param compressPdfTimeout timeout for compress PDF requests.
+     * @return this builder.
+     */
+    public Builder compressPdfTimeout(Duration compressPdfTimeout) {
+      this.compressPdfTimeout = compressPdfTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the timeout for protect PDF requests.
+     *
+     * @param protectPdfTimeout timeout for protect PDF requests.
+     * @return this builder.
+     */
+    public Builder protectPdfTimeout(Duration protectPdfTimeout) {
+      this.protectPdfTimeout = protectPdfTimeout;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of idle connections kept in the connection pool.
+     *
+     * <p>Only used when the client creates its own connection pool.
+     *
+     * @param maxIdleConnections maximum number of idle connections.
+     * @return this builder.
+     */
+    public Builder maxIdleConnections(int maxIdleConnections) {
+      this.maxIdleConnections = maxIdleConnections;
+      return this;
+    }
+
+    /**
+     * Sets how long idle connections are kept alive in the connection pool.
+     *
+     * <p>Only used when the client creates its own connection pool.
+     *
+     * @param keepAliveDuration keep-alive duration for idle connections, greater than zero.
+     * @return this builder.
+     */
+    public Builder keepAliveDuration(Duration keepAliveDuration) {
+      this.keepAliveDuration = keepAliveDuration;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of requests allowed in flight for an endpoint.
+     *
+     * @param endpoint the endpoint to limit.
+     * @param maxConcurrentRequests maximum number of requests in flight, at least 1.
+     * @return this builder.
+     */
+    public Builder maxConcurrentRequests(PdfGateEndpoint endpoint, int maxConcurrentRequests) {
+      if (maxConcurrentRequests < 1) {
+        throw new IllegalArgumentException("maxConcurrentRequests must be at least 1.");
+      }
+      this.maxConcurrentRequests.put(Objects.requireNonNull(endpoint, "endpoint"),
+          maxConcurrentRequests);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of requests allowed to wait for an endpoint.
+     *
+     * @param endpoint the endpoint to limit.
+     * @param maxQueuedRequests maximum number of waiting requests, {@code 0} to reject
+     *     requests as soon as the endpoint is saturated.
+     * @return this builder.
+     */
+    public Builder maxQueuedRequests(PdfGateEndpoint endpoint, int maxQueuedRequests) {
+      if (maxQueuedRequests < 0) {
+        throw new IllegalArgumentException("maxQueuedRequests must not be negative.");
+      }
+      this.maxQueuedRequests.put(Objects.requireNonNull(endpoint, "endpoint"), maxQueuedRequests);
+      return this;
+    }
+
+    /**
+     * Sets the HTTP stack used to send requests.
+     *
+     * <p>{@link PdfGateTransportType#JDK_HTTP_CLIENT} lets many slow asynchronous requests,
+     * such as long renders, be in flight without holding a thread each.
+     *
+     * @param transport the HTTP stack used to send requests.
+     * @return this builder.
+     */
+    public Builder transport(PdfGateTransportType transport) {
+      this.transport = transport;
+      return this;
+    }
+
+    /**
+     * Sets whether asynchronous requests run on virtual threads.
+     *
+     * <p>On Java 21 and newer the OkHttp dispatcher and the JDK HTTP client run their tasks on
+     * virtual threads. Older runtimes keep using platform threads. Synchronous methods run on
+     * the calling thread, so call them from virtual threads to block only a virtual thread.
+     *
+     * @param virtualThreads whether to use virtual threads.
+     * @return this builder.
+     */
+    public Builder virtualThreads(boolean virtualThreads) {
+      this.virtualThreads = virtualThreads;
+      return this;
+    }
+
+    /**
+     * Sets whether per-endpoint concurrency limits adapt to observed latency and throttling.
+     *
+     * <p>Each endpoint starts at a small limit and grows it while responses stay fast, shrinks
+     * it when latency rises, and cuts it when the API answers {@code 429} or {@code 503} or a
+     * request times out. The limit never exceeds
+     * {@link #maxConcurrentRequests(PdfGateEndpoint, int)}; requests over the current limit
+     * wait in the endpoint queue. Read the current limit from
+     * {@link PdfGate#getEndpointMetrics(PdfGateEndpoint)}.
+     *
+     * @param adaptiveConcurrency whether concurrency limits adapt.
+     * @return this builder.
+     */
+    public Builder adaptiveConcurrency(boolean adaptiveConcurrency) {
+      this.adaptiveConcurrency = adaptiveConcurrency;
+      return this;
+    }
+
+    /**
+     * Sets the retry policy for endpoints without their own policy. Defaults to
+     * {@link PdfGateRetryPolicy#none()}.
+     *
+     * <p>When a policy allows retries, POST requests carry an {@code Idempotency-Key} header
+     * that stays the same across attempts, so a retried upload cannot create a second document.
+     *
+     * @param retryPolicy the default retry policy.
+     * @return this builder.
+     */
+    public Builder retryPolicy(PdfGateRetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * Sets the retry policy for one endpoint.
+     *
+     * @param endpoint the endpoint to configure.
+     * @param retryPolicy the endpoint's retry policy.
+     * @return this builder.
+     */
+    public Builder retryPolicy(PdfGateEndpoint endpoint, PdfGateRetryPolicy retryPolicy) {
+      retryPolicies.put(Objects.requireNonNull(endpoint, "endpoint"),
+          Objects.requireNonNull(retryPolicy, "retryPolicy"));
+      return this;
+    }
+
+    /**
+     * Sets the hedging policy for get document and get file requests, or {@code null} to
+     * disable hedging, the default.
+     *
+     * <p>These requests are idempotent GETs, so a slow attempt can be raced by a second one
+     * without side effects. Other endpoints are never hedged.
+     *
+     * @param hedgePolicy the hedging policy.
+     * @return this builder.
+     */
+    public Builder hedgePolicy(PdfGateHedgePolicy hedgePolicy) {
+      this.hedgePolicy = hedgePolicy;
+      return this;
+    }
+
+    /**
+     * Sets the circuit breaker policy for endpoints without their own policy, or {@code null}
+     * to disable circuit breakers, the default. Each endpoint gets its own breaker.
+     *
+     * @param circuitBreakerPolicy the default circuit breaker policy.
+     * @return this builder.
+     */
+    public Builder circuitBreaker(PdfGateCircuitBreakerPolicy circuitBreakerPolicy) {
+      this.circuitBreakerPolicy = circuitBreakerPolicy;
+      return this;
+    }
+
+    /**
+     * Sets the circuit breaker policy for one endpoint.
+     *
+     * @param endpoint the endpoint to configure.
+     * @param circuitBreakerPolicy the endpoint's circuit breaker policy.
+     * @return this builder.
+     */
+    public Builder circuitBreaker(PdfGateEndpoint endpoint,
+                                  PdfGateCircuitBreakerPolicy circuitBreakerPolicy) {
+      circuitBreakerPolicies.put(Objects.requireNonNull(endpoint, "endpoint"),
+          Objects.requireNonNull(circuitBreakerPolicy, "circuitBreakerPolicy"));
+      return this;
+    }
+
+    /**
+     * Sets the listener notified of circuit breaker state transitions.
+     *
+     * @param circuitBreakerListener the listener, or {@code null} for none.
+     * @return this builder.
+     */
+    public Builder circuitBreakerListener(PdfGateCircuitBreakerListener circuitBreakerListener) {
+      this.circuitBreakerListener = circuitBreakerListener;
+      return this;
+    }
+
+    /**
+     * Sets whether identical concurrent {@code generatePdf}, {@code getDocument} and
+     * {@code getFile} requests share one HTTP call.
+     *
+     * <p>Requests are identical when they target the same endpoint with the same serialized
+     * parameters. Callers that arrive while a matching request is in flight receive its result,
+     * and byte results are copied for each of them. Only the methods returning a result are
+     * coalesced; {@code *Call} and {@code enqueue} methods always send their own request.
+     *
+     * @param coalesceRequests whether to coalesce identical concurrent requests.
+     * @return this builder.
+     */
+    public Builder coalesceRequests(boolean coalesceRequests) {
+      this.coalesceRequests = coalesceRequests;
+      return this;
+    }
+
+    /**
+     * Sets the largest file result, in bytes, that {@link PdfGateFileResult} keeps in memory.
+     * Larger bodies are written to a temporary file. Defaults to 8 MiB.
+     *
+     * @param spillThreshold spill threshold in bytes, at least 0.
+     * @return this builder.
+     */
+    public Builder spillThreshold(long spillThreshold) {
+      this.spillThreshold = spillThreshold;
+      return this;
+    }
+
+    /**
+     * Enables gzip compression for JSON request bodies of at least {@code gzipThreshold}
+     * bytes, and for bodies of unknown length, and asks the API for gzip-encoded responses.
+     *
+     * <p>Multipart uploads are never compressed, as PDFs are already compressed. Compressed
+     * responses are decoded as a stream. The bytes saved and the time spent are reported by
+     * {@link PdfGateEndpointMetrics#getCompression()}. Disabled by default.
+     *
+     * @param gzipThreshold smallest body size to compress in bytes, or {@code -1} to disable.
+     * @return this builder.
+     */
+    public Builder gzipThreshold(long gzipThreshold) {
+      this.gzipThreshold = gzipThreshold;
+      return this;
+    }
+
+    /**
+     * Enables upload deduplication, remembering up to {@code uploadCacheSize} uploaded files.
+     *
+     * <p>When a JSON-response call uploads a file, the document the API stored it as is
+     * remembered under the SHA-256 digest of its bytes, computed once per {@link FileParam}.
+     * Later calls with the same bytes send that document ID instead of the file, until shortly
+     * before the document expires. If the API no longer has the document, the file is uploaded
+     * after all. Files supplied with {@link FileParam#fromStream} are never deduplicated.
+     * Disabled by default.
+     *
+     * @param uploadCacheSize maximum number of remembered uploads, or {@code 0} to disable.
+     * @return this builder.
+     */
+    public Builder uploadCacheSize(int uploadCacheSize) {
+      this.uploadCacheSize = uploadCacheSize;
+      return this;
+    }
+
+    /**
+     * Enables a persistent cache of generated PDFs in {@code resultCacheDirectory}.
+     *
+     * <p>{@link PdfGate#generatePdf(GeneratePdfFileParams)} and its async variant serve a PDF
+     * generated earlier from the same parameters without a network call. Parameters are
+     * compared by a canonical hash, so maps populated in a different order match. PDFs rendered
+     * from a URL or with JavaScript are only cached with {@link #cacheDynamicResults(boolean)},
+     * and HTML supplied as an {@link HtmlSource} is never cached. Clients in one JVM using the
+     * same directory share the cache and must use the same limits, or creating the client
+     * fails. A directory must not be shared between processes. Disabled by default.
+     *
+     * @param resultCacheDirectory cache directory, or {@code null} to disable.
+     * @return this builder.
+     */
+    public Builder resultCacheDirectory(Path resultCacheDirectory) {
+      this.resultCacheDirectory = resultCacheDirectory;
+      return this;
+    }
+
+    /**
+     * Sets the maximum total size of the cached PDFs. When it is exceeded, the PDFs read least
+     * recently are evicted. Defaults to 256 MiB.
+     *
+     * @param resultCacheMaxBytes maximum total size in bytes, greater than 0.
+     * @return this builder.
+     */
+    public Builder resultCacheMaxBytes(long resultCacheMaxBytes) {
+      this.resultCacheMaxBytes = resultCacheMaxBytes;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of cached PDFs, which sizes the cache index at 56 bytes per
+     * entry. Defaults to 4096.
+     *
+     * @param resultCacheMaxEntries maximum number of cached PDFs, greater than 0.
+     * @return this builder.
+     */
+    public Builder resultCacheMaxEntries(int resultCacheMaxEntries) {
+      this.resultCacheMaxEntries = resultCacheMaxEntries;
+      return this;
+    }
+
+    /**
+     * Sets how long a cached PDF is served after it was generated. Defaults to one day.
+     *
+     * @param resultCacheTtl time to live of cached PDFs, greater than zero.
+     * @return this builder.
+     */
+    public Builder resultCacheTtl(Duration resultCacheTtl) {
+      this.resultCacheTtl = resultCacheTtl;
+      return this;
+    }
+
+    /**
+     * Sets whether PDFs rendered from a {@code url} or with {@code javascript} are cached, on
+     * disk and in memory. Their output can change with the page or the time, so they are not
+     * cached by default.
+     *
+     * @param cacheDynamicResults whether to cache PDFs that depend on the network or the time.
+     * @return this builder.
+     */
+    public Builder cacheDynamicResults(boolean cacheDynamicResults) {
+      this.cacheDynamicResults = cacheDynamicResults;
+      return this;
+    }
+
+    /**
+     * Enables an in-memory cache of up to {@code memoryCacheMaxBytes} for the methods that
+     * return a file as a byte array, such as {@link PdfGate#generatePdf(GeneratePdfFileParams)}
+     * and {@link PdfGate#getFile(GetFileParams)}.
+     *
+     * <p>Requests are matched by method, URL, API key and body, so an upload of the same file
+     * with the same options is served from memory. New files are only admitted when they are
+     * expected to be worth more than the entry they would evict: recent use frequency times
+     * the endpoint's average latency, per byte. Files streamed from an
+     * {@link java.io.InputStream} are never cached. Hits, misses and evictions are reported by
+     * {@link PdfGate#getCacheMetrics()}. Disabled by default.
+     *
+     * @param memoryCacheMaxBytes cache size in bytes, or {@code 0} to disable.
+     * @return this builder.
+     */
+    public Builder memoryCacheMaxBytes(long memoryCacheMaxBytes) {
+      this.memoryCacheMaxBytes = memoryCacheMaxBytes;
+      return this;
+    }
+
+    /**
+     * Builds the configuration.
+     *
+     * @return the configured {@link PdfGateConfig}.
+     */
+    public PdfGateConfig build() {
+      return new PdfGateConfig(this);
+    }
+  }
 }
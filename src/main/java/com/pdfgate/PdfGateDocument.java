@@ -1,6 +1,16 @@
 package com.pdfgate;
 
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Objects;
@@ -8,8 +18,14 @@ import java.util.Optional;
 
 /**
  * Document metadata returned by JSON responses from the PDFGate API.
+ *
+ * <p>The free-form {@code metadata} object is kept as JSON text and only converted to a map the
+ * first time {@link #getMetadata()} is called. Its shape is checked while the response is
+ * parsed, so metadata that is not a JSON object fails the request instead of the getter.
  */
 public final class PdfGateDocument {
+  private static final Type METADATA_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
   private String id;
   private DocumentStatus status;
   private Instant createdAt;
@@ -17,8 +33,10 @@ public final class PdfGateDocument {
   private DocumentType type;
   private String fileUrl;
   private Long size;
-  private Map<String, Object> metadata;
+  @JsonAdapter(MetadataAdapter.class)
+  private String metadata;
   private String derivedFrom;
+  private transient volatile Map<String, Object> decodedMetadata;
 
   /**
    * Creates an empty document instance for JSON deserialization.
@@ -95,7 +113,15 @@ public final class PdfGateDocument {
    * @return metadata attached to the document, if present.
    */
   public Optional<Map<String, Object>> getMetadata() {
-    return Optional.ofNullable(metadata);
+    if (metadata == null) {
+      return Optional.empty();
+    }
+    Map<String, Object> decoded = decodedMetadata;
+    if (decoded == null) {
+      decoded = PdfGateJson.gson().fromJson(metadata, METADATA_TYPE);
+      decodedMetadata = decoded;
+    }
+    return Optional.of(decoded);
   }
 
   /**
@@ -133,6 +159,79 @@ public final class PdfGateDocument {
         derivedFrom);
   }
 
+  /**
+   * Copies the {@code metadata} object into JSON text token by token, without building a tree.
+   */
+  static final class MetadataAdapter extends TypeAdapter<String> {
+    @Override
+    public String read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      if (in.peek() != JsonToken.BEGIN_OBJECT) {
+        throw new JsonSyntaxException(
+            "Expected metadata to be an object but was " + in.peek() + " at " + in.getPath());
+      }
+      StringWriter text = new StringWriter();
+      JsonWriter out = new JsonWriter(text);
+      int depth = 0;
+      do {
+        switch (in.peek()) {
+          case BEGIN_OBJECT:
+            in.beginObject();
+            out.beginObject();
+            depth++;
+            break;
+          case END_OBJECT:
+            in.endObject();
+            out.endObject();
+            depth--;
+            break;
+          case BEGIN_ARRAY:
+            in.beginArray();
+            out.beginArray();
+            depth++;
+            break;
+          case END_ARRAY:
+            in.endArray();
+            out.endArray();
+            depth--;
+            break;
+          case NAME:
+            out.name(in.nextName());
+            break;
+          case STRING:
+            out.value(in.nextString());
+            break;
+          case NUMBER:
+            out.jsonValue(in.nextString());
+            break;
+          case BOOLEAN:
+            out.value(in.nextBoolean());
+            break;
+          case NULL:
+            in.nextNull();
+            out.nullValue();
+            break;
+          default:
+            throw new JsonSyntaxException("Unexpected " + in.peek() + " at " + in.getPath());
+        }
+      } while (depth > 0);
+      out.flush();
+      return text.toString();
+    }
+
+    @Override
+    public void write(JsonWriter out, String value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+      } else {
+        out.jsonValue(value);
+      }
+    }
+  }
+
   /**
    * Status values returned by the API for document processing.
    */
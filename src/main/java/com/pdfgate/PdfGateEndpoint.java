@@ -0,0 +1,39 @@
+package com.pdfgate;
+
+/**
+ * PDFGate API endpoints, used to key per-endpoint settings and metrics.
+ */
+public enum PdfGateEndpoint {
+  /**
+   * Generate a PDF from HTML or a URL.
+   */
+  GENERATE_PDF,
+  /**
+   * Flatten a PDF.
+   */
+  FLATTEN_PDF,
+  /**
+   * Compress a PDF.
+   */
+  COMPRESS_PDF,
+  /**
+   * Protect (encrypt) a PDF.
+   */
+  PROTECT_PDF,
+  /**
+   * Apply a watermark to a PDF.
+   */
+  WATERMARK_PDF,
+  /**
+   * Extract form field data from a PDF.
+   */
+  EXTRACT_PDF_FORM_DATA,
+  /**
+   * Retrieve document metadata.
+   */
+  GET_DOCUMENT,
+  /**
+   * Retrieve a stored document file.
+   */
+  GET_FILE
+}
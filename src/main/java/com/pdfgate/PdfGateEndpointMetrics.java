@@ -0,0 +1,84 @@
+package com.pdfgate;
+
+/**
+ * Point-in-time view of the request load on one PDFGate API endpoint.
+ *
+ * <p>Obtain it from {@link PdfGate#getEndpointMetrics(PdfGateEndpoint)}.
+ */
+public final class PdfGateEndpointMetrics {
+  private final PdfGateEndpoint endpoint;
+  private final int activeRequests;
+  private final int queuedRequests;
+  private final int maxConcurrentRequests;
+  private final PdfGateCircuitState circuitState;
+  private final PdfGateCompressionMetrics compression;
+
+  PdfGateEndpointMetrics(PdfGateBulkhead bulkhead, PdfGateCircuitBreaker circuitBreaker,
+                         PdfGateCompressionStats compressionStats) {
+    this.endpoint = bulkhead.getEndpoint();
+    this.activeRequests = bulkhead.getActiveCount();
+    this.queuedRequests = bulkhead.getQueuedCount();
+    this.maxConcurrentRequests = bulkhead.getLimit();
+    this.circuitState = circuitBreaker == null
+        ? PdfGateCircuitState.CLOSED
+        : circuitBreaker.getState();
+    this.compression = compressionStats.snapshot();
+  }
+
+  /**
+   * Returns the endpoint these metrics describe.
+   *
+   * @return the endpoint these metrics describe.
+   */
+  public PdfGateEndpoint getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * Returns the number of requests currently in flight.
+   *
+   * @return the number of requests currently in flight.
+   */
+  public int getActiveRequests() {
+    return activeRequests;
+  }
+
+  /**
+   * Returns the number of requests waiting for a free slot.
+   *
+   * @return the number of requests waiting for a free slot.
+   */
+  public int getQueuedRequests() {
+    return queuedRequests;
+  }
+
+  /**
+   * Returns the maximum number of requests allowed in flight.
+   *
+   * <p>With {@link PdfGateConfig.Builder#adaptiveConcurrency(boolean)} enabled this is the
+   * current adaptive limit.
+   *
+   * @return the maximum number of requests allowed in flight.
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /**
+   * Returns the state of the endpoint's circuit breaker, {@code CLOSED} when it has none.
+   *
+   * @return the state of the endpoint's circuit breaker.
+   */
+  public PdfGateCircuitState getCircuitState() {
+    return circuitState;
+  }
+
+  /**
+   * Returns the totals of the gzip work done for the endpoint.
+   *
+   * @return the endpoint's compression totals.
+   */
+  public PdfGateCompressionMetrics getCompression() {
+    return compression;
+  }
+}
@@ -2,9 +2,17 @@ package com.pdfgate;
 
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.function.BiConsumer;
 import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Handles enqueuing calls and adapting responses for async usage.
@@ -52,6 +60,84 @@ final class PdfGateEnqueuer {
     return enqueueAsFuture(call, this::enqueue);
   }
 
+  /**
+   * Enqueues a file call that streams the response body to a file.
+   */
+  public CompletableFuture<Long> enqueueAsFuture(CallFile call, Path target) {
+    return enqueueAsFuture(call, (c, callback) -> c.enqueue(
+        new PdfGateTransferResponseParserCallback<>(callback,
+            response -> PdfGateResponseParser.transferTo(response, target))));
+  }
+
+  /**
+   * Enqueues a file call that streams the response body to a channel.
+   */
+  public CompletableFuture<Long> enqueueAsFuture(CallFile call, WritableByteChannel target) {
+    return enqueueAsFuture(call, (c, callback) -> c.enqueue(
+        new PdfGateTransferResponseParserCallback<>(callback,
+            response -> PdfGateResponseParser.transferTo(response, target))));
+  }
+
+  /**
+   * Enqueues a file call that reads the response body into a spill-to-disk result.
+   */
+  public CompletableFuture<PdfGateFileResult> enqueueAsFuture(CallFile call, long threshold,
+                                                              long sizeHint) {
+    return enqueueAsFuture(call, (c, callback) -> c.enqueue(
+        new PdfGateTransferResponseParserCallback<>(callback,
+            response -> PdfGateFileResult.read(response, threshold, sizeHint))));
+  }
+
+  /**
+   * Enqueues a file call that reads the response body into pooled segments.
+   */
+  public CompletableFuture<PdfGateBytes> enqueueSegmentedAsFuture(CallFile call) {
+    return enqueueAsFuture(call, (c, callback) -> c.enqueue(
+        new PdfGateTransferResponseParserCallback<>(callback, PdfGateBytes::read)));
+  }
+
+  /**
+   * Enqueues a file call that publishes the response body to a subscriber in chunks.
+   */
+  public void enqueue(CallFile call, Flow.Subscriber<? super ByteBuffer> subscriber) {
+    call.enqueue(new PdfGateStreamingResponseParserCallback(subscriber));
+  }
+
+  /**
+   * Enqueues a file call and completes with a stream over the live response body once the
+   * response headers arrive. A stream that arrives after the future was cancelled is closed.
+   */
+  public CompletableFuture<InputStream> enqueueStreamAsFuture(CallFile call) {
+    CompletableFuture<InputStream> future = new CompletableFuture<>();
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        future.completeExceptionally(wrapAsyncThrowable(e));
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) {
+        InputStream stream;
+        try {
+          stream = PdfGateResponseParser.openStream(response);
+        } catch (IOException e) {
+          response.close();
+          future.completeExceptionally(wrapAsyncThrowable(e));
+          return;
+        }
+        if (!future.complete(stream)) {
+          response.close();
+        }
+      }
+    });
+    future.whenComplete((r, t) -> {
+      if (future.isCancelled()) {
+        call.cancel();
+      }
+    });
+    return future;
+  }
+
   private <T, C extends Call> CompletableFuture<T> enqueueAsFuture(
       C call,
       BiConsumer<C, PdfGateCallback<T>> enqueuer) {
@@ -11,8 +11,11 @@ import okhttp3.ResponseBody;
 
 /**
  * Exception raised for PDFGate API errors and transport failures.
+ *
+ * <p>{@link PdfGateCircuitOpenException} marks requests rejected by an open circuit breaker,
+ * and {@link PdfGateQueueFullException} requests rejected by a full endpoint queue.
  */
-public final class PdfGateException extends IOException {
+public class PdfGateException extends IOException {
   /**
    * HTTP status code returned by the API.
    */
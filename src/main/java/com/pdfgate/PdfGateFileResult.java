@@ -0,0 +1,174 @@
+package com.pdfgate;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * A re-readable file response that is held in memory when small and spilled to a temporary
+ * file when larger than the configured threshold.
+ *
+ * <p>The body can be read any number of times through {@link #openStream()},
+ * {@link #asByteBuffer()} or {@link #transferTo(Path)}. Closing the result deletes the
+ * temporary file, so it should be used in a try-with-resources block.
+ */
+public final class PdfGateFileResult implements Closeable {
+  private final byte[] data;
+  private final Path file;
+  private final long size;
+  private volatile boolean closed;
+
+  private PdfGateFileResult(byte[] data, Path file, long size) {
+    this.data = data;
+    this.file = file;
+    this.size = size;
+  }
+
+  /**
+   * Reads a successful response body, keeping it in memory when it is at most
+   * {@code threshold} bytes and spilling it to a temporary file otherwise.
+   *
+   * <p>The decision is made up front from {@code Content-Length}, or from {@code sizeHint}
+   * when the response does not declare a length. Without either, the body is buffered in
+   * memory until it passes the threshold and then spilled.
+   *
+   * @param sizeHint expected body size, or {@code -1} when unknown.
+   */
+  static PdfGateFileResult read(Response response, long threshold, long sizeHint)
+      throws IOException {
+    PdfGateResponseParser.ensureSuccess(response);
+    ResponseBody body = response.body();
+    if (body == null) {
+      return new PdfGateFileResult(new byte[0], null, 0);
+    }
+    long expectedSize = body.contentLength() >= 0 ? body.contentLength() : sizeHint;
+    BufferedSource source = body.source();
+    Buffer buffer = new Buffer();
+    if (expectedSize < 0 || expectedSize <= threshold) {
+      while (buffer.size() <= threshold) {
+        if (source.read(buffer, PdfGateResponseParser.TRANSFER_BUFFER_SIZE) == -1) {
+          long size = buffer.size();
+          return new PdfGateFileResult(buffer.readByteArray(), null, size);
+        }
+      }
+    }
+    return spill(buffer, source);
+  }
+
+  private static PdfGateFileResult spill(Buffer buffer, BufferedSource source)
+      throws IOException {
+    Path file = Files.createTempFile("pdfgate-", ".pdf");
+    try (Sink sink = Okio.sink(file)) {
+      long size = buffer.size();
+      sink.write(buffer, size);
+      size += source.readAll(sink);
+      return new PdfGateFileResult(null, file, size);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the body size in bytes.
+   *
+   * @return the body size in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns whether the body is held in memory rather than in a temporary file.
+   *
+   * @return whether the body is held in memory.
+   */
+  public boolean isInMemory() {
+    return file == null;
+  }
+
+  /**
+   * Opens a new stream over the body. Each call starts from the beginning.
+   *
+   * @return a stream over the body; the caller must close it.
+   * @throws IOException when the temporary file cannot be opened.
+   */
+  public InputStream openStream() throws IOException {
+    ensureOpen();
+    return file == null ? new ByteArrayInputStream(data) : Files.newInputStream(file);
+  }
+
+  /**
+   * Returns a read-only buffer over the body. A spilled body is memory-mapped rather than read
+   * onto the heap.
+   *
+   * <p>A mapped buffer stays valid after {@link #close()} on most platforms, but on Windows it
+   * keeps the temporary file from being deleted until the buffer is garbage collected.
+   *
+   * @return a read-only buffer over the body.
+   * @throws IOException when the temporary file cannot be mapped.
+   */
+  public ByteBuffer asByteBuffer() throws IOException {
+    ensureOpen();
+    if (file == null) {
+      return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+  }
+
+  /**
+   * Copies the body to a file, replacing its contents.
+   *
+   * @param target file to write the body to.
+   * @throws IOException when the body cannot be copied.
+   */
+  public void transferTo(Path target) throws IOException {
+    ensureOpen();
+    if (target == null) {
+      throw new IllegalArgumentException("target must be provided.");
+    }
+    if (file == null) {
+      Files.write(target, data);
+    } else {
+      Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Deletes the temporary file, if any. Further reads fail with
+   * {@link IllegalStateException}.
+   *
+   * @throws IOException when the temporary file cannot be deleted.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (file != null) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("result is closed.");
+    }
+  }
+}
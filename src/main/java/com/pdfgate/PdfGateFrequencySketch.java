@@ -0,0 +1,88 @@
+package com.pdfgate;
+
+/**
+ * Count-min sketch of 4-bit counters estimating how often keys were used recently.
+ *
+ * <p>Each key maps to four counters, one per hash function, and its frequency is the smallest
+ * of them. Counters saturate at 15. After a sample of uses proportional to the sketch's size,
+ * all counters are halved, so old popularity fades. Not thread-safe; callers hold the cache's
+ * policy lock.
+ */
+final class PdfGateFrequencySketch {
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private long[] table;
+  private int sampleSize;
+  private int additions;
+
+  PdfGateFrequencySketch(int expectedEntries) {
+    resize(expectedEntries);
+  }
+
+  /**
+   * Grows the sketch when more entries are cached than it was sized for, forgetting the counts.
+   */
+  void ensureCapacity(int entries) {
+    if (entries > table.length) {
+      resize(entries);
+    }
+  }
+
+  /**
+   * Returns the estimated number of recent uses of a key, between 0 and 15.
+   */
+  int frequency(int hash) {
+    int frequency = 15;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long spread = spread(hash, i);
+      int index = (int) (spread >>> 32) & (table.length - 1);
+      int offset = ((int) spread & 15) << 2;
+      frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 15));
+    }
+    return frequency;
+  }
+
+  /**
+   * Records a use of a key, aging all counters once enough uses were recorded.
+   */
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      long spread = spread(hash, i);
+      int index = (int) (spread >>> 32) & (table.length - 1);
+      int offset = ((int) spread & 15) << 2;
+      if (((table[index] >>> offset) & 15) != 15) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions = (additions - (odd >>> 2)) >>> 1;
+  }
+
+  private void resize(int entries) {
+    int length = Integer.highestOneBit(Math.max(64, Math.min(entries, 1 << 26)) - 1) << 1;
+    table = new long[length];
+    sampleSize = 10 * length;
+    additions = 0;
+  }
+
+  private static long spread(int hash, int i) {
+    long spread = (hash + SEEDS[i]) * SEEDS[i];
+    return spread + (spread >>> 32);
+  }
+}
@@ -0,0 +1,100 @@
+package com.pdfgate;
+
+/**
+ * Hedging policy for the idempotent {@code getDocument} and {@code getFile} requests.
+ *
+ * <p>When an attempt has not responded within the {@code percentile} of recent latencies for
+ * its endpoint, a second attempt is sent and whichever responds first wins; the other one is
+ * canceled. Each request earns {@code hedgeRatio} hedges, so extra load stays bounded.
+ */
+public final class PdfGateHedgePolicy {
+  /**
+   * Latency percentile after which a hedge is sent, between 0 and 1.
+   */
+  private final double percentile;
+  /**
+   * Hedges earned per request.
+   */
+  private final double hedgeRatio;
+
+  private PdfGateHedgePolicy(Builder builder) {
+    if (!(builder.percentile > 0 && builder.percentile < 1)) {
+      throw new IllegalArgumentException("percentile must be between 0 and 1.");
+    }
+    if (builder.hedgeRatio < 0 || Double.isNaN(builder.hedgeRatio)) {
+      throw new IllegalArgumentException("hedgeRatio must not be negative.");
+    }
+    this.percentile = builder.percentile;
+    this.hedgeRatio = builder.hedgeRatio;
+  }
+
+  /**
+   * Creates a new builder with the default hedging settings.
+   *
+   * @return the builder for hedging policies.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the latency percentile after which a hedge is sent.
+   *
+   * @return the latency percentile after which a hedge is sent.
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * Returns the hedges earned per request.
+   *
+   * @return the hedges earned per request.
+   */
+  public double getHedgeRatio() {
+    return hedgeRatio;
+  }
+
+  /**
+   * Builder for {@link PdfGateHedgePolicy}.
+   */
+  public static final class Builder {
+    private double percentile = 0.95;
+    private double hedgeRatio = 0.05;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the latency percentile after which a hedge is sent.
+     *
+     * @param percentile the percentile, between 0 and 1 exclusive.
+     * @return this builder.
+     */
+    public Builder percentile(double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Sets the hedges earned per request. With the default {@code 0.05}, hedging adds at most
+     * about one request for every twenty once the initial allowance is spent.
+     *
+     * @param hedgeRatio the hedges earned per request.
+     * @return this builder.
+     */
+    public Builder hedgeRatio(double hedgeRatio) {
+      this.hedgeRatio = hedgeRatio;
+      return this;
+    }
+
+    /**
+     * Builds the hedging policy.
+     *
+     * @return the hedging policy.
+     */
+    public PdfGateHedgePolicy build() {
+      return new PdfGateHedgePolicy(this);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.pdfgate;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent request latencies of one endpoint to answer percentile queries.
+ */
+final class PdfGateLatencyTracker {
+  /**
+   * Number of recent samples kept.
+   */
+  private static final int CAPACITY = 256;
+  /**
+   * Samples required before percentiles are reported.
+   */
+  private static final int MIN_SAMPLES = 20;
+
+  private final long[] samples = new long[CAPACITY];
+  private int count;
+  private int next;
+
+  /**
+   * Records the latency of a completed request.
+   *
+   * @param latencyNanos the latency in nanoseconds.
+   */
+  synchronized void record(long latencyNanos) {
+    samples[next] = latencyNanos;
+    next = (next + 1) % CAPACITY;
+    count = Math.min(CAPACITY, count + 1);
+  }
+
+  /**
+   * Returns a latency percentile over the recent samples.
+   *
+   * @param percentile the percentile, between 0 and 1.
+   * @return the latency in nanoseconds, or {@code -1} until enough samples were recorded.
+   */
+  long percentile(double percentile) {
+    long[] sorted;
+    synchronized (this) {
+      if (count < MIN_SAMPLES) {
+        return -1;
+      }
+      sorted = Arrays.copyOf(samples, count);
+    }
+    Arrays.sort(sorted);
+    return sorted[Math.min(sorted.length - 1, (int) (percentile * sorted.length))];
+  }
+}
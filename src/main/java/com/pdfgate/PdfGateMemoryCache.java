@@ -0,0 +1,450 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import okhttp3.MultipartBody;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.HashingSink;
+import okio.Okio;
+
+/**
+ * Bounded in-memory cache of file responses with W-TinyLFU admission and a byte budget.
+ *
+ * <p>New entries enter a small LRU window holding 1% of the budget. Entries leaving the window
+ * compete for a place in the main space, split into probation and protected LRU segments,
+ * against the main space's least recently used entry. The entry with the higher value stays,
+ * where value is the recent use frequency, estimated by a {@link PdfGateFrequencySketch},
+ * times the average latency of regenerating an entry from its endpoint, divided by its size.
+ * Large files that are quick to regenerate therefore give way to small, slow ones.
+ *
+ * <p>Entries live in a {@link ConcurrentHashMap}, so lookups never block. Reads are recorded
+ * in lock-free striped ring buffers and writes in a queue; both are applied to the eviction
+ * policy in batches by whichever thread acquires the policy lock. Reads dropped from a full
+ * buffer only make the frequency estimates less precise.
+ */
+final class PdfGateMemoryCache {
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_STRIPES = Integer.highestOneBit(
+      Math.min(64, Runtime.getRuntime().availableProcessors() * 2) - 1) << 1;
+  private static final int EXPECTED_ENTRY_SIZE = 64 * 1024;
+  private static final byte NONE = 0;
+  private static final byte WINDOW = 1;
+  private static final byte PROBATION = 2;
+  private static final byte PROTECTED = 3;
+
+  private final long maxBytes;
+  private final long windowMax;
+  private final long protectedMax;
+  private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+  private final ReadBuffer[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+  private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final ReentrantLock policyLock = new ReentrantLock();
+  private final Map<PdfGateEndpoint, AtomicLong> latencies =
+      new EnumMap<>(PdfGateEndpoint.class);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  // Guarded by policyLock.
+  private final PdfGateFrequencySketch sketch;
+  private final AccessOrderDeque window = new AccessOrderDeque();
+  private final AccessOrderDeque probation = new AccessOrderDeque();
+  private final AccessOrderDeque protectedSegment = new AccessOrderDeque();
+  private long windowWeight;
+  private long probationWeight;
+  private long protectedWeight;
+  private volatile long weightedSize;
+
+  PdfGateMemoryCache(long maxBytes) {
+    this.maxBytes = maxBytes;
+    this.windowMax = Math.max(1, maxBytes / 100);
+    this.protectedMax = (maxBytes - windowMax) * 4 / 5;
+    this.sketch = new PdfGateFrequencySketch(
+        (int) Math.min(Integer.MAX_VALUE, maxBytes / EXPECTED_ENTRY_SIZE));
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    for (PdfGateEndpoint endpoint : PdfGateEndpoint.values()) {
+      latencies.put(endpoint, new AtomicLong());
+    }
+  }
+
+  /**
+   * Returns the cache key of a request: a SHA-256 digest of its method, URL, credentials and
+   * body. Multipart bodies are hashed part by part, so their random boundary does not matter,
+   * and uploaded files contribute their {@link FileParam#digest()}, so a file is read at most
+   * once per {@link FileParam} rather than on every call.
+   *
+   * @return the key, or {@code null} when the body is streamed from an {@link java.io.InputStream}
+   *     or with an unknown length, which must not be read an extra time, or cannot be read.
+   */
+  static String key(Request request) {
+    Buffer fingerprint = new Buffer()
+        .writeUtf8(request.method())
+        .writeByte(' ')
+        .writeUtf8(request.url().toString())
+        .writeByte('\n')
+        .writeUtf8(String.valueOf(request.header("Authorization")))
+        .writeByte('\n');
+    RequestBody body = request.body();
+    if (body instanceof GzipRequestBody) {
+      body = ((GzipRequestBody) body).delegate();
+    }
+    try {
+      if (body instanceof MultipartBody) {
+        for (MultipartBody.Part part : ((MultipartBody) body).parts()) {
+          fingerprint.writeUtf8(String.valueOf(part.headers())).writeByte('\n');
+          if (!digest(part.body(), fingerprint)) {
+            return null;
+          }
+        }
+      } else if (body != null && !digest(body, fingerprint)) {
+        return null;
+      }
+    } catch (IOException e) {
+      return null;
+    }
+    return fingerprint.sha256().hex();
+  }
+
+  /**
+   * Appends the SHA-256 digest of a body to the fingerprint. Uploaded files use the digest
+   * cached on their {@link FileParam}; other bodies are hashed as they are written, so they are
+   * never held in memory.
+   */
+  private static boolean digest(RequestBody body, Buffer fingerprint) throws IOException {
+    if (body instanceof FileRequestBody) {
+      String digest = ((FileRequestBody) body).file().digest();
+      if (digest == null) {
+        return false;
+      }
+      fingerprint.writeUtf8(digest).writeByte('\n');
+      return true;
+    }
+    if (body.contentLength() < 0) {
+      return false;
+    }
+    HashingSink hashingSink = HashingSink.sha256(Okio.blackhole());
+    try (BufferedSink sink = Okio.buffer(hashingSink)) {
+      body.writeTo(sink);
+    }
+    fingerprint.write(hashingSink.hash()).writeByte('\n');
+    return true;
+  }
+
+  /**
+   * Returns a copy of the file cached under {@code key}, or {@code null} on a miss.
+   */
+  byte[] get(String key) {
+    Node node = data.get(key);
+    if (node == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    int stripe = (int) Thread.currentThread().getId() & (readBuffers.length - 1);
+    ReadBuffer buffer = readBuffers[stripe];
+    if (!buffer.offer(node) && policyLock.tryLock()) {
+      try {
+        drain();
+      } finally {
+        policyLock.unlock();
+      }
+    }
+    return node.value.clone();
+  }
+
+  /**
+   * Caches a copy of a file returned by {@code endpoint}, evicting entries as needed.
+   */
+  void put(String key, byte[] value, PdfGateEndpoint endpoint) {
+    if (value.length == 0 || value.length > maxBytes) {
+      return;
+    }
+    Node node = new Node(key, value.clone(), endpoint);
+    Node previous = data.put(key, node);
+    if (previous != null) {
+      previous.retired = true;
+      writeBuffer.add(() -> unlink(previous));
+    }
+    writeBuffer.add(() -> onAdd(node));
+    policyLock.lock();
+    try {
+      drain();
+    } finally {
+      policyLock.unlock();
+    }
+  }
+
+  /**
+   * Records how long regenerating a file from {@code endpoint} took, as a moving average.
+   */
+  void recordLatency(PdfGateEndpoint endpoint, long latencyNanos) {
+    AtomicLong average = latencies.get(endpoint);
+    long current;
+    long updated;
+    do {
+      current = average.get();
+      updated = current == 0 ? latencyNanos : current + (latencyNanos - current) / 8;
+    } while (!average.compareAndSet(current, updated));
+  }
+
+  /**
+   * Returns a snapshot of the cache counters.
+   */
+  PdfGateCacheMetrics metrics() {
+    return new PdfGateCacheMetrics(hits.sum(), misses.sum(), evictions.sum(), data.size(),
+        weightedSize);
+  }
+
+  private void drain() {
+    for (ReadBuffer buffer : readBuffers) {
+      buffer.drain(this);
+    }
+    Runnable task;
+    while ((task = writeBuffer.poll()) != null) {
+      task.run();
+    }
+    evict();
+    weightedSize = windowWeight + probationWeight + protectedWeight;
+  }
+
+  private void onAdd(Node node) {
+    if (node.retired) {
+      return;
+    }
+    sketch.ensureCapacity(data.size());
+    sketch.increment(node.hash);
+    window.addLast(node);
+    node.queue = WINDOW;
+    windowWeight += node.weight;
+  }
+
+  private void onAccess(Node node) {
+    sketch.increment(node.hash);
+    switch (node.queue) {
+      case WINDOW:
+        window.moveToBack(node);
+        break;
+      case PROBATION:
+        probation.remove(node);
+        probationWeight -= node.weight;
+        protectedSegment.addLast(node);
+        node.queue = PROTECTED;
+        protectedWeight += node.weight;
+        while (protectedWeight > protectedMax) {
+          Node demoted = protectedSegment.pollFirst();
+          protectedWeight -= demoted.weight;
+          probation.addLast(demoted);
+          demoted.queue = PROBATION;
+          probationWeight += demoted.weight;
+        }
+        break;
+      case PROTECTED:
+        protectedSegment.moveToBack(node);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Moves the window's overflow into probation as admission candidates, then evicts until the
+   * cache fits its budget, each candidate against the main space's least recently used entry.
+   */
+  private void evict() {
+    Node candidate = null;
+    while (windowWeight > windowMax) {
+      Node node = window.pollFirst();
+      windowWeight -= node.weight;
+      probation.addLast(node);
+      node.queue = PROBATION;
+      probationWeight += node.weight;
+      if (candidate == null) {
+        candidate = node;
+      }
+    }
+    while (windowWeight + probationWeight + protectedWeight > maxBytes) {
+      Node victim = probation.peekFirst();
+      if (victim == candidate) {
+        victim = protectedSegment.peekFirst();
+      }
+      if (candidate == null || victim == null) {
+        Node evicted = victim != null ? victim
+            : candidate != null ? candidate
+            : probation.peekFirst() != null ? probation.peekFirst()
+            : window.peekFirst();
+        if (evicted == candidate) {
+          candidate = candidate.next;
+        }
+        evictEntry(evicted);
+      } else if (value(candidate) > value(victim)) {
+        evictEntry(victim);
+      } else {
+        Node rejected = candidate;
+        candidate = candidate.next;
+        evictEntry(rejected);
+      }
+    }
+  }
+
+  private double value(Node node) {
+    long latency = Math.max(1, latencies.get(node.endpoint).get());
+    return (double) sketch.frequency(node.hash) * latency / node.weight;
+  }
+
+  private void evictEntry(Node node) {
+    unlink(node);
+    node.retired = true;
+    data.remove(node.key, node);
+    evictions.increment();
+  }
+
+  private void unlink(Node node) {
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        probationWeight -= node.weight;
+        break;
+      case PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeight -= node.weight;
+        break;
+      default:
+        break;
+    }
+    node.queue = NONE;
+  }
+
+  /**
+   * A cached file, linked into one of the policy's access-ordered segments.
+   */
+  private static final class Node {
+    final String key;
+    final int hash;
+    final byte[] value;
+    final int weight;
+    final PdfGateEndpoint endpoint;
+    volatile boolean retired;
+    // Guarded by policyLock.
+    byte queue = NONE;
+    Node prev;
+    Node next;
+
+    Node(String key, byte[] value, PdfGateEndpoint endpoint) {
+      this.key = key;
+      this.hash = key.hashCode();
+      this.value = value;
+      this.weight = value.length;
+      this.endpoint = endpoint;
+    }
+  }
+
+  /**
+   * Intrusive doubly linked list ordered from least to most recently used.
+   */
+  private static final class AccessOrderDeque {
+    private Node first;
+    private Node last;
+
+    Node peekFirst() {
+      return first;
+    }
+
+    Node pollFirst() {
+      Node node = first;
+      if (node != null) {
+        remove(node);
+      }
+      return node;
+    }
+
+    void addLast(Node node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void moveToBack(Node node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void remove(Node node) {
+      if (node.prev == null) {
+        first = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+  }
+
+  /**
+   * Lossy ring buffer of reads written without locks and drained under the policy lock.
+   */
+  private static final class ReadBuffer {
+    private final AtomicReferenceArray<Node> slots = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writes = new AtomicLong();
+    private volatile long reads;
+
+    /**
+     * Records a read, dropping it when another thread won the slot.
+     *
+     * @return {@code false} when the buffer is full and should be drained.
+     */
+    boolean offer(Node node) {
+      long tail = writes.get();
+      if (tail - reads >= READ_BUFFER_SIZE) {
+        return false;
+      }
+      if (writes.compareAndSet(tail, tail + 1)) {
+        slots.lazySet((int) tail & (READ_BUFFER_SIZE - 1), node);
+      }
+      return true;
+    }
+
+    void drain(PdfGateMemoryCache cache) {
+      long head = reads;
+      long tail = writes.get();
+      for (; head < tail; head++) {
+        int index = (int) head & (READ_BUFFER_SIZE - 1);
+        Node node = slots.get(index);
+        if (node == null) {
+          break;
+        }
+        slots.lazySet(index, null);
+        cache.onAccess(node);
+      }
+      reads = head;
+    }
+  }
+}
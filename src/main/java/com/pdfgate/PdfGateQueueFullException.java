@@ -0,0 +1,37 @@
+package com.pdfgate;
+
+import java.util.Locale;
+import okhttp3.Headers;
+
+/**
+ * Exception raised without sending a request because the endpoint's request queue is full.
+ *
+ * <p>The request never reached the API, so it is neither retried nor counted by the circuit
+ * breaker.
+ */
+public final class PdfGateQueueFullException extends PdfGateException {
+  /**
+   * Endpoint whose request queue rejected the request.
+   */
+  private final PdfGateEndpoint endpoint;
+
+  PdfGateQueueFullException(PdfGateEndpoint endpoint) {
+    super(
+        "PdfGate API request rejected: "
+            + endpoint.name().toLowerCase(Locale.ROOT) + " request queue is full.",
+        -1,
+        "",
+        new Headers.Builder().build()
+    );
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Returns the endpoint whose request queue rejected the request.
+   *
+   * @return the endpoint whose request queue rejected the request.
+   */
+  public PdfGateEndpoint getEndpoint() {
+    return endpoint;
+  }
+}
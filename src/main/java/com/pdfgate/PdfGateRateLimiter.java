@@ -0,0 +1,131 @@
+package com.pdfgate;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Headers;
+
+/**
+ * Token bucket that paces requests for one API key and endpoint.
+ *
+ * <p>The bucket lets requests through unthrottled until the API publishes its limits. Every
+ * response then updates it: {@code RateLimit-Remaining} and {@code RateLimit-Reset} (or their
+ * {@code X-RateLimit-} variants) set the refill rate so the remaining quota is spread over the
+ * rest of the window, and {@code Retry-After} pauses the bucket. Callers reserve a token and
+ * wait the returned delay; tokens may be reserved ahead, so waiting callers are served in
+ * order without polling.
+ */
+final class PdfGateRateLimiter {
+  /**
+   * Reset values above this are epoch seconds rather than seconds from now.
+   */
+  private static final long EPOCH_RESET_THRESHOLD = 1_000_000_000L;
+
+  private double permitsPerSecond = Double.POSITIVE_INFINITY;
+  private double capacity = Double.POSITIVE_INFINITY;
+  private double tokens = Double.POSITIVE_INFINITY;
+  private long lastRefillNanos = System.nanoTime();
+  private long pausedUntilNanos = lastRefillNanos;
+
+  /**
+   * Takes a token and returns how long the caller must wait before sending.
+   *
+   * @return the delay in nanoseconds, zero when the request may go now.
+   */
+  synchronized long reserve() {
+    long now = System.nanoTime();
+    refill(now);
+    long pauseNanos = Math.max(0, pausedUntilNanos - now);
+    if (Double.isInfinite(permitsPerSecond)) {
+      return pauseNanos;
+    }
+    tokens -= 1;
+    if (tokens >= 0) {
+      return pauseNanos;
+    }
+    long refillNanos = permitsPerSecond <= 0
+        ? pauseNanos
+        : (long) (-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    return Math.max(pauseNanos, refillNanos);
+  }
+
+  /**
+   * Updates the bucket from the rate-limit headers of a response.
+   *
+   * @param headers the response headers.
+   */
+  synchronized void update(Headers headers) {
+    long now = System.nanoTime();
+    refill(now);
+    Long retryAfterSeconds = parseRetryAfter(headers.get("Retry-After"));
+    if (retryAfterSeconds != null) {
+      pausedUntilNanos = Math.max(pausedUntilNanos,
+          now + TimeUnit.SECONDS.toNanos(retryAfterSeconds));
+    }
+    Long remaining = parseLong(header(headers, "RateLimit-Remaining"));
+    Long reset = parseLong(header(headers, "RateLimit-Reset"));
+    if (remaining == null || reset == null) {
+      return;
+    }
+    long resetSeconds = reset > EPOCH_RESET_THRESHOLD
+        ? reset - System.currentTimeMillis() / 1000
+        : reset;
+    resetSeconds = Math.max(1, resetSeconds);
+    if (remaining <= 0) {
+      pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.SECONDS.toNanos(resetSeconds));
+      tokens = Math.min(tokens, 0);
+      return;
+    }
+    permitsPerSecond = (double) remaining / resetSeconds;
+    capacity = remaining;
+    tokens = Math.min(tokens, remaining);
+  }
+
+  /**
+   * Returns the current refill rate, infinite until the API has published its limits.
+   */
+  synchronized double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  private void refill(long now) {
+    if (now > lastRefillNanos && !Double.isInfinite(permitsPerSecond)) {
+      double elapsedSeconds = (double) (now - lastRefillNanos) / TimeUnit.SECONDS.toNanos(1);
+      tokens = Math.min(capacity, tokens + elapsedSeconds * permitsPerSecond);
+    }
+    lastRefillNanos = now;
+  }
+
+  private static String header(Headers headers, String name) {
+    String value = headers.get(name);
+    return value != null ? value : headers.get("X-" + name);
+  }
+
+  private static Long parseLong(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses {@code Retry-After} given either as delay seconds or as an HTTP date.
+   */
+  static Long parseRetryAfter(String value) {
+    Long seconds = parseLong(value);
+    if (seconds != null || value == null) {
+      return seconds == null ? null : Math.max(0, seconds);
+    }
+    try {
+      ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      return Math.max(0, date.toEpochSecond() - System.currentTimeMillis() / 1000);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
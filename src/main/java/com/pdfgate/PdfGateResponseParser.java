@@ -1,19 +1,41 @@
 package com.pdfgate;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
 
 final class PdfGateResponseParser {
+  /**
+   * Size of the buffer used to copy response bodies into channels.
+   */
+  static final int TRANSFER_BUFFER_SIZE = 8192;
+
   private PdfGateResponseParser() {
   }
 
   static PdfGateDocument parseJson(Response response) throws IOException {
     ensureSuccess(response);
-    ResponseBody body = response.body();
-    String json = body == null ? "" : body.string();
-    return PdfGateJson.gson().fromJson(json, PdfGateDocument.class);
+    return readJson(response, PdfGateDocument.class);
   }
 
   /**
@@ -21,9 +43,29 @@ final class PdfGateResponseParser {
    */
   static JsonObject parseJsonObject(Response response) throws IOException {
     ensureSuccess(response);
+    return readJson(response, JsonObject.class);
+  }
+
+  /**
+   * Decodes a JSON body straight from the response stream, without first reading it into a
+   * {@link String}. An empty body decodes to {@code null}.
+   */
+  private static <T> T readJson(Response response, Class<T> type) throws IOException {
     ResponseBody body = response.body();
-    String json = body == null ? "" : body.string();
-    return PdfGateJson.gson().fromJson(json, JsonObject.class);
+    if (body == null) {
+      return null;
+    }
+    Gson gson = PdfGateJson.gson();
+    try (JsonReader reader = gson.newJsonReader(body.charStream())) {
+      return gson.fromJson(reader, type);
+    } catch (JsonParseException e) {
+      // Gson reports transport failures while reading as parse errors; surface them as I/O.
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException && !(cause instanceof MalformedJsonException)) {
+        throw (IOException) cause;
+      }
+      throw e;
+    }
   }
 
   static byte[] parseBytes(Response response) throws IOException {
@@ -32,6 +74,97 @@ final class PdfGateResponseParser {
     return body == null ? new byte[0] : body.bytes();
   }
 
+  /**
+   * Streams a successful response body to a file with constant memory. The body is written to
+   * a temporary file next to the target, which then replaces the target in a single move, so a
+   * failed transfer leaves an existing file untouched. A new file gets the default permissions,
+   * and a replaced one keeps its POSIX permissions.
+   *
+   * @return the number of bytes written.
+   */
+  static long transferTo(Response response, Path target) throws IOException {
+    ensureSuccess(response);
+    ResponseBody body = response.body();
+    Path directory = target.toAbsolutePath().getParent();
+    Path temp = createTempFile(directory);
+    try {
+      long written;
+      try (BufferedSource source = body == null ? new Buffer() : body.source();
+           Sink sink = Okio.sink(temp)) {
+        written = source.readAll(sink);
+      }
+      PosixFileAttributeView targetView =
+          Files.getFileAttributeView(target, PosixFileAttributeView.class);
+      if (targetView != null && Files.exists(target)) {
+        Files.setPosixFilePermissions(temp, targetView.readAttributes().permissions());
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      return written;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Creates an empty file with a random name in {@code directory}. Unlike
+   * {@link Files#createTempFile(Path, String, String)}, which restricts the file to its owner,
+   * the file gets the same permissions as any new file, as it becomes the download target.
+   */
+  private static Path createTempFile(Path directory) throws IOException {
+    while (true) {
+      Path temp = directory.resolve(
+          "pdfgate" + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        Files.newByteChannel(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+            .close();
+        return temp;
+      } catch (FileAlreadyExistsException e) {
+        // Taken by another download; draw another name.
+      }
+    }
+  }
+
+  /**
+   * Streams a successful response body to a channel with constant memory. The channel is
+   * left open.
+   *
+   * @return the number of bytes written.
+   */
+  static long transferTo(Response response, WritableByteChannel target) throws IOException {
+    ensureSuccess(response);
+    ResponseBody body = response.body();
+    if (body == null) {
+      return 0;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+    long written = 0;
+    try (BufferedSource source = body.source()) {
+      while (source.read(buffer) != -1) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          written += target.write(buffer);
+        }
+        buffer.clear();
+      }
+    }
+    return written;
+  }
+
+  /**
+   * Returns a stream over a successful response body. Closing the stream releases the
+   * connection; an error response is consumed and closed before throwing.
+   */
+  static InputStream openStream(Response response) throws IOException {
+    ensureSuccess(response);
+    ResponseBody body = response.body();
+    return body == null ? InputStream.nullInputStream() : body.byteStream();
+  }
+
   static void ensureSuccess(Response response) throws IOException {
     if (!response.isSuccessful()) {
       throw PdfGateException.fromResponse(response);
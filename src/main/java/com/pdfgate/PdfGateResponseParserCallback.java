@@ -26,7 +26,8 @@ public abstract class PdfGateResponseParserCallback<T> implements Callback {
 
   @Override
   public void onFailure(@NotNull Call call, @NotNull IOException e) {
-    callback.onFailure(call, PdfGateException.fromException(e));
+    callback.onFailure(call,
+        e instanceof PdfGateException ? (PdfGateException) e : PdfGateException.fromException(e));
   }
 
   @Override
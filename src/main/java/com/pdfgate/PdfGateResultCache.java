@@ -0,0 +1,367 @@
+package com.pdfgate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import okhttp3.Request;
+import okio.Buffer;
+import okio.ByteString;
+
+/**
+ * Size-bounded directory of generated PDFs keyed by a canonical hash of their parameters.
+ *
+ * <p>Each PDF is stored in its own file named after its key. A fixed-size index file, mapped
+ * into memory, holds one 56-byte record per slot: the key, the size, when the PDF was stored
+ * and when it was last read. Recording a read is a single write to the mapping. Entries older
+ * than the time to live are dropped, and when the cache runs out of slots or bytes the least
+ * recently read entries are evicted.
+ *
+ * <p>A directory is opened once per JVM and shared by every client configured with it; clients
+ * asking for different limits on an open directory are rejected rather than silently given
+ * the first client's. It must not be shared between processes. Failures to store a
+ * PDF are ignored, as the request itself succeeded; unreadable entries count as misses.
+ */
+final class PdfGateResultCache {
+  private static final int MAGIC = 0x50474352;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 16;
+  private static final int KEY_SIZE = 32;
+  private static final int SIZE_OFFSET = KEY_SIZE;
+  private static final int STORED_AT_OFFSET = SIZE_OFFSET + Long.BYTES;
+  private static final int ACCESSED_AT_OFFSET = STORED_AT_OFFSET + Long.BYTES;
+  private static final int RECORD_SIZE = ACCESSED_AT_OFFSET + Long.BYTES;
+  private static final String INDEX_FILE = "index";
+  private static final String DATA_SUFFIX = ".pdf";
+  private static final String TEMP_PREFIX = "pdfgate";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final ConcurrentMap<Path, PdfGateResultCache> OPEN = new ConcurrentHashMap<>();
+
+  private final Path directory;
+  private final long maxBytes;
+  private final long ttlMillis;
+  private final int capacity;
+  private final MappedByteBuffer index;
+  private final Map<String, Integer> slots = new HashMap<>();
+  private final Deque<Integer> freeSlots = new ArrayDeque<>();
+  private long totalBytes;
+
+  private PdfGateResultCache(Path directory, long maxBytes, long ttlMillis, int capacity)
+      throws IOException {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.ttlMillis = ttlMillis;
+    this.capacity = capacity;
+    Files.createDirectories(directory);
+    long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    try (FileChannel channel = FileChannel.open(directory.resolve(INDEX_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (channel.size() != length) {
+        channel.truncate(0);
+      }
+      this.index = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+    if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION || index.getInt(8) != capacity) {
+      for (int offset = 0; offset < length; offset += Long.BYTES) {
+        index.putLong(offset, 0);
+      }
+      index.putInt(0, MAGIC);
+      index.putInt(4, VERSION);
+      index.putInt(8, capacity);
+    }
+    load();
+  }
+
+  /**
+   * Returns the cache for the configured directory, opening it on first use.
+   *
+   * @throws UncheckedIOException when the directory or its index cannot be opened.
+   * @throws IllegalArgumentException when the directory is already open with different limits.
+   */
+  static PdfGateResultCache open(PdfGateConfig config) {
+    Path directory = config.getResultCacheDirectory().toAbsolutePath().normalize();
+    long maxBytes = config.getResultCacheMaxBytes();
+    long ttlMillis = config.getResultCacheTtl().toMillis();
+    int capacity = config.getResultCacheMaxEntries();
+    PdfGateResultCache cache = OPEN.computeIfAbsent(directory, path -> {
+      try {
+        return new PdfGateResultCache(path, maxBytes, ttlMillis, capacity);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    if (cache.maxBytes != maxBytes || cache.ttlMillis != ttlMillis
+        || cache.capacity != capacity) {
+      throw new IllegalArgumentException("resultCacheDirectory " + directory
+          + " is already open with different resultCacheMaxBytes, resultCacheMaxEntries or "
+          + "resultCacheTtl.");
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the cache key for generating a PDF from {@code params} with {@code request}: a
+   * SHA-256 digest of the URL, the credentials and the parameters serialized as JSON with
+   * object keys sorted, so maps built in a different order produce the same key. Clients with
+   * different API keys share the directory but never each other's PDFs.
+   *
+   * @return the key, or {@code null} when the HTML is streamed and cannot be hashed without
+   *     reading it an extra time.
+   */
+  static String key(Request request, GeneratePdfParams params) {
+    if (params.getHtmlSource() != null) {
+      return null;
+    }
+    JsonElement canonical = canonicalize(PdfGateJson.gson().toJsonTree(params));
+    return new Buffer()
+        .writeUtf8(request.url().toString())
+        .writeByte('\n')
+        .writeUtf8(String.valueOf(request.header("Authorization")))
+        .writeByte('\n')
+        .writeUtf8(canonical.toString())
+        .sha256()
+        .hex();
+  }
+
+  /**
+   * Returns the PDF stored under {@code key}, or {@code null} when there is no live entry.
+   */
+  byte[] get(String key) {
+    Path file;
+    synchronized (this) {
+      Integer slot = slots.get(key);
+      if (slot == null) {
+        return null;
+      }
+      long now = System.currentTimeMillis();
+      if (isExpired(slot, now)) {
+        remove(key, slot);
+        return null;
+      }
+      index.putLong(offset(slot) + ACCESSED_AT_OFFSET, now);
+      file = dataFile(key);
+    }
+    try {
+      return Files.readAllBytes(file);
+    } catch (IOException e) {
+      synchronized (this) {
+        Integer slot = slots.get(key);
+        if (slot != null && e instanceof NoSuchFileException) {
+          remove(key, slot);
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Stores a PDF under {@code key}, evicting entries as needed to stay within the limits.
+   */
+  void put(String key, byte[] pdf) {
+    if (pdf.length == 0 || pdf.length > maxBytes) {
+      return;
+    }
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+      Files.write(temp, pdf);
+      synchronized (this) {
+        Files.move(temp, dataFile(key), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        long now = System.currentTimeMillis();
+        Integer slot = slots.get(key);
+        if (slot == null) {
+          purgeExpired(now);
+          if (freeSlots.isEmpty()) {
+            evictLeastRecentlyRead(null);
+          }
+          slot = freeSlots.pop();
+        } else {
+          totalBytes -= index.getLong(offset(slot) + SIZE_OFFSET);
+        }
+        writeRecord(slot, key, pdf.length, now);
+        slots.put(key, slot);
+        totalBytes += pdf.length;
+        while (totalBytes > maxBytes && slots.size() > 1) {
+          evictLeastRecentlyRead(slot);
+        }
+      }
+    } catch (IOException e) {
+      // The PDF was generated; failing to cache it only costs a later request.
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // Best effort cleanup.
+        }
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the in-memory view from the index, dropping records whose file is missing or
+   * expired and files the index does not reference. Only files named the way this cache names
+   * them are removed, so other files in the directory are left alone.
+   */
+  private void load() throws IOException {
+    long now = System.currentTimeMillis();
+    for (int slot = capacity - 1; slot >= 0; slot--) {
+      int offset = offset(slot);
+      long storedAt = index.getLong(offset + STORED_AT_OFFSET);
+      if (storedAt == 0) {
+        freeSlots.push(slot);
+        continue;
+      }
+      byte[] digest = new byte[KEY_SIZE];
+      index.duplicate().position(offset).get(digest);
+      String key = ByteString.of(digest).hex();
+      long size = index.getLong(offset + SIZE_OFFSET);
+      Path file = dataFile(key);
+      if (isExpired(slot, now) || slots.containsKey(key)
+          || !Files.isRegularFile(file) || Files.size(file) != size) {
+        clearRecord(slot);
+        freeSlots.push(slot);
+        if (!slots.containsKey(key)) {
+          Files.deleteIfExists(file);
+        }
+        continue;
+      }
+      slots.put(key, slot);
+      totalBytes += size;
+    }
+    List<Path> orphans = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (isTempFile(name) || isDataFile(name) && !slots.containsKey(
+            name.substring(0, name.length() - DATA_SUFFIX.length()))) {
+          orphans.add(file);
+        }
+      }
+    }
+    for (Path orphan : orphans) {
+      Files.deleteIfExists(orphan);
+    }
+  }
+
+  private void purgeExpired(long now) {
+    for (Map.Entry<String, Integer> entry : new ArrayList<>(slots.entrySet())) {
+      if (isExpired(entry.getValue(), now)) {
+        remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Evicts the entry read least recently, other than {@code keep}.
+   */
+  private void evictLeastRecentlyRead(Integer keep) {
+    String victim = null;
+    long oldest = Long.MAX_VALUE;
+    for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+      int slot = entry.getValue();
+      long accessedAt = index.getLong(offset(slot) + ACCESSED_AT_OFFSET);
+      if (!entry.getValue().equals(keep) && accessedAt < oldest) {
+        oldest = accessedAt;
+        victim = entry.getKey();
+      }
+    }
+    if (victim != null) {
+      remove(victim, slots.get(victim));
+    }
+  }
+
+  private void remove(String key, int slot) {
+    slots.remove(key);
+    totalBytes -= index.getLong(offset(slot) + SIZE_OFFSET);
+    clearRecord(slot);
+    freeSlots.push(slot);
+    try {
+      Files.deleteIfExists(dataFile(key));
+    } catch (IOException ignored) {
+      // The file is overwritten if the key is stored again.
+    }
+  }
+
+  private boolean isExpired(int slot, long now) {
+    return now - index.getLong(offset(slot) + STORED_AT_OFFSET) >= ttlMillis;
+  }
+
+  private void writeRecord(int slot, String key, long size, long now) {
+    int offset = offset(slot);
+    index.duplicate().position(offset).put(ByteString.decodeHex(key).toByteArray());
+    index.putLong(offset + SIZE_OFFSET, size);
+    index.putLong(offset + STORED_AT_OFFSET, now);
+    index.putLong(offset + ACCESSED_AT_OFFSET, now);
+  }
+
+  private void clearRecord(int slot) {
+    index.putLong(offset(slot) + STORED_AT_OFFSET, 0);
+  }
+
+  /**
+   * Returns whether a file name is a 64 hex digit key followed by the data suffix.
+   */
+  private static boolean isDataFile(String name) {
+    if (name.length() != KEY_SIZE * 2 + DATA_SUFFIX.length() || !name.endsWith(DATA_SUFFIX)) {
+      return false;
+    }
+    for (int i = 0; i < KEY_SIZE * 2; i++) {
+      char c = name.charAt(i);
+      if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isTempFile(String name) {
+    return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+  }
+
+  private Path dataFile(String key) {
+    return directory.resolve(key + DATA_SUFFIX);
+  }
+
+  private static int offset(int slot) {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+
+  private static JsonElement canonicalize(JsonElement element) {
+    if (element.isJsonObject()) {
+      JsonObject object = element.getAsJsonObject();
+      JsonObject sorted = new JsonObject();
+      for (String name : new TreeSet<>(object.keySet())) {
+        sorted.add(name, canonicalize(object.get(name)));
+      }
+      return sorted;
+    }
+    if (element.isJsonArray()) {
+      JsonArray array = new JsonArray();
+      for (JsonElement item : element.getAsJsonArray()) {
+        array.add(canonicalize(item));
+      }
+      return array;
+    }
+    return element;
+  }
+}
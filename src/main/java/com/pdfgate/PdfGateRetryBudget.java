@@ -0,0 +1,42 @@
+package com.pdfgate;
+
+/**
+ * Caps extra attempts, retries or hedges, for one endpoint at a fraction of its requests.
+ *
+ * <p>Every request deposits {@code retryRatio} into the budget and every extra attempt
+ * withdraws one. The balance is capped, so a short allowance is available after a quiet period
+ * but a long outage cannot be amplified beyond the ratio.
+ */
+final class PdfGateRetryBudget {
+  /**
+   * Maximum extra attempts that can be saved up.
+   */
+  private static final double MAX_BALANCE = 10;
+
+  private final double retryRatio;
+  private double balance = MAX_BALANCE;
+
+  PdfGateRetryBudget(double retryRatio) {
+    this.retryRatio = retryRatio;
+  }
+
+  /**
+   * Records a new request, earning part of an extra attempt.
+   */
+  synchronized void recordRequest() {
+    balance = Math.min(MAX_BALANCE, balance + retryRatio);
+  }
+
+  /**
+   * Withdraws one extra attempt.
+   *
+   * @return whether the budget allowed the attempt.
+   */
+  synchronized boolean tryRetry() {
+    if (balance < 1) {
+      return false;
+    }
+    balance -= 1;
+    return true;
+  }
+}
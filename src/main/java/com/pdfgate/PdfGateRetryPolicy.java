@@ -0,0 +1,267 @@
+package com.pdfgate;
+
+import java.time.Duration;
+
+/**
+ * Retry policy for transient failures: I/O errors and {@code 408}, {@code 429}, {@code 502},
+ * {@code 503} and {@code 504} responses.
+ *
+ * <p>Delays use decorrelated jitter between {@code initialBackoff} and {@code maxBackoff}, and
+ * never undercut a {@code Retry-After} header. Retries are also limited by a per-endpoint budget
+ * that earns {@code retryRatio} retries per request, so retries cannot multiply the load on an
+ * API that is already failing, and by {@code maxElapsed}: no retry starts once that much time
+ * has passed since the first attempt.
+ *
+ * <p>Timeouts of POST requests are not retried unless {@code retryNonIdempotentTimeouts} is
+ * set: the timed-out attempt may still be running on the server, and a retry is only safe if
+ * the API honors the request's {@code Idempotency-Key}.
+ */
+public final class PdfGateRetryPolicy {
+  private static final PdfGateRetryPolicy NONE = builder().maxAttempts(1).build();
+
+  /**
+   * Total attempts per request, including the first one.
+   */
+  private final int maxAttempts;
+  /**
+   * Lower bound of the delay before a retry.
+   */
+  private final Duration initialBackoff;
+  /**
+   * Upper bound of the jittered delay before a retry.
+   */
+  private final Duration maxBackoff;
+  /**
+   * Longest {@code Retry-After} the client waits for; longer waits fail the request instead.
+   */
+  private final Duration maxRetryAfter;
+  /**
+   * Retries earned per request by the endpoint's retry budget.
+   */
+  private final double retryRatio;
+  /**
+   * Time since the first attempt after which no retry is started.
+   */
+  private final Duration maxElapsed;
+  /**
+   * Whether timeouts of requests other than GET are retried.
+   */
+  private final boolean retryNonIdempotentTimeouts;
+
+  private PdfGateRetryPolicy(Builder builder) {
+    if (builder.maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be at least 1.");
+    }
+    if (builder.retryRatio < 0 || Double.isNaN(builder.retryRatio)) {
+      throw new IllegalArgumentException("retryRatio must not be negative.");
+    }
+    this.maxAttempts = builder.maxAttempts;
+    this.initialBackoff = requireNonNegative(builder.initialBackoff, "initialBackoff");
+    this.maxBackoff = requireNonNegative(builder.maxBackoff, "maxBackoff");
+    if (maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("maxBackoff must not be less than initialBackoff.");
+    }
+    this.maxRetryAfter = requireNonNegative(builder.maxRetryAfter, "maxRetryAfter");
+    this.retryRatio = builder.retryRatio;
+    this.maxElapsed = requireNonNegative(builder.maxElapsed, "maxElapsed");
+    this.retryNonIdempotentTimeouts = builder.retryNonIdempotentTimeouts;
+  }
+
+  private static Duration requireNonNegative(Duration value, String label) {
+    if (value == null) {
+      throw new IllegalArgumentException(label + " must be provided.");
+    }
+    if (value.isNegative()) {
+      throw new IllegalArgumentException(label + " must not be negative.");
+    }
+    return value;
+  }
+
+  /**
+   * Returns a policy that never retries.
+   *
+   * @return a policy that never retries.
+   */
+  public static PdfGateRetryPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * Creates a new builder with the default retry settings.
+   *
+   * @return the builder for retry policies.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the total attempts per request, including the first one.
+   *
+   * @return the total attempts per request, including the first one.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Returns the lower bound of the delay before a retry.
+   *
+   * @return the lower bound of the delay before a retry.
+   */
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * Returns the upper bound of the jittered delay before a retry.
+   *
+   * @return the upper bound of the jittered delay before a retry.
+   */
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * Returns the longest {@code Retry-After} the client waits for.
+   *
+   * @return the longest {@code Retry-After} the client waits for.
+   */
+  public Duration getMaxRetryAfter() {
+    return maxRetryAfter;
+  }
+
+  /**
+   * Returns the retries earned per request by the endpoint's retry budget.
+   *
+   * @return the retries earned per request by the endpoint's retry budget.
+   */
+  public double getRetryRatio() {
+    return retryRatio;
+  }
+
+  /**
+   * Returns the time since the first attempt after which no retry is started.
+   *
+   * @return the time since the first attempt after which no retry is started.
+   */
+  public Duration getMaxElapsed() {
+    return maxElapsed;
+  }
+
+  /**
+   * Returns whether timeouts of requests other than GET are retried.
+   *
+   * @return whether timeouts of requests other than GET are retried.
+   */
+  public boolean isRetryNonIdempotentTimeouts() {
+    return retryNonIdempotentTimeouts;
+  }
+
+  /**
+   * Builder for {@link PdfGateRetryPolicy}.
+   */
+  public static final class Builder {
+    private int maxAttempts = 3;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(10);
+    private Duration maxRetryAfter = Duration.ofSeconds(60);
+    private double retryRatio = 0.1;
+    private Duration maxElapsed = Duration.ofMinutes(2);
+    private boolean retryNonIdempotentTimeouts;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the total attempts per request, including the first one.
+     *
+     * @param maxAttempts the total attempts, at least 1.
+     * @return this builder.
+     */
+    public Builder maxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Sets the lower bound of the delay before a retry.
+     *
+     * @param initialBackoff the lower bound of the delay before a retry.
+     * @return this builder.
+     */
+    public Builder initialBackoff(Duration initialBackoff) {
+      this.initialBackoff = initialBackoff;
+      return this;
+    }
+
+    /**
+     * Sets the upper bound of the jittered delay before a retry.
+     *
+     * @param maxBackoff the upper bound of the jittered delay before a retry.
+     * @return this builder.
+     */
+    public Builder maxBackoff(Duration maxBackoff) {
+      this.maxBackoff = maxBackoff;
+      return this;
+    }
+
+    /**
+     * Sets the longest {@code Retry-After} the client waits for before giving up.
+     *
+     * @param maxRetryAfter the longest {@code Retry-After} to honor.
+     * @return this builder.
+     */
+    public Builder maxRetryAfter(Duration maxRetryAfter) {
+      this.maxRetryAfter = maxRetryAfter;
+      return this;
+    }
+
+    /**
+     * Sets the retries earned per request. With the default {@code 0.1}, a sustained failure
+     * adds at most one retry for every ten requests once the initial allowance is spent.
+     *
+     * @param retryRatio the retries earned per request.
+     * @return this builder.
+     */
+    public Builder retryRatio(double retryRatio) {
+      this.retryRatio = retryRatio;
+      return this;
+    }
+
+    /**
+     * Sets how long after the first attempt retries may still start. A retry whose delay would
+     * end later is not made, so a request takes at most this long plus one attempt's timeout.
+     * Defaults to 2 minutes.
+     *
+     * @param maxElapsed the time after which no retry starts.
+     * @return this builder.
+     */
+    public Builder maxElapsed(Duration maxElapsed) {
+      this.maxElapsed = maxElapsed;
+      return this;
+    }
+
+    /**
+     * Sets whether timeouts of POST requests are retried. Enable it only if the API honors the
+     * {@code Idempotency-Key} header, as the timed-out attempt may still complete on the
+     * server. Disabled by default; timeouts of GET requests are always retried.
+     *
+     * @param retryNonIdempotentTimeouts whether to retry timeouts of requests other than GET.
+     * @return this builder.
+     */
+    public Builder retryNonIdempotentTimeouts(boolean retryNonIdempotentTimeouts) {
+      this.retryNonIdempotentTimeouts = retryNonIdempotentTimeouts;
+      return this;
+    }
+
+    /**
+     * Builds the retry policy.
+     *
+     * @return the retry policy.
+     */
+    public PdfGateRetryPolicy build() {
+      return new PdfGateRetryPolicy(this);
+    }
+  }
+}
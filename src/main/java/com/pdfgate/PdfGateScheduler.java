@@ -0,0 +1,34 @@
+package com.pdfgate;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Shared timer for work that must start later, such as dispatching a rate-limited request.
+ *
+ * <p>Scheduled tasks only hand work to a dispatcher, so a single daemon thread serves every
+ * client.
+ */
+final class PdfGateScheduler {
+  private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+  private PdfGateScheduler() {
+  }
+
+  /**
+   * Returns the shared scheduler.
+   */
+  static ScheduledExecutorService get() {
+    return SCHEDULER;
+  }
+
+  private static ScheduledExecutorService createScheduler() {
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "PdfGate Scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.setRemoveOnCancelPolicy(true);
+    return scheduler;
+  }
+}
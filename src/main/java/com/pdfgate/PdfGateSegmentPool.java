@@ -0,0 +1,52 @@
+package com.pdfgate;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool of fixed-size segments backing {@link PdfGateBytes}.
+ *
+ * <p>Segments are small enough to never be humongous allocations on G1, and released results
+ * return them here so that steady-state downloads allocate nothing. The pool retains at most
+ * {@link #MAX_POOLED_SEGMENTS} segments; extra segments are left to the garbage collector.
+ */
+final class PdfGateSegmentPool {
+  /**
+   * Size of each segment in bytes.
+   */
+  static final int SEGMENT_SIZE = 64 * 1024;
+
+  /**
+   * Maximum number of idle segments retained, 16 MiB in total.
+   */
+  static final int MAX_POOLED_SEGMENTS = 256;
+
+  private static final ConcurrentLinkedQueue<byte[]> SEGMENTS = new ConcurrentLinkedQueue<>();
+  private static final AtomicInteger POOLED = new AtomicInteger();
+
+  private PdfGateSegmentPool() {
+  }
+
+  /**
+   * Takes an idle segment, or allocates one when the pool is empty.
+   */
+  static byte[] take() {
+    byte[] segment = SEGMENTS.poll();
+    if (segment == null) {
+      return new byte[SEGMENT_SIZE];
+    }
+    POOLED.decrementAndGet();
+    return segment;
+  }
+
+  /**
+   * Returns a segment to the pool unless it is full.
+   */
+  static void recycle(byte[] segment) {
+    if (POOLED.incrementAndGet() > MAX_POOLED_SEGMENTS) {
+      POOLED.decrementAndGet();
+      return;
+    }
+    SEGMENTS.offer(segment);
+  }
+}
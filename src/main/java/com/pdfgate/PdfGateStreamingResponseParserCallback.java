@@ -0,0 +1,178 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Publishes file responses to a {@link Flow.Subscriber} in chunks, as they arrive.
+ *
+ * <p>Unlike {@link PdfGateResponseParserCallback}, the response is not closed when
+ * {@link #onResponse(Call, Response)} returns: chunks are read only while the subscriber has
+ * outstanding demand, on whichever thread signals it, and the response is closed once the body
+ * is exhausted, fails or the subscription is cancelled.
+ */
+final class PdfGateStreamingResponseParserCallback implements Callback {
+  private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+  PdfGateStreamingResponseParserCallback(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    this.subscriber = subscriber;
+  }
+
+  @Override
+  public void onFailure(@NotNull Call call, @NotNull IOException e) {
+    fail(e);
+  }
+
+  @Override
+  public void onResponse(@NotNull Call call, @NotNull Response response) {
+    BufferedSource source;
+    try {
+      PdfGateResponseParser.ensureSuccess(response);
+      ResponseBody body = response.body();
+      source = body == null ? null : body.source();
+    } catch (IOException e) {
+      response.close();
+      fail(e);
+      return;
+    }
+    BodySubscription subscription = new BodySubscription(call, response, source);
+    subscriber.onSubscribe(subscription);
+    subscription.drain();
+  }
+
+  private void fail(IOException e) {
+    subscriber.onSubscribe(EmptySubscription.INSTANCE);
+    subscriber.onError(
+        e instanceof PdfGateException ? (PdfGateException) e : PdfGateException.fromException(e));
+  }
+
+  /**
+   * Subscription handed out before an error, which has nothing left to deliver.
+   */
+  private enum EmptySubscription implements Flow.Subscription {
+    INSTANCE;
+
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public void cancel() {
+    }
+  }
+
+  /**
+   * Reads the body one chunk per unit of demand. Only one thread drains at a time; signals
+   * that arrive while another thread is draining are picked up by that thread.
+   */
+  private final class BodySubscription implements Flow.Subscription {
+    private final Call call;
+    private final Response response;
+    private final BufferedSource source;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+    private boolean done;
+
+    BodySubscription(Call call, Response response, BufferedSource source) {
+      this.call = call;
+      this.response = response;
+      this.source = source;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("n must be positive.");
+      } else {
+        demand.getAndUpdate(current -> {
+          long next = current + n;
+          return next < 0 ? Long.MAX_VALUE : next;
+        });
+      }
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      call.cancel();
+      drain();
+    }
+
+    void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        drainLoop();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void drainLoop() {
+      while (!done) {
+        if (cancelled) {
+          finish();
+          return;
+        }
+        IllegalArgumentException invalid = invalidRequest;
+        if (invalid != null) {
+          finish();
+          subscriber.onError(invalid);
+          return;
+        }
+        if (demand.get() == 0) {
+          return;
+        }
+        ByteBuffer chunk;
+        try {
+          chunk = readChunk();
+        } catch (IOException e) {
+          finish();
+          if (!cancelled) {
+            subscriber.onError(PdfGateException.fromException(e));
+          }
+          return;
+        }
+        if (chunk == null) {
+          finish();
+          subscriber.onComplete();
+          return;
+        }
+        demand.decrementAndGet();
+        try {
+          subscriber.onNext(chunk);
+        } catch (RuntimeException e) {
+          finish();
+          throw e;
+        }
+      }
+    }
+
+    private ByteBuffer readChunk() throws IOException {
+      if (source == null) {
+        return null;
+      }
+      byte[] bytes = new byte[PdfGateResponseParser.TRANSFER_BUFFER_SIZE];
+      int read = source.read(bytes);
+      return read == -1 ? null : ByteBuffer.wrap(bytes, 0, read);
+    }
+
+    private void finish() {
+      done = true;
+      response.close();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.pdfgate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that run asynchronous requests.
+ *
+ * <p>This is the Java 11 implementation. The multi-release JAR replaces it on Java 21 and newer
+ * with one that runs tasks on virtual threads.
+ */
+final class PdfGateThreads {
+  private PdfGateThreads() {
+  }
+
+  /**
+   * Creates an executor that starts one thread per task.
+   *
+   * <p>Virtual threads require Java 21, so this runtime falls back to a cached pool of platform
+   * threads, matching OkHttp's default dispatcher executor.
+   */
+  static ExecutorService newVirtualThreadExecutor(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(false);
+      return thread;
+    };
+    return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), threadFactory);
+  }
+}
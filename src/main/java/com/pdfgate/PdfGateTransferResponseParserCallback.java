@@ -0,0 +1,32 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Response;
+
+/**
+ * Streams file responses to a target, such as a file or a spill-to-disk result, and reports
+ * the outcome of the transfer.
+ *
+ * @param <T> the transfer outcome.
+ */
+final class PdfGateTransferResponseParserCallback<T> extends PdfGateResponseParserCallback<T> {
+  private final Transfer<T> transfer;
+
+  /**
+   * Reads a response body into its target.
+   */
+  @FunctionalInterface
+  interface Transfer<T> {
+    T transfer(Response response) throws IOException;
+  }
+
+  PdfGateTransferResponseParserCallback(PdfGateCallback<T> callback, Transfer<T> transfer) {
+    this.callback = callback;
+    this.transfer = transfer;
+  }
+
+  @Override
+  public T parseResponse(Response response) throws IOException {
+    return transfer.transfer(response);
+  }
+}
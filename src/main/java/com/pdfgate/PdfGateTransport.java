@@ -0,0 +1,21 @@
+package com.pdfgate;
+
+import okhttp3.Call;
+import okhttp3.Request;
+
+/**
+ * Creates the calls that carry PdfGate requests over HTTP.
+ *
+ * <p>Calls are exposed as OkHttp {@link Call}s regardless of the underlying HTTP stack, so the
+ * public API and the response parsers do not depend on the selected transport.
+ */
+interface PdfGateTransport {
+  /**
+   * Creates a call for a request to an endpoint, applying the endpoint's timeout.
+   *
+   * @param endpoint the endpoint the request targets.
+   * @param request the request to send.
+   * @return a call that has not been executed yet.
+   */
+  Call newCall(PdfGateEndpoint endpoint, Request request);
+}
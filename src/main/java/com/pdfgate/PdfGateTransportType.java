@@ -0,0 +1,16 @@
+package com.pdfgate;
+
+/**
+ * HTTP stacks the client can use to send requests.
+ */
+public enum PdfGateTransportType {
+  /**
+   * OkHttp, with one dispatcher thread per in-flight asynchronous request.
+   */
+  OKHTTP,
+  /**
+   * The JDK {@code java.net.http.HttpClient}, using non-blocking I/O and HTTP/2 multiplexing so
+   * asynchronous requests do not hold a thread while waiting for the response.
+   */
+  JDK_HTTP_CLIENT
+}
@@ -0,0 +1,105 @@
+package com.pdfgate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the content digest of uploaded files to the PDFGate document that stores them, so later
+ * operations on the same bytes can reference the document instead of uploading it again.
+ *
+ * <p>Lookups for files that were never uploaded, the common case, are answered by a Bloom
+ * filter without touching the map. Entries are dropped shortly before the document expires.
+ * When the cache is full, expired entries are purged first and then arbitrary ones, and the
+ * filter is rebuilt so removed digests stop matching.
+ */
+final class PdfGateUploadCache {
+  /**
+   * How long before a document's expiry it stops being reused, to cover the request's time in
+   * flight.
+   */
+  private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(1);
+
+  private final int maxEntries;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private volatile PdfGateBloomFilter filter;
+
+  PdfGateUploadCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.filter = new PdfGateBloomFilter(maxEntries);
+  }
+
+  /**
+   * Returns the ID of a live document holding the file with this digest, or {@code null}.
+   */
+  String lookup(String digest) {
+    if (!filter.mightContain(digest)) {
+      return null;
+    }
+    Entry entry = entries.get(digest);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.isExpired(Instant.now())) {
+      entries.remove(digest, entry);
+      return null;
+    }
+    return entry.documentId;
+  }
+
+  /**
+   * Records the document that stores the file with this digest.
+   *
+   * @param expiresAt when the document expires, or {@code null} when it does not.
+   */
+  synchronized void record(String digest, String documentId, Instant expiresAt) {
+    Entry entry = new Entry(documentId, expiresAt);
+    Instant now = Instant.now();
+    if (entry.isExpired(now)) {
+      return;
+    }
+    if (!entries.containsKey(digest) && entries.size() >= maxEntries) {
+      evict(now);
+    }
+    entries.put(digest, entry);
+    filter.add(digest);
+  }
+
+  /**
+   * Forgets a digest whose document turned out to be gone.
+   */
+  void invalidate(String digest) {
+    entries.remove(digest);
+  }
+
+  private void evict(Instant now) {
+    entries.values().removeIf(entry -> entry.isExpired(now));
+    Iterator<String> digests = entries.keySet().iterator();
+    while (entries.size() >= maxEntries && digests.hasNext()) {
+      digests.next();
+      digests.remove();
+    }
+    PdfGateBloomFilter rebuilt = new PdfGateBloomFilter(maxEntries);
+    entries.keySet().forEach(rebuilt::add);
+    filter = rebuilt;
+  }
+
+  /**
+   * A stored document and its expiry.
+   */
+  private static final class Entry {
+    private final String documentId;
+    private final Instant expiresAt;
+
+    Entry(String documentId, Instant expiresAt) {
+      this.documentId = documentId;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(Instant now) {
+      return expiresAt != null && !now.isBefore(expiresAt.minus(EXPIRY_MARGIN));
+    }
+  }
+}
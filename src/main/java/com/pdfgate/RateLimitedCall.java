@@ -0,0 +1,131 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that waits for a {@link PdfGateRateLimiter} token before dispatching and feeds the
+ * response headers back into the limiter.
+ *
+ * <p>Synchronous calls block the caller for the delay; asynchronous calls are dispatched from
+ * the shared scheduler once the delay has passed. Either wait ends early on {@link #cancel()}.
+ */
+final class RateLimitedCall extends ForwardingCall {
+  private final PdfGateRateLimiter rateLimiter;
+  private final CountDownLatch canceled = new CountDownLatch(1);
+  private ScheduledFuture<?> pendingDispatch;
+  private Callback pendingCallback;
+
+  RateLimitedCall(Call delegate, PdfGateRateLimiter rateLimiter) {
+    super(delegate);
+    this.rateLimiter = rateLimiter;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    long delayNanos = rateLimiter.reserve();
+    if (delayNanos > 0) {
+      try {
+        if (canceled.await(delayNanos, TimeUnit.NANOSECONDS)) {
+          throw new IOException("Canceled");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+      }
+    }
+    Response response = delegate().execute();
+    rateLimiter.update(response.headers());
+    return response;
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    Callback callback = new RateUpdatingCallback(responseCallback);
+    long delayNanos = rateLimiter.reserve();
+    if (delayNanos <= 0) {
+      delegate().enqueue(callback);
+      return;
+    }
+    synchronized (this) {
+      pendingCallback = responseCallback;
+      pendingDispatch = PdfGateScheduler.get().schedule(() -> {
+        synchronized (this) {
+          pendingDispatch = null;
+          pendingCallback = null;
+        }
+        dispatch(callback);
+      }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Enqueues the delegate from the scheduler, where a thrown failure would otherwise be kept
+   * by the discarded future and the caller never called back.
+   */
+  private void dispatch(Callback callback) {
+    try {
+      delegate().enqueue(callback);
+    } catch (RuntimeException | Error e) {
+      callback.onFailure(this, new IOException("Failed to dispatch the call", e));
+    }
+  }
+
+  @Override
+  public void cancel() {
+    canceled.countDown();
+    super.cancel();
+    ScheduledFuture<?> dispatch;
+    Callback callback;
+    synchronized (this) {
+      dispatch = pendingDispatch;
+      callback = pendingCallback;
+      pendingDispatch = null;
+      pendingCallback = null;
+    }
+    if (dispatch != null && dispatch.cancel(false)) {
+      callback.onFailure(this, new IOException("Canceled"));
+    }
+  }
+
+  @Override
+  public boolean isCanceled() {
+    return canceled.getCount() == 0 || super.isCanceled();
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new RateLimitedCall(delegate().clone(), rateLimiter);
+  }
+
+  /**
+   * Updates the limiter from every response before handing it to the caller.
+   */
+  private final class RateUpdatingCallback implements Callback {
+    private final Callback callback;
+
+    private RateUpdatingCallback(Callback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+      callback.onFailure(RateLimitedCall.this, e);
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+      rateLimiter.update(response.headers());
+      callback.onResponse(RateLimitedCall.this, response);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that retries transient failures according to a {@link PdfGateRetryPolicy}.
+ *
+ * <p>Each attempt is a {@link Call#clone()} of the previous one, so it replays the request that
+ * was already built, including its body and idempotency key, and passes through the endpoint's
+ * rate limiter and bulkhead again. Callers see a single call: results are reported with this
+ * call, and {@link #cancel()} stops both the attempt in flight and any pending retry.
+ */
+final class RetryingCall extends ForwardingCall {
+  private final PdfGateRetryPolicy policy;
+  private final PdfGateRetryBudget budget;
+  private final CountDownLatch canceled = new CountDownLatch(1);
+  /**
+   * Attempt currently in flight.
+   */
+  private volatile Call current;
+  private ScheduledFuture<?> pendingRetry;
+  private Callback pendingCallback;
+  private long previousDelayNanos;
+  private volatile long startNanos;
+
+  RetryingCall(Call delegate, PdfGateRetryPolicy policy, PdfGateRetryBudget budget) {
+    super(delegate);
+    this.policy = policy;
+    this.budget = budget;
+    this.current = delegate;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    startNanos = System.nanoTime();
+    budget.recordRequest();
+    Call attempt = delegate();
+    for (int attemptNumber = 1; ; attemptNumber++) {
+      long delayNanos;
+      try {
+        Response response = attempt.execute();
+        delayNanos = retryDelay(attemptNumber, response);
+        if (delayNanos < 0) {
+          return response;
+        }
+        response.close();
+      } catch (IOException e) {
+        delayNanos = retryDelay(attemptNumber, e);
+        if (delayNanos < 0) {
+          throw e;
+        }
+      }
+      awaitRetry(delayNanos);
+      attempt = nextAttempt(attempt);
+    }
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    startNanos = System.nanoTime();
+    budget.recordRequest();
+    delegate().enqueue(new RetryCallback(responseCallback, 1));
+  }
+
+  @Override
+  public void cancel() {
+    canceled.countDown();
+    current.cancel();
+    ScheduledFuture<?> retry;
+    Callback callback;
+    synchronized (this) {
+      retry = pendingRetry;
+      callback = pendingCallback;
+      pendingRetry = null;
+      pendingCallback = null;
+    }
+    if (retry != null && retry.cancel(false)) {
+      callback.onFailure(this, new IOException("Canceled"));
+    }
+  }
+
+  /**
+   * Returns whether the caller canceled this call. An attempt canceled by its own call timeout
+   * does not count, so the timeout can still be retried.
+   */
+  @Override
+  public boolean isCanceled() {
+    return canceled.getCount() == 0;
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new RetryingCall(delegate().clone(), policy, budget);
+  }
+
+  /**
+   * Returns the delay before the next attempt, or {@code -1} when the outcome must be reported
+   * to the caller.
+   *
+   * @param attemptNumber the attempt that just finished, starting at 1.
+   * @param response the response, or {@code null} after an I/O failure.
+   */
+  private long retryDelay(int attemptNumber, Response response) {
+    if (attemptNumber >= policy.getMaxAttempts() || isCanceled()) {
+      return -1;
+    }
+    long retryAfterNanos = 0;
+    if (response != null) {
+      if (!isRetryable(response.code())) {
+        return -1;
+      }
+      Long retryAfter = PdfGateRateLimiter.parseRetryAfter(response.header("Retry-After"));
+      if (retryAfter != null) {
+        retryAfterNanos = TimeUnit.SECONDS.toNanos(retryAfter);
+        if (retryAfterNanos > policy.getMaxRetryAfter().toNanos()) {
+          return -1;
+        }
+      }
+    }
+    long delayNanos = Math.max(retryAfterNanos, nextBackoff());
+    if (System.nanoTime() - startNanos + delayNanos > policy.getMaxElapsed().toNanos()
+        || !budget.tryRetry()) {
+      return -1;
+    }
+    return delayNanos;
+  }
+
+  /**
+   * Returns the delay before retrying an I/O failure, or {@code -1} when it must be reported.
+   * Requests rejected locally, by an open circuit breaker or a full queue, are never retried,
+   * and timeouts only for GET requests unless the policy allows more.
+   */
+  private long retryDelay(int attemptNumber, IOException failure) {
+    if (failure instanceof PdfGateCircuitOpenException
+        || failure instanceof PdfGateQueueFullException) {
+      return -1;
+    }
+    if (failure instanceof InterruptedIOException && !policy.isRetryNonIdempotentTimeouts()
+        && !"GET".equals(request().method())) {
+      return -1;
+    }
+    return retryDelay(attemptNumber, (Response) null);
+  }
+
+  /**
+   * Computes a decorrelated jitter backoff: a random delay between the initial backoff and
+   * three times the previous delay, capped at the maximum backoff.
+   */
+  private synchronized long nextBackoff() {
+    long base = policy.getInitialBackoff().toNanos();
+    long cap = policy.getMaxBackoff().toNanos();
+    long upper = Math.max(base, Math.min(cap, Math.max(base, previousDelayNanos) * 3));
+    long delay = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : base;
+    previousDelayNanos = delay;
+    return delay;
+  }
+
+  private static boolean isRetryable(int code) {
+    return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+  }
+
+  private void awaitRetry(long delayNanos) throws IOException {
+    try {
+      if (delayNanos > 0 && canceled.await(delayNanos, TimeUnit.NANOSECONDS)) {
+        throw new IOException("Canceled");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+    if (isCanceled()) {
+      throw new IOException("Canceled");
+    }
+  }
+
+  private Call nextAttempt(Call previous) {
+    Call next = previous.clone();
+    current = next;
+    if (canceled.getCount() == 0) {
+      next.cancel();
+    }
+    return next;
+  }
+
+  /**
+   * Schedules the next asynchronous attempt, or fails the caller when already canceled.
+   */
+  private void scheduleRetry(Call previous, Callback callback, int attemptNumber,
+                             long delayNanos) {
+    synchronized (this) {
+      if (canceled.getCount() > 0) {
+        pendingCallback = callback;
+        pendingRetry = PdfGateScheduler.get().schedule(() -> {
+          synchronized (this) {
+            pendingRetry = null;
+            pendingCallback = null;
+          }
+          nextAttempt(previous).enqueue(new RetryCallback(callback, attemptNumber + 1));
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        return;
+      }
+    }
+    callback.onFailure(this, new IOException("Canceled"));
+  }
+
+  /**
+   * Reports final outcomes to the caller and schedules retries for transient ones.
+   */
+  private final class RetryCallback implements Callback {
+    private final Callback callback;
+    private final int attemptNumber;
+
+    private RetryCallback(Callback callback, int attemptNumber) {
+      this.callback = callback;
+      this.attemptNumber = attemptNumber;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+      long delayNanos = retryDelay(attemptNumber, e);
+      if (delayNanos < 0) {
+        callback.onFailure(RetryingCall.this, e);
+      } else {
+        scheduleRetry(call, callback, attemptNumber, delayNanos);
+      }
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+      long delayNanos = retryDelay(attemptNumber, response);
+      if (delayNanos < 0) {
+        callback.onResponse(RetryingCall.this, response);
+      } else {
+        response.close();
+        scheduleRetry(call, callback, attemptNumber, delayNanos);
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Request body that streams from an {@link InputStream} opened for every write.
+ *
+ * <p>Data moves through Okio's segment buffers, so only a few kilobytes of the payload are in
+ * memory at a time. Opening a new stream per write lets retries replay the body. With a known
+ * length the stream must provide exactly that many bytes.
+ */
+final class StreamRequestBody extends RequestBody {
+  private final Supplier<? extends InputStream> streamSupplier;
+  private final long contentLength;
+  private final MediaType mediaType;
+
+  StreamRequestBody(Supplier<? extends InputStream> streamSupplier, long contentLength,
+                    MediaType mediaType) {
+    this.streamSupplier = streamSupplier;
+    this.contentLength = contentLength;
+    this.mediaType = mediaType;
+  }
+
+  @Override
+  public MediaType contentType() {
+    return mediaType;
+  }
+
+  @Override
+  public long contentLength() {
+    return contentLength;
+  }
+
+  @Override
+  public void writeTo(BufferedSink sink) throws IOException {
+    InputStream stream = streamSupplier.get();
+    if (stream == null) {
+      throw new IOException("File stream supplier returned null.");
+    }
+    try (Source source = Okio.source(stream)) {
+      if (contentLength >= 0) {
+        sink.write(source, contentLength);
+      } else {
+        sink.writeAll(source);
+      }
+    }
+  }
+}
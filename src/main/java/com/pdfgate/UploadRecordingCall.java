@@ -0,0 +1,83 @@
+package com.pdfgate;
+
+import java.io.IOException;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Call that uploads a file and, when the API answers with JSON document metadata, records the
+ * stored source document in a {@link PdfGateUploadCache} under the file's digest.
+ *
+ * <p>The uploaded file is stored as the document the result is {@code derivedFrom}, so that is
+ * the ID recorded. The response is inspected with a bounded peek, leaving it intact for the
+ * caller.
+ */
+final class UploadRecordingCall extends ForwardingCall {
+  private static final long MAX_PEEK_BYTES = 64 * 1024;
+
+  private final PdfGateUploadCache cache;
+  private final String digest;
+
+  UploadRecordingCall(Call delegate, PdfGateUploadCache cache, String digest) {
+    super(delegate);
+    this.cache = cache;
+    this.digest = digest;
+  }
+
+  @NotNull
+  @Override
+  public Response execute() throws IOException {
+    Response response = delegate().execute();
+    record(response);
+    return response;
+  }
+
+  @Override
+  public void enqueue(@NotNull Callback responseCallback) {
+    delegate().enqueue(new Callback() {
+      @Override
+      public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        responseCallback.onFailure(UploadRecordingCall.this, e);
+      }
+
+      @Override
+      public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+        record(response);
+        responseCallback.onResponse(UploadRecordingCall.this, response);
+      }
+    });
+  }
+
+  @NotNull
+  @Override
+  public Call clone() {
+    return new UploadRecordingCall(delegate().clone(), cache, digest);
+  }
+
+  private void record(Response response) {
+    ResponseBody body = response.body();
+    MediaType contentType = body == null ? null : body.contentType();
+    if (!response.isSuccessful() || contentType == null
+        || !"json".equals(contentType.subtype())) {
+      return;
+    }
+    PdfGateDocument document;
+    try {
+      document = PdfGateJson.gson().fromJson(
+          response.peekBody(MAX_PEEK_BYTES).string(), PdfGateDocument.class);
+    } catch (IOException | RuntimeException e) {
+      return;
+    }
+    if (document == null) {
+      return;
+    }
+    String sourceId = document.getDerivedFrom().orElse(null);
+    if (sourceId != null && !sourceId.isBlank()) {
+      cache.record(digest, sourceId, document.getExpiresAt());
+    }
+  }
+}
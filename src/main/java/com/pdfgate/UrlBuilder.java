@@ -1,15 +1,32 @@
 package com.pdfgate;
 
+import okhttp3.HttpUrl;
+
 final class UrlBuilder {
   private static final String API_VERSION = "v1";
-  private final String baseUrl;
+  private final HttpUrl generatePdfUrl;
+  private final HttpUrl flattenPdfUrl;
+  private final HttpUrl extractPdfFormDataUrl;
+  private final HttpUrl watermarkPdfUrl;
+  private final HttpUrl protectPdfUrl;
+  private final HttpUrl compressPdfUrl;
+  private final HttpUrl documentUrl;
+  private final HttpUrl fileUrl;
 
   UrlBuilder(String apiKey, PdfGateConfig config) {
     String domain = getDomainFromApiKey(apiKey, config);
     if (domain == null || domain.isBlank()) {
       throw new IllegalArgumentException("domain must be provided.");
     }
-    this.baseUrl = normalizeBase(domain);
+    String baseUrl = normalizeBase(domain);
+    this.generatePdfUrl = parse(baseUrl + "/" + API_VERSION + "/generate/pdf");
+    this.flattenPdfUrl = parse(baseUrl + "/forms/flatten");
+    this.extractPdfFormDataUrl = parse(baseUrl + "/forms/extract-data");
+    this.watermarkPdfUrl = parse(baseUrl + "/watermark/pdf");
+    this.protectPdfUrl = parse(baseUrl + "/protect/pdf");
+    this.compressPdfUrl = parse(baseUrl + "/compress/pdf");
+    this.documentUrl = parse(baseUrl + "/document");
+    this.fileUrl = parse(baseUrl + "/file");
   }
 
   private static String getDomainFromApiKey(String apiKey, PdfGateConfig config) {
@@ -32,35 +49,47 @@ final class UrlBuilder {
     return trimmed;
   }
 
-  String generatePdf() {
-    return baseUrl + "/" + API_VERSION + "/generate/pdf";
+  private static HttpUrl parse(String url) {
+    HttpUrl parsed = HttpUrl.parse(url);
+    if (parsed == null) {
+      throw new IllegalArgumentException("Invalid API URL: " + url);
+    }
+    return parsed;
   }
 
-  String flattenPdf() {
-    return baseUrl + "/forms/flatten";
+  HttpUrl generatePdf() {
+    return generatePdfUrl;
   }
 
-  String extractPdfFormData() {
-    return baseUrl + "/forms/extract-data";
+  HttpUrl flattenPdf() {
+    return flattenPdfUrl;
   }
 
-  String watermarkPdf() {
-    return baseUrl + "/watermark/pdf";
+  HttpUrl extractPdfFormData() {
+    return extractPdfFormDataUrl;
   }
 
-  String protectPdf() {
-    return baseUrl + "/protect/pdf";
+  HttpUrl watermarkPdf() {
+    return watermarkPdfUrl;
   }
 
-  String compressPdf() {
-    return baseUrl + "/compress/pdf";
+  HttpUrl protectPdf() {
+    return protectPdfUrl;
   }
 
-  String getDocument(String documentId) {
-    return baseUrl + "/document/" + documentId;
+  HttpUrl compressPdf() {
+    return compressPdfUrl;
+  }
+
+  HttpUrl getDocument(String documentId, Long preSignedUrlExpiresIn) {
+    HttpUrl.Builder builder = documentUrl.newBuilder().addPathSegment(documentId);
+    if (preSignedUrlExpiresIn != null) {
+      builder.addQueryParameter("preSignedUrlExpiresIn", preSignedUrlExpiresIn.toString());
+    }
+    return builder.build();
   }
 
-  String getFile(String documentId) {
-    return baseUrl + "/file/" + documentId;
+  HttpUrl getFile(String documentId) {
+    return fileUrl.newBuilder().addPathSegment(documentId).build();
   }
 }
@@ -0,0 +1,22 @@
+package com.pdfgate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors that run asynchronous requests.
+ *
+ * <p>This is the Java 21 implementation packaged in the multi-release JAR, which runs tasks on
+ * virtual threads.
+ */
+final class PdfGateThreads {
+  private PdfGateThreads() {
+  }
+
+  /**
+   * Creates an executor that starts one virtual thread per task.
+   */
+  static ExecutorService newVirtualThreadExecutor(String name) {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+  }
+}
@@ -1,33 +1,75 @@
 package com.pdfgate;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Headers;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
 import okio.Buffer;
+import okio.ByteString;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 public class PdfGateTest {
 
-  private PdfGate buildClient(String url) {
-    PdfGateConfig config = PdfGateConfig.of(
+  private PdfGateConfig buildConfig(String url) {
+    return PdfGateConfig.of(
         "https://invalid-production-host",
         url,
         Duration.ofSeconds(2),
         Duration.ofSeconds(2)
     );
-    return new PdfGate("test_mock_key", config);
+  }
+
+  private PdfGate buildClient(String url) {
+    return new PdfGate("test_mock_key", buildConfig(url));
   }
 
   @Test
@@ -698,4 +740,2271 @@ public class PdfGateTest {
       );
     }
   }
+
+  @Test
+  public void getDocumentReusesPreparedUrlAndHeaders() throws Exception {
+    Map<String, Object> payload = Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    );
+    String body = PdfGateJson.gson().toJson(payload);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(body));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(body));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      pdfGateClient.getDocument(GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .preSignedUrlExpiresIn(60L)
+          .build());
+      pdfGateClient.getDocument(GetDocumentParams.builder()
+          .documentId("6642381c5c62")
+          .build());
+
+      RecordedRequest first = server.takeRequest(2, TimeUnit.SECONDS);
+      RecordedRequest second = server.takeRequest(2, TimeUnit.SECONDS);
+      Assertions.assertEquals("/document/6642381c5c61?preSignedUrlExpiresIn=60", first.getPath(),
+          "path should include document id and query");
+      Assertions.assertEquals("/document/6642381c5c62", second.getPath(),
+          "path should include document id");
+      Assertions.assertEquals("Bearer test_mock_key", first.getHeader("Authorization"),
+          "authorization header should be sent");
+      Assertions.assertEquals("Bearer test_mock_key", second.getHeader("Authorization"),
+          "authorization header should be sent");
+    }
+  }
+
+  @Test
+  public void clientsSharingConnectionPoolUseTheirOwnApiKey() throws Exception {
+    Map<String, Object> payload = Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    );
+    String body = PdfGateJson.gson().toJson(payload);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(body));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(body));
+      server.start();
+
+      ConnectionPool pool = new ConnectionPool();
+      PdfGate firstClient = PdfGate.builder()
+          .apiKey("test_first_key")
+          .config(buildConfig(server.url("/").toString()))
+          .connectionPool(pool)
+          .build();
+      PdfGate secondClient = firstClient.withApiKey("test_second_key");
+
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+      firstClient.getDocument(params);
+      secondClient.getDocument(params);
+
+      Assertions.assertEquals("Bearer test_first_key",
+          server.takeRequest(2, TimeUnit.SECONDS).getHeader("Authorization"),
+          "first client should send its own key");
+      Assertions.assertEquals("Bearer test_second_key",
+          server.takeRequest(2, TimeUnit.SECONDS).getHeader("Authorization"),
+          "second client should send its own key");
+      Assertions.assertEquals(1, pool.connectionCount(),
+          "clients should reuse the shared pooled connection");
+    }
+  }
+
+  @Test
+  public void endpointLimitRejectsExcessWithoutBlockingOtherEndpoints() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+    CountDownLatch releaseGenerate = new CountDownLatch(1);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          if (request.getPath().startsWith("/v1/generate/pdf")) {
+            releaseGenerate.await(2, TimeUnit.SECONDS);
+            return new MockResponse()
+                .setResponseCode(201)
+                .setHeader("Content-Type", "application/octet-stream")
+                .setBody("%PDF");
+          }
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/json")
+              .setBody(documentBody);
+        }
+      });
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .maxConcurrentRequests(PdfGateEndpoint.GENERATE_PDF, 1)
+          .maxQueuedRequests(PdfGateEndpoint.GENERATE_PDF, 0)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+
+      CompletableFuture<byte[]> slowRender = pdfGateClient.generatePdfAsync(params);
+      PdfGateEndpointMetrics metrics =
+          pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GENERATE_PDF);
+      Assertions.assertEquals(1, metrics.getActiveRequests(), "render should hold the slot");
+
+      ExecutionException rejected = Assertions.assertThrows(
+          ExecutionException.class,
+          () -> pdfGateClient.generatePdfAsync(params).get(2, TimeUnit.SECONDS),
+          "excess render should be rejected"
+      );
+      Assertions.assertInstanceOf(PdfGateException.class, rejected.getCause(),
+          "rejection should be PdfGateException");
+
+      PdfGateDocument document = pdfGateClient.getDocument(GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build());
+      Assertions.assertEquals("6642381c5c61", document.getId(),
+          "get document should not wait for renders");
+
+      releaseGenerate.countDown();
+      Assertions.assertArrayEquals("%PDF".getBytes(StandardCharsets.UTF_8),
+          slowRender.get(2, TimeUnit.SECONDS), "render should complete");
+    }
+  }
+
+  @Test
+  public void jdkHttpClientTransportSendsSyncAndAsyncRequests() throws Exception {
+    byte[] pdfBytes = "%PDF-1.4 jdk transport".getBytes(StandardCharsets.UTF_8);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(pdfBytes)));
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(pdfBytes)));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .transport(PdfGateTransportType.JDK_HTTP_CLIENT)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+
+      Assertions.assertArrayEquals(pdfBytes, pdfGateClient.generatePdf(params),
+          "sync bytes should match response");
+      Assertions.assertArrayEquals(pdfBytes,
+          pdfGateClient.generatePdfAsync(params).get(2, TimeUnit.SECONDS),
+          "async bytes should match response");
+
+      RecordedRequest recorded = server.takeRequest(2, TimeUnit.SECONDS);
+      Assertions.assertEquals("Bearer test_mock_key", recorded.getHeader("Authorization"),
+          "authorization header should be sent");
+      Assertions.assertTrue(recorded.getHeader("Content-Type").startsWith("application/json"),
+          "content type should come from the request body");
+      Assertions.assertTrue(recorded.getBody().readUtf8().contains("Hello, PDFGate!"),
+          "request body should be sent");
+    }
+  }
+
+  @Test
+  public void virtualThreadsConfigRunsAsyncRequests() throws Exception {
+    byte[] pdfBytes = "%PDF-1.4 virtual threads".getBytes(StandardCharsets.UTF_8);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(pdfBytes)));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .virtualThreads(true)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+
+      Assertions.assertArrayEquals(pdfBytes,
+          pdfGateClient.generatePdfAsync(params).get(2, TimeUnit.SECONDS),
+          "bytes should match response");
+    }
+
+    // The testJava21 task puts the Java 21 layer of the multi-release JAR first on the classpath.
+    ExecutorService executor = PdfGateThreads.newVirtualThreadExecutor("pdfgate-test");
+    try {
+      Thread thread = executor.submit(Thread::currentThread).get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals(Boolean.getBoolean("pdfgate.expectVirtualThreads"),
+          isVirtual(thread), "dispatcher threads should be virtual only on the Java 21 layer");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static boolean isVirtual(Thread thread) throws Exception {
+    try {
+      return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void adaptiveConcurrencyShrinksLimitOnThrottling() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(429)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Too many requests\"}"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .adaptiveConcurrency(true)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      int initialLimit = pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GET_DOCUMENT)
+          .getMaxConcurrentRequests();
+
+      Assertions.assertThrows(PdfGateException.class, () -> pdfGateClient.getDocument(
+          GetDocumentParams.builder().documentId("6642381c5c61").build()),
+          "throttled request should fail");
+
+      int throttledLimit = pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GET_DOCUMENT)
+          .getMaxConcurrentRequests();
+      Assertions.assertTrue(throttledLimit < initialLimit,
+          "429 should shrink the concurrency limit");
+      Assertions.assertEquals(initialLimit, pdfGateClient.getEndpointMetrics(
+          PdfGateEndpoint.GENERATE_PDF).getMaxConcurrentRequests(),
+          "other endpoints should keep their limit");
+    }
+  }
+
+  @Test
+  public void rateLimitHeadersDelayNextRequest() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setHeader("X-RateLimit-Remaining", "0")
+          .setHeader("X-RateLimit-Reset", "2")
+          .setBody(documentBody));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      pdfGateClient.getDocument(params);
+      server.takeRequest();
+      CompletableFuture<PdfGateDocument> delayed = pdfGateClient.getDocumentAsync(params);
+      Assertions.assertNull(server.takeRequest(500, TimeUnit.MILLISECONDS),
+          "exhausted quota should hold the next request until the reset");
+
+      PdfGateDocument document = delayed.get(10, TimeUnit.SECONDS);
+      Assertions.assertEquals("6642381c5c61", document.getId(), "delayed request should succeed");
+      Assertions.assertEquals(2, server.getRequestCount(), "request should be sent after reset");
+    }
+  }
+
+  @Test
+  public void retryPolicyReplaysPostWithSameIdempotencyKey() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c62",
+        "status", "completed",
+        "type", "flattened"
+    ));
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(503)
+          .setHeader("Retry-After", "0")
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Service Unavailable\"}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody));
+      server.enqueue(new MockResponse()
+          .setResponseCode(502)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Bad Gateway\"}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .retryPolicy(PdfGateRetryPolicy.builder()
+              .initialBackoff(Duration.ofMillis(10))
+              .maxBackoff(Duration.ofMillis(50))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      FlattenPdfJsonParams params = FlattenPdfParams.builder()
+          .documentId("6642381c5c61")
+          .buildWithJsonResponse();
+
+      PdfGateDocument document = pdfGateClient.flattenPdf(params);
+      Assertions.assertEquals("6642381c5c62", document.getId(), "retry should succeed");
+      RecordedRequest first = server.takeRequest(1, TimeUnit.SECONDS);
+      RecordedRequest second = server.takeRequest(1, TimeUnit.SECONDS);
+      Assertions.assertNotNull(first.getHeader("Idempotency-Key"), "POST should carry a key");
+      Assertions.assertEquals(first.getHeader("Idempotency-Key"),
+          second.getHeader("Idempotency-Key"), "retry should reuse the idempotency key");
+      Assertions.assertEquals(first.getBody().readUtf8(), second.getBody().readUtf8(),
+          "retry should replay the same body");
+
+      PdfGateDocument asyncDocument = pdfGateClient.flattenPdfAsync(params)
+          .get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals("6642381c5c62", asyncDocument.getId(),
+          "async retry should succeed");
+      Assertions.assertEquals(4, server.getRequestCount(), "each call should retry once");
+    }
+  }
+
+  @Test
+  public void hedgedGetDocumentReturnsFasterAttempt() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 20; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody(documentBody));
+      }
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeadersDelay(3000, TimeUnit.MILLISECONDS)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody.replace("6642381c5c61", "slow")));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody.replace("6642381c5c61", "hedge")));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .hedgePolicy(PdfGateHedgePolicy.builder().percentile(0.9).build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+      for (int i = 0; i < 20; i++) {
+        pdfGateClient.getDocument(params);
+      }
+
+      PdfGateDocument document = pdfGateClient.getDocument(params);
+
+      Assertions.assertEquals("hedge", document.getId(), "hedge should beat the slow attempt");
+      Assertions.assertEquals(22, server.getRequestCount(), "slow request should be hedged once");
+    }
+  }
+
+  @Test
+  public void circuitBreakerOpensFailsFastAndClosesAfterProbe() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+    List<String> transitions = new CopyOnWriteArrayList<>();
+
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 2; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(500)
+            .setHeader("Content-Type", "application/json")
+            .setBody("{\"message\":\"Internal Server Error\"}"));
+      }
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .circuitBreaker(PdfGateEndpoint.GET_DOCUMENT, PdfGateCircuitBreakerPolicy.builder()
+              .windowSize(2)
+              .minimumCalls(2)
+              .openDuration(Duration.ofMillis(200))
+              .halfOpenCalls(1)
+              .build())
+          .circuitBreakerListener((endpoint, from, to) -> transitions.add(from + "->" + to))
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      for (int i = 0; i < 2; i++) {
+        PdfGateException error = Assertions.assertThrows(PdfGateException.class,
+            () -> pdfGateClient.getDocument(params), "server error should fail");
+        Assertions.assertEquals(500, error.getStatusCode(), "status should be preserved");
+      }
+      Assertions.assertEquals(PdfGateCircuitState.OPEN,
+          pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GET_DOCUMENT).getCircuitState(),
+          "failures should open the circuit");
+      Assertions.assertThrows(PdfGateCircuitOpenException.class,
+          () -> pdfGateClient.getDocument(params), "open circuit should fail fast");
+      ExecutionException asyncError = Assertions.assertThrows(ExecutionException.class,
+          () -> pdfGateClient.getDocumentAsync(params).get(2, TimeUnit.SECONDS),
+          "open circuit should fail async requests");
+      Assertions.assertInstanceOf(PdfGateCircuitOpenException.class, asyncError.getCause(),
+          "async rejection should keep its type");
+      Assertions.assertEquals(2, server.getRequestCount(), "open circuit should not send");
+
+      Thread.sleep(250);
+      PdfGateDocument document = pdfGateClient.getDocument(params);
+      Assertions.assertEquals("6642381c5c61", document.getId(), "probe should succeed");
+      Assertions.assertEquals(
+          List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"),
+          transitions, "transitions should be reported in order");
+    }
+  }
+
+  @Test
+  public void coalescedGetFileSharesOneRequest() throws Exception {
+    CountDownLatch releaseFile = new CountDownLatch(1);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          releaseFile.await(2, TimeUnit.SECONDS);
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeader("Content-Type", "application/octet-stream")
+              .setBody("%PDF");
+        }
+      });
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .coalesceRequests(true)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetFileParams params = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      CompletableFuture<byte[]> first = pdfGateClient.getFileAsync(params);
+      CompletableFuture<byte[]> second = pdfGateClient.getFileAsync(params);
+      CompletableFuture<byte[]> third = pdfGateClient.getFileAsync(params);
+      releaseFile.countDown();
+
+      byte[] expected = "%PDF".getBytes(StandardCharsets.UTF_8);
+      byte[] firstBytes = first.get(2, TimeUnit.SECONDS);
+      byte[] secondBytes = second.get(2, TimeUnit.SECONDS);
+      byte[] thirdBytes = third.get(2, TimeUnit.SECONDS);
+      Assertions.assertArrayEquals(expected, firstBytes, "leader should get the file");
+      Assertions.assertArrayEquals(expected, secondBytes, "waiter should get the file");
+      Assertions.assertArrayEquals(expected, thirdBytes, "waiter should get the file");
+      Assertions.assertNotSame(firstBytes, secondBytes, "waiters should get their own bytes");
+      Assertions.assertNotSame(secondBytes, thirdBytes, "waiters should get their own bytes");
+      Assertions.assertEquals(1, server.getRequestCount(), "identical requests should share");
+    }
+  }
+
+  @Test
+  public void compressPdfStreamsFileFromPath() throws Exception {
+    Path pdf = Files.createTempFile("pdfgate", ".pdf");
+    try (MockWebServer server = new MockWebServer()) {
+      Files.write(pdf, "%PDF-1.7 streamed from disk".getBytes(StandardCharsets.UTF_8));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      CompressPdfFileParams params = CompressPdfParams.builder()
+          .file(FileParam.fromPath(pdf))
+          .buildWithFileResponse();
+
+      byte[] result = pdfGateClient.compressPdf(params);
+      Assertions.assertArrayEquals("%PDF".getBytes(StandardCharsets.UTF_8), result,
+          "compress should return the response bytes");
+      RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+      Assertions.assertNotNull(request.getHeader("Content-Length"),
+          "streamed upload should announce its length");
+      String body = request.getBody().readUtf8();
+      Assertions.assertTrue(body.contains("%PDF-1.7 streamed from disk"),
+          "multipart body should contain the file contents");
+      Assertions.assertTrue(body.contains("filename=\"" + pdf.getFileName() + "\""),
+          "part should be named after the file");
+    } finally {
+      Files.deleteIfExists(pdf);
+    }
+  }
+
+  @Test
+  public void streamedFileIsReopenedWhenRetried() throws Exception {
+    byte[] pdf = "%PDF-1.7 from a stream".getBytes(StandardCharsets.UTF_8);
+    AtomicInteger opened = new AtomicInteger();
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(503)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Service Unavailable\"}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .retryPolicy(PdfGateRetryPolicy.builder()
+              .initialBackoff(Duration.ofMillis(10))
+              .maxBackoff(Duration.ofMillis(50))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      FlattenPdfFileParams params = FlattenPdfParams.builder()
+          .file(FileParam.fromStream("input.pdf", () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(pdf);
+          }, pdf.length, "application/pdf"))
+          .buildWithFileResponse();
+
+      byte[] result = pdfGateClient.flattenPdf(params);
+      Assertions.assertArrayEquals("%PDF".getBytes(StandardCharsets.UTF_8), result,
+          "retried upload should succeed");
+      Assertions.assertEquals(2, opened.get(), "each attempt should open a new stream");
+      for (int i = 0; i < 2; i++) {
+        RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+        Assertions.assertNotNull(request.getHeader("Content-Length"),
+            "known length should be announced");
+        Assertions.assertTrue(request.getBody().readUtf8().contains("%PDF-1.7 from a stream"),
+            "each attempt should send the full stream");
+      }
+    }
+  }
+
+  @Test
+  public void compressPdfUploadsDirectByteBuffer() throws Exception {
+    byte[] pdf = "%PDF-1.7 in direct memory".getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(pdf.length);
+    buffer.put(pdf).flip();
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      byte[] result = pdfGateClient.compressPdf(CompressPdfParams.builder()
+          .file(FileParam.fromByteBuffer("input.pdf", buffer))
+          .buildWithFileResponse());
+
+      Assertions.assertArrayEquals("%PDF".getBytes(StandardCharsets.UTF_8), result,
+          "compress should return the response bytes");
+      Assertions.assertEquals(0, buffer.position(), "upload should not move the buffer");
+      RecordedRequest request = server.takeRequest(1, TimeUnit.SECONDS);
+      Assertions.assertTrue(request.getBody().readUtf8().contains("%PDF-1.7 in direct memory"),
+          "multipart body should contain the buffer contents");
+
+      buffer.position(buffer.limit());
+      IllegalArgumentException empty = Assertions.assertThrows(IllegalArgumentException.class,
+          () -> pdfGateClient.compressPdf(CompressPdfParams.builder()
+              .file(FileParam.fromByteBuffer("input.pdf", buffer))
+              .buildWithFileResponse()),
+          "buffer without remaining bytes should be rejected");
+      Assertions.assertEquals("file data must be provided.", empty.getMessage(),
+          "validation should check the remaining bytes");
+    }
+  }
+
+  @Test
+  public void fileResponsesStreamToPathAndChannel() throws Exception {
+    Path target = Files.createTempFile("pdfgate", ".pdf");
+    Files.delete(target);
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-stored"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-generated"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(404)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Document not found\"}"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      long written = pdfGateClient.getFile(fileParams, target);
+      Assertions.assertEquals(11, written, "all bytes should be written");
+      Assertions.assertEquals("%PDF-stored",
+          new String(Files.readAllBytes(target), StandardCharsets.UTF_8),
+          "file should hold the response body");
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      GeneratePdfFileParams generateParams = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+      long generated = pdfGateClient.generatePdfAsync(generateParams, Channels.newChannel(output))
+          .get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals(14, generated, "all bytes should be written");
+      Assertions.assertEquals("%PDF-generated", output.toString(StandardCharsets.UTF_8),
+          "channel should receive the response body");
+
+      Files.delete(target);
+      PdfGateException error = Assertions.assertThrows(PdfGateException.class,
+          () -> pdfGateClient.getFile(fileParams, target), "error response should fail");
+      Assertions.assertEquals(404, error.getStatusCode(), "status should be preserved");
+      Assertions.assertFalse(Files.exists(target), "error response should not create the file");
+    } finally {
+      Files.deleteIfExists(target);
+    }
+  }
+
+  @Test
+  public void fileResponsesOpenAsLiveStreams() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-stored"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-generated"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(404)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Document not found\"}"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      try (InputStream stream = pdfGateClient.getFileStream(fileParams)) {
+        Assertions.assertEquals("%PDF-stored",
+            new String(stream.readAllBytes(), StandardCharsets.UTF_8),
+            "stream should carry the response body");
+      }
+
+      GeneratePdfFileParams generateParams = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+      try (InputStream stream = pdfGateClient.generatePdfStreamAsync(generateParams)
+          .get(2, TimeUnit.SECONDS)) {
+        Assertions.assertEquals("%PDF-generated",
+            new String(stream.readAllBytes(), StandardCharsets.UTF_8),
+            "async stream should carry the response body");
+      }
+
+      PdfGateException error = Assertions.assertThrows(PdfGateException.class,
+          () -> pdfGateClient.getFileStream(fileParams), "error response should fail");
+      Assertions.assertEquals(404, error.getStatusCode(), "status should be preserved");
+      Assertions.assertTrue(error.getMessage().endsWith("Document not found"),
+          "error body should be parsed before returning");
+    }
+  }
+
+  @Test
+  public void fileResponsesPublishChunksOnDemand() throws Exception {
+    byte[] pdf = new byte[50_000];
+    Arrays.fill(pdf, (byte) 'x');
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(pdf)));
+      server.enqueue(new MockResponse()
+          .setResponseCode(404)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Document not found\"}"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      ByteArrayOutputStream received = new ByteArrayOutputStream();
+      AtomicInteger chunks = new AtomicInteger();
+      AtomicInteger completions = new AtomicInteger();
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      CountDownLatch done = new CountDownLatch(1);
+      pdfGateClient.getFileAsync(fileParams, new Flow.Subscriber<ByteBuffer>() {
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          this.subscription = subscription;
+          subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+          chunks.incrementAndGet();
+          byte[] bytes = new byte[item.remaining()];
+          item.get(bytes);
+          received.write(bytes, 0, bytes.length);
+          subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          failure.set(throwable);
+          done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+          completions.incrementAndGet();
+          done.countDown();
+        }
+      });
+      Assertions.assertTrue(done.await(2, TimeUnit.SECONDS), "download should complete");
+      Assertions.assertNull(failure.get(), "download should not fail");
+      Assertions.assertEquals(1, completions.get(), "completion should be signalled once");
+      Assertions.assertTrue(chunks.get() > 1, "body should arrive in several chunks");
+      Assertions.assertArrayEquals(pdf, received.toByteArray(), "chunks should form the body");
+
+      CountDownLatch failed = new CountDownLatch(1);
+      pdfGateClient.getFileAsync(fileParams, new Flow.Subscriber<ByteBuffer>() {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+          Assertions.fail("error responses should not publish chunks");
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          failure.set(throwable);
+          failed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+          failed.countDown();
+        }
+      });
+      Assertions.assertTrue(failed.await(2, TimeUnit.SECONDS), "download should finish");
+      Assertions.assertInstanceOf(PdfGateException.class, failure.get(),
+          "error response should be signalled");
+      Assertions.assertEquals(404, ((PdfGateException) failure.get()).getStatusCode(),
+          "status should be preserved");
+    }
+  }
+
+  @Test
+  public void fileResultsSpillLargeBodiesToDisk() throws Exception {
+    byte[] large = new byte[4096];
+    new Random(7).nextBytes(large);
+    Path copy = Files.createTempFile("pdfgate", ".pdf");
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-small"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(large)));
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setChunkedBody(new Buffer().write(large), 512));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .spillThreshold(1024)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      try (PdfGateFileResult small = pdfGateClient.getFileResult(fileParams)) {
+        Assertions.assertTrue(small.isInMemory(), "small body should stay in memory");
+        Assertions.assertEquals(10, small.getSize(), "size should match the body");
+        try (InputStream stream = small.openStream()) {
+          Assertions.assertEquals("%PDF-small",
+              new String(stream.readAllBytes(), StandardCharsets.UTF_8),
+              "stream should carry the body");
+        }
+      }
+
+      PdfGateFileResult spilled = pdfGateClient.getFileResult(fileParams);
+      try (spilled) {
+        Assertions.assertFalse(spilled.isInMemory(), "large body should spill to disk");
+        Assertions.assertEquals(large.length, spilled.getSize(), "size should match the body");
+        ByteBuffer mapped = spilled.asByteBuffer();
+        byte[] mappedBytes = new byte[mapped.remaining()];
+        mapped.get(mappedBytes);
+        Assertions.assertArrayEquals(large, mappedBytes, "mapped view should hold the body");
+        spilled.transferTo(copy);
+        Assertions.assertArrayEquals(large, Files.readAllBytes(copy),
+            "copied file should hold the body");
+        try (InputStream stream = spilled.openStream()) {
+          Assertions.assertArrayEquals(large, stream.readAllBytes(),
+              "body should be re-readable");
+        }
+      }
+      Assertions.assertThrows(IllegalStateException.class, spilled::openStream,
+          "closed result should not be readable");
+
+      GeneratePdfFileParams generateParams = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+      try (PdfGateFileResult chunked = pdfGateClient.generatePdfResultAsync(generateParams)
+          .get(2, TimeUnit.SECONDS)) {
+        Assertions.assertFalse(chunked.isInMemory(),
+            "body without a length should spill once it passes the threshold");
+        try (InputStream stream = chunked.openStream()) {
+          Assertions.assertArrayEquals(large, stream.readAllBytes(),
+              "spilled body should include the buffered prefix");
+        }
+      }
+    } finally {
+      Files.deleteIfExists(copy);
+    }
+  }
+
+  @Test
+  public void segmentedBytesHoldLargeFilesAcrossSegments() throws Exception {
+    byte[] pdf = new byte[150_000];
+    new Random(11).nextBytes(pdf);
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new Buffer().write(pdf)));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      PdfGateBytes bytes = pdfGateClient.getFileBytesAsync(GetFileParams.builder()
+              .documentId("6642381c5c61")
+              .build())
+          .get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals(pdf.length, bytes.getSize(), "size should match the body");
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      bytes.writeTo(output);
+      Assertions.assertArrayEquals(pdf, output.toByteArray(), "segments should form the body");
+      try (InputStream stream = bytes.asInputStream()) {
+        Assertions.assertArrayEquals(pdf, stream.readAllBytes(),
+            "stream should read across segments");
+      }
+      Assertions.assertArrayEquals(pdf, bytes.toByteArray(), "copy should match the body");
+
+      bytes.release();
+      bytes.release();
+      Assertions.assertThrows(IllegalStateException.class, () -> bytes.writeTo(output),
+          "released bytes should not be readable");
+    }
+  }
+
+  @Test
+  public void jsonResponsesAreDecodedFromTheStream() throws Exception {
+    StringBuilder fields = new StringBuilder();
+    for (int i = 0; i < 2_000; i++) {
+      fields.append(i == 0 ? "" : ",").append("\"field").append(i).append("\":\"value\"");
+    }
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"id\":\"6642381c5c61\",\"status\":\"completed\",\"size\":1024,"
+              + "\"metadata\":{\"author\":\"PDFGate\",\"pages\":3}}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setChunkedBody("{" + fields + "}", 1024));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      PdfGateDocument document = pdfGateClient.getDocument(GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build());
+      Assertions.assertEquals("6642381c5c61", document.getId(), "id should be decoded");
+      Assertions.assertEquals(Long.valueOf(1024), document.getSize(), "size should be decoded");
+      Map<String, Object> metadata = document.getMetadata().orElseThrow();
+      Assertions.assertEquals("PDFGate", metadata.get("author"),
+          "metadata should be decoded on access");
+      Assertions.assertSame(metadata, document.getMetadata().orElseThrow(),
+          "decoded metadata should be cached");
+
+      JsonObject formData = pdfGateClient.extractPdfFormData(ExtractPdfFormDataParams.builder()
+          .documentId("6642381c5c61")
+          .build());
+      Assertions.assertEquals(2_000, formData.size(), "all fields should be decoded");
+      Assertions.assertEquals("value", formData.get("field1999").getAsString(),
+          "chunked body should be read to the end");
+    }
+  }
+
+  @Test
+  public void generatePdfStreamsHtmlSourceIntoJsonBody() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(201)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html(HtmlSource.fromChunks(List.of(
+              "<html><body>",
+              "<h1 class=\"title\">Hello, \\PDFGate!</h1>\n",
+              "</body></html>")))
+          .printBackground(true)
+          .buildWithFileResponse();
+      Assertions.assertArrayEquals("%PDF".getBytes(StandardCharsets.UTF_8),
+          pdfGateClient.generatePdf(params), "response should be returned");
+
+      RecordedRequest recorded = server.takeRequest(2, TimeUnit.SECONDS);
+      Assertions.assertNotNull(recorded, "request should be sent");
+      Assertions.assertNull(recorded.getHeader("Content-Length"),
+          "streamed body should not be buffered to compute its length");
+      JsonObject body = JsonParser.parseString(recorded.getBody().readUtf8()).getAsJsonObject();
+      Assertions.assertEquals(
+          "<html><body><h1 class=\"title\">Hello, \\PDFGate!</h1>\n</body></html>",
+          body.get("html").getAsString(), "html should be escaped into the JSON body");
+      Assertions.assertTrue(body.get("printBackground").getAsBoolean(),
+          "other parameters should be sent");
+
+      Assertions.assertThrows(IllegalArgumentException.class,
+          () -> pdfGateClient.generatePdf(GeneratePdfParams.builder()
+              .html("<html></html>")
+              .html(HtmlSource.fromWriter(out -> out.write("<html></html>")))
+              .buildWithFileResponse()),
+          "html string and source should not be combined");
+    }
+  }
+
+  @Test
+  public void gzipCompressesJsonRequestsAndDecodesResponses() throws Exception {
+    ByteArrayOutputStream compressedDocument = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressedDocument)) {
+      gzip.write("{\"id\":\"6642381c5c61\",\"status\":\"completed\"}"
+          .getBytes(StandardCharsets.UTF_8));
+    }
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setHeader("Content-Encoding", "gzip")
+          .setBody(new Buffer().write(compressedDocument.toByteArray())));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .gzipThreshold(0)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      String html = "<html><body>" + "<p>Hello, PDFGate!</p>".repeat(500) + "</body></html>";
+      PdfGateDocument document = pdfGateClient.generatePdf(GeneratePdfParams.builder()
+          .html(html)
+          .buildWithJsonResponse());
+      Assertions.assertEquals("6642381c5c61", document.getId(),
+          "gzip response should be decoded");
+
+      RecordedRequest recorded = server.takeRequest(2, TimeUnit.SECONDS);
+      Assertions.assertNotNull(recorded, "request should be sent");
+      Assertions.assertEquals("gzip", recorded.getHeader("Content-Encoding"),
+          "request body should be declared as gzip");
+      Assertions.assertEquals("gzip", recorded.getHeader("Accept-Encoding"),
+          "gzip responses should be negotiated");
+      long sentBytes = recorded.getBodySize();
+      String body;
+      try (InputStream in = new GZIPInputStream(recorded.getBody().inputStream())) {
+        body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+      Assertions.assertEquals(html, JsonParser.parseString(body).getAsJsonObject()
+          .get("html").getAsString(), "compressed body should hold the JSON params");
+
+      PdfGateCompressionMetrics compression =
+          pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GENERATE_PDF).getCompression();
+      Assertions.assertEquals(body.length(), compression.getRequestBytes(),
+          "uncompressed request size should be recorded");
+      Assertions.assertEquals(sentBytes, compression.getCompressedRequestBytes(),
+          "compressed request size should be recorded");
+      Assertions.assertTrue(compression.getCompressedRequestBytes()
+          < compression.getRequestBytes() / 5, "repetitive HTML should compress well");
+      Assertions.assertTrue(compression.getCompressedResponseBytes() > 0,
+          "compressed response size should be recorded");
+      Assertions.assertTrue(compression.getResponseBytes() > 0,
+          "decoded response size should be recorded");
+    }
+  }
+
+  @Test
+  public void uploadCacheReusesStoredDocumentForSameBytes() throws Exception {
+    byte[] pdf = "%PDF-1.7 deduplicated".getBytes(StandardCharsets.UTF_8);
+    String expiresAt = Instant.now().plus(Duration.ofHours(1)).toString();
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"id\":\"6642381c5c62\",\"derivedFrom\":\"6642381c5c61\","
+              + "\"expiresAt\":\"" + expiresAt + "\"}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-compressed"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(404)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"message\":\"Document not found\"}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF-compressed"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .uploadCacheSize(100)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+
+      pdfGateClient.flattenPdf(FlattenPdfParams.builder()
+          .file(new FileParam("input.pdf", pdf, "application/pdf"))
+          .buildWithJsonResponse());
+      Assertions.assertTrue(server.takeRequest().getBody().readUtf8().contains("deduplicated"),
+          "first operation should upload the file");
+
+      CompressPdfFileParams compressParams = CompressPdfParams.builder()
+          .file(new FileParam("input.pdf", pdf.clone(), "application/pdf"))
+          .buildWithFileResponse();
+      Assertions.assertArrayEquals("%PDF-compressed".getBytes(StandardCharsets.UTF_8),
+          pdfGateClient.compressPdf(compressParams), "reused document should be processed");
+      String reused = server.takeRequest().getBody().readUtf8();
+      Assertions.assertTrue(reused.contains("6642381c5c61"),
+          "same bytes should reference the stored document");
+      Assertions.assertFalse(reused.contains("deduplicated"),
+          "same bytes should not be uploaded again");
+
+      Assertions.assertArrayEquals("%PDF-compressed".getBytes(StandardCharsets.UTF_8),
+          pdfGateClient.compressPdf(compressParams), "gone document should fall back");
+      Assertions.assertTrue(server.takeRequest().getBody().readUtf8().contains("6642381c5c61"),
+          "cached document should be tried first");
+      Assertions.assertTrue(server.takeRequest().getBody().readUtf8().contains("deduplicated"),
+          "gone document should be replaced by an upload");
+    }
+  }
+
+  @Test
+  public void resultCacheServesRepeatedGeneratePdfFromDisk() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate-results");
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 statement"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 page"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 page"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .resultCacheDirectory(directory)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      Map<String, String> headers = new LinkedHashMap<>();
+      headers.put("X-Account", "42");
+      headers.put("X-Month", "2024-01");
+      Map<String, String> reordered = new LinkedHashMap<>();
+      reordered.put("X-Month", "2024-01");
+      reordered.put("X-Account", "42");
+
+      byte[] generated = pdfGateClient.generatePdf(GeneratePdfParams.builder()
+          .html("<p>Statement</p>")
+          .httpHeaders(headers)
+          .buildWithFileResponse());
+      byte[] cached = pdfGateClient.generatePdf(GeneratePdfParams.builder()
+          .html("<p>Statement</p>")
+          .httpHeaders(reordered)
+          .buildWithFileResponse());
+      byte[] cachedAsync = pdfGateClient.generatePdfAsync(GeneratePdfParams.builder()
+          .html("<p>Statement</p>")
+          .httpHeaders(headers)
+          .buildWithFileResponse()).get(1, TimeUnit.SECONDS);
+      Assertions.assertArrayEquals(generated, cached, "cached PDF should match the original");
+      Assertions.assertArrayEquals(generated, cachedAsync, "async hit should match the original");
+      Assertions.assertEquals(1, server.getRequestCount(),
+          "equal parameters should be served from the cache");
+
+      GeneratePdfFileParams urlParams = GeneratePdfParams.builder()
+          .url("https://example.com")
+          .buildWithFileResponse();
+      pdfGateClient.generatePdf(urlParams);
+      pdfGateClient.generatePdf(urlParams);
+      Assertions.assertEquals(3, server.getRequestCount(),
+          "URL renders should not be cached unless enabled");
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(file -> file.toFile().delete());
+      }
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  public void memoryCacheServesRepeatedFileResponses() throws Exception {
+    byte[] pdf = "%PDF-1.7 hot".getBytes(StandardCharsets.UTF_8);
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 3; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/pdf")
+            .setBody("%PDF-1.7 response " + i));
+      }
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .memoryCacheMaxBytes(1024 * 1024)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      byte[] file = pdfGateClient.getFile(fileParams);
+      file[0] = 'X';
+      Assertions.assertEquals("%PDF-1.7 response 0",
+          new String(pdfGateClient.getFile(fileParams), StandardCharsets.UTF_8),
+          "hit should return an unmodified copy");
+      Assertions.assertEquals("%PDF-1.7 response 0",
+          new String(pdfGateClient.getFileAsync(fileParams).get(1, TimeUnit.SECONDS),
+              StandardCharsets.UTF_8),
+          "async hit should be served from memory");
+
+      for (int i = 0; i < 2; i++) {
+        byte[] compressed = pdfGateClient.compressPdf(CompressPdfParams.builder()
+            .file(new FileParam("input.pdf", pdf.clone(), "application/pdf"))
+            .buildWithFileResponse());
+        Assertions.assertEquals("%PDF-1.7 response 1",
+            new String(compressed, StandardCharsets.UTF_8),
+            "same upload should be served from memory despite a new multipart boundary");
+      }
+      Assertions.assertEquals(2, server.getRequestCount(), "hits should not call the API");
+
+      pdfGateClient.withApiKey("test_other_key").getFile(fileParams);
+      Assertions.assertEquals(3, server.getRequestCount(),
+          "cached files should not be shared between API keys");
+
+      PdfGateCacheMetrics metrics = pdfGateClient.getCacheMetrics();
+      Assertions.assertEquals(3, metrics.getHits(), "hits should be counted");
+      Assertions.assertEquals(3, metrics.getMisses(), "misses should be counted");
+      Assertions.assertEquals(0, metrics.getEvictions(), "nothing should be evicted");
+      Assertions.assertEquals(3, metrics.getEntryCount(), "each response should be cached");
+      Assertions.assertEquals(19L * 3, metrics.getWeightedSize(),
+          "size should sum the cached bytes");
+    }
+  }
+
+  @Test
+  public void configRejectsNonPositiveKeepAliveDuration() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateConfig.builder().keepAliveDuration(Duration.ZERO).build(),
+        "zero keep-alive should be rejected");
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateConfig.builder().keepAliveDuration(Duration.ofSeconds(-1)).build(),
+        "negative keep-alive should be rejected");
+  }
+
+  @Test
+  public void bulkheadIsolatesFailingGrantedTasks() throws Exception {
+    PdfGateBulkhead bulkhead = new PdfGateBulkhead(PdfGateEndpoint.GENERATE_PDF, 2, 10, null);
+    bulkhead.enqueue(() -> { });
+    bulkhead.enqueue(() -> { });
+    AtomicInteger ran = new AtomicInteger();
+    bulkhead.enqueue(() -> {
+      throw new IllegalStateException("task failed");
+    });
+    bulkhead.enqueue(ran::incrementAndGet);
+    Assertions.assertEquals(2, bulkhead.getQueuedCount(), "excess tasks should wait");
+
+    Assertions.assertThrows(IllegalStateException.class, bulkhead::release,
+        "task failure should surface to the releasing thread");
+    Assertions.assertEquals(1, ran.get(), "later tasks should still run");
+    Assertions.assertEquals(2, bulkhead.getActiveCount(),
+        "failed task's permit should be returned");
+    Assertions.assertEquals(0, bulkhead.getQueuedCount(), "no task should be left waiting");
+  }
+
+  @Test
+  public void jdkHttpClientTransportStreamsRequestBodies() throws Exception {
+    byte[] pdf = new byte[300 * 1024];
+    new Random(7).nextBytes(pdf);
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 2; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/pdf")
+            .setBody("%PDF"));
+      }
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .transport(PdfGateTransportType.JDK_HTTP_CLIENT)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+
+      List<CharSequence> chunks = new ArrayList<>();
+      for (int i = 0; i < 5000; i++) {
+        chunks.add("<p>row " + i + "</p>");
+      }
+      pdfGateClient.generatePdf(GeneratePdfParams.builder()
+          .html(HtmlSource.fromChunks(chunks))
+          .buildWithFileResponse());
+      JsonObject html = JsonParser.parseString(
+          server.takeRequest(2, TimeUnit.SECONDS).getBody().readUtf8()).getAsJsonObject();
+      Assertions.assertTrue(html.get("html").getAsString().endsWith("<p>row 4999</p>"),
+          "streamed body of unknown length should be sent in full");
+
+      pdfGateClient.compressPdf(CompressPdfParams.builder()
+          .file(new FileParam("input.pdf", pdf, "application/pdf"))
+          .buildWithFileResponse());
+      RecordedRequest upload = server.takeRequest(2, TimeUnit.SECONDS);
+      Assertions.assertEquals(String.valueOf(upload.getBodySize()),
+          upload.getHeader("Content-Length"), "fixed-length body should keep its length");
+      Assertions.assertTrue(upload.getBodySize() > pdf.length,
+          "whole file should be uploaded");
+    }
+  }
+
+  @Test
+  public void jdkHttpCallReportsFailureWhenResponseCallbackThrows() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("%PDF"));
+      server.start();
+
+      Request request = new Request.Builder().url(server.url("/")).build();
+      JdkHttpCall call = new JdkHttpCall(HttpClient.newHttpClient(), Runnable::run, request,
+          Duration.ofSeconds(5));
+      CompletableFuture<IOException> failure = new CompletableFuture<>();
+      call.enqueue(new Callback() {
+        @Override
+        public void onFailure(Call call, IOException e) {
+          failure.complete(e);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+          throw new IllegalStateException("callback bug");
+        }
+      });
+
+      IOException error = failure.get(5, TimeUnit.SECONDS);
+      Assertions.assertTrue(call.isCanceled(), "call should be canceled");
+      Assertions.assertInstanceOf(IllegalStateException.class, error.getSuppressed()[0],
+          "callback error should be attached to the reported failure");
+    }
+  }
+
+  @Test
+  public void bulkheadCallHoldsPermitUntilBodyCloses() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("%PDF"));
+      server.start();
+
+      PdfGateBulkhead bulkhead = new PdfGateBulkhead(PdfGateEndpoint.GENERATE_PDF, 1, 10, null);
+      AtomicReference<Response> response = new AtomicReference<>();
+      Call delegate = new ForwardingCall(new OkHttpClient().newCall(
+          new Request.Builder().url(server.url("/")).build())) {
+        @Override
+        public Response execute() throws IOException {
+          response.set(super.execute());
+          bulkhead.enqueue(() -> {
+            throw new IllegalStateException("task failed");
+          });
+          return response.get();
+        }
+
+        @Override
+        public Call clone() {
+          return this;
+        }
+      };
+
+      Response held = new BulkheadCall(delegate, bulkhead).execute();
+      Assertions.assertEquals(1, bulkhead.getActiveCount(),
+          "permit should be held while the body is open");
+      Assertions.assertEquals(1, bulkhead.getQueuedCount(), "granted task should still wait");
+
+      Assertions.assertThrows(IllegalStateException.class, held::close,
+          "granted task failure should surface to the closing thread");
+      Assertions.assertEquals(0, bulkhead.getActiveCount(), "permits should be released once");
+      Assertions.assertFalse(response.get().body().source().isOpen(),
+          "response should be closed");
+      held.close();
+      Assertions.assertEquals(0, bulkhead.getActiveCount(),
+          "closing again should not release again");
+    }
+  }
+
+  @Test
+  public void rateLimitedCallReportsDelayedDispatchFailure() throws Exception {
+    PdfGateRateLimiter rateLimiter = new PdfGateRateLimiter();
+    rateLimiter.update(Headers.of("X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "1"));
+    Call delegate = new ForwardingCall(new OkHttpClient().newCall(
+        new Request.Builder().url("http://localhost/").build())) {
+      @Override
+      public void enqueue(Callback responseCallback) {
+        throw new IllegalStateException("Already Executed");
+      }
+
+      @Override
+      public Call clone() {
+        return this;
+      }
+    };
+    CompletableFuture<IOException> failure = new CompletableFuture<>();
+    new RateLimitedCall(delegate, rateLimiter).enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException e) {
+        failure.complete(e);
+      }
+
+      @Override
+      public void onResponse(Call call, Response response) {
+        failure.completeExceptionally(new AssertionError("unexpected response"));
+      }
+    });
+
+    Assertions.assertInstanceOf(IllegalStateException.class,
+        failure.get(5, TimeUnit.SECONDS).getCause(),
+        "dispatch failure should reach the callback");
+  }
+
+  @Test
+  public void retryPolicyDoesNotRetryFullQueueRejections() throws Exception {
+    CountDownLatch releaseGenerate = new CountDownLatch(1);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          releaseGenerate.await(5, TimeUnit.SECONDS);
+          return new MockResponse()
+              .setResponseCode(201)
+              .setHeader("Content-Type", "application/octet-stream")
+              .setBody("%PDF");
+        }
+      });
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .maxConcurrentRequests(PdfGateEndpoint.GENERATE_PDF, 1)
+          .maxQueuedRequests(PdfGateEndpoint.GENERATE_PDF, 0)
+          .retryPolicy(PdfGateRetryPolicy.builder()
+              .maxAttempts(3)
+              .initialBackoff(Duration.ofSeconds(2))
+              .maxBackoff(Duration.ofSeconds(2))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+
+      CompletableFuture<byte[]> slowRender = pdfGateClient.generatePdfAsync(params);
+      ExecutionException rejected = Assertions.assertThrows(
+          ExecutionException.class,
+          () -> pdfGateClient.generatePdfAsync(params).get(1, TimeUnit.SECONDS),
+          "full queue should be reported without waiting for a retry"
+      );
+      Assertions.assertInstanceOf(PdfGateQueueFullException.class, rejected.getCause(),
+          "rejection should be PdfGateQueueFullException");
+
+      releaseGenerate.countDown();
+      slowRender.get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals(1, server.getRequestCount(), "rejection should not be sent");
+    }
+  }
+
+  @Test
+  public void circuitBreakerIgnoresFullQueueRejections() throws Exception {
+    CountDownLatch releaseGenerate = new CountDownLatch(1);
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+          releaseGenerate.await(5, TimeUnit.SECONDS);
+          return new MockResponse()
+              .setResponseCode(201)
+              .setHeader("Content-Type", "application/octet-stream")
+              .setBody("%PDF");
+        }
+      });
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .maxConcurrentRequests(PdfGateEndpoint.GENERATE_PDF, 1)
+          .maxQueuedRequests(PdfGateEndpoint.GENERATE_PDF, 0)
+          .circuitBreaker(PdfGateEndpoint.GENERATE_PDF, PdfGateCircuitBreakerPolicy.builder()
+              .windowSize(2)
+              .minimumCalls(2)
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<html><body><h1>Hello, PDFGate!</h1></body></html>")
+          .buildWithFileResponse();
+
+      CompletableFuture<byte[]> slowRender = pdfGateClient.generatePdfAsync(params);
+      for (int i = 0; i < 2; i++) {
+        Assertions.assertThrows(ExecutionException.class,
+            () -> pdfGateClient.generatePdfAsync(params).get(2, TimeUnit.SECONDS),
+            "excess render should be rejected");
+      }
+      Assertions.assertEquals(PdfGateCircuitState.CLOSED,
+          pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GENERATE_PDF).getCircuitState(),
+          "local rejections should not open the circuit");
+
+      releaseGenerate.countDown();
+      slowRender.get(2, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void coalescerGivesLeaderItsOwnCopy() throws Exception {
+    PdfGateCoalescer coalescer = new PdfGateCoalescer();
+    byte[] shared = {1, 2, 3};
+    CompletableFuture<byte[]> response = new CompletableFuture<>();
+    CompletableFuture<byte[]> leader =
+        coalescer.executeAsync("file", () -> response, byte[]::clone);
+    CompletableFuture<byte[]> waiter =
+        coalescer.executeAsync("file", CompletableFuture::new, byte[]::clone);
+    response.complete(shared);
+
+    byte[] leaderBytes = leader.get(2, TimeUnit.SECONDS);
+    leaderBytes[0] = 9;
+    Assertions.assertArrayEquals(new byte[] {1, 2, 3}, waiter.get(2, TimeUnit.SECONDS),
+        "leader's changes should not reach waiters");
+    Assertions.assertEquals(1, shared[0], "async leader should get a copy");
+
+    byte[] syncLeaderBytes = coalescer.execute("file", () -> shared, byte[]::clone);
+    syncLeaderBytes[0] = 9;
+    Assertions.assertEquals(1, shared[0], "sync leader should get a copy");
+  }
+
+  @Test
+  public void coalescerReleasesWaitersWhenLeaderFailsWithError() throws Exception {
+    PdfGateCoalescer coalescer = new PdfGateCoalescer();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch failLeader = new CountDownLatch(1);
+    CompletableFuture<Throwable> leaderFailure = CompletableFuture.supplyAsync(() -> {
+      try {
+        coalescer.execute("file", () -> {
+          leaderStarted.countDown();
+          try {
+            failLeader.await(2, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          throw new AssertionError("out of memory");
+        }, UnaryOperator.identity());
+        return null;
+      } catch (Throwable e) {
+        return e;
+      }
+    });
+    Assertions.assertTrue(leaderStarted.await(2, TimeUnit.SECONDS), "leader should start");
+
+    CompletableFuture<Throwable> waiterFailure = CompletableFuture.supplyAsync(() -> {
+      try {
+        coalescer.execute("file", () -> "unexpected", UnaryOperator.identity());
+        return null;
+      } catch (Throwable e) {
+        return e;
+      }
+    });
+    Thread.sleep(100);
+    failLeader.countDown();
+
+    Assertions.assertInstanceOf(AssertionError.class, leaderFailure.get(2, TimeUnit.SECONDS),
+        "leader should see its error");
+    Assertions.assertInstanceOf(AssertionError.class, waiterFailure.get(2, TimeUnit.SECONDS),
+        "waiter should be released with the leader's error");
+  }
+
+  @Test
+  public void fileParamComparesBuffersByIdentity() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(4).put(new byte[] {1, 2, 3, 4});
+    buffer.flip();
+    FileParam file = FileParam.fromByteBuffer("input.pdf", buffer);
+
+    Assertions.assertEquals(file, file, "payload should equal itself");
+    Assertions.assertEquals(file.hashCode(), file.hashCode(), "hash code should be stable");
+    Assertions.assertNotEquals(file, FileParam.fromByteBuffer("input.pdf", buffer),
+        "buffer payloads should not be compared by contents");
+  }
+
+  @Test
+  public void failedDownloadLeavesExistingFileUntouched() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate");
+    Path target = directory.resolve("document.pdf");
+    Files.write(target, "%PDF-previous".getBytes(StandardCharsets.UTF_8));
+    char[] body = new char[64 * 1024];
+    Arrays.fill(body, 'x');
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody(new String(body))
+          .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      Assertions.assertThrows(IOException.class, () -> pdfGateClient.getFile(fileParams, target),
+          "truncated download should fail");
+      Assertions.assertEquals("%PDF-previous",
+          new String(Files.readAllBytes(target), StandardCharsets.UTF_8),
+          "existing file should be left untouched");
+      try (Stream<Path> files = Files.list(directory)) {
+        Assertions.assertEquals(1, files.count(), "temporary file should be removed");
+      }
+    } finally {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  public void segmentedBytesReleaseWaitsForReadsInProgress() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/octet-stream")
+          .setBody("%PDF"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      PdfGateBytes bytes = pdfGateClient.getFileBytesAsync(GetFileParams.builder()
+              .documentId("6642381c5c61")
+              .build())
+          .get(2, TimeUnit.SECONDS);
+
+      CompletableFuture<Void> release = new CompletableFuture<>();
+      ByteArrayOutputStream output = new ByteArrayOutputStream() {
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+          CompletableFuture.runAsync(bytes::release).thenRun(() -> release.complete(null));
+          Assertions.assertThrows(TimeoutException.class,
+              () -> release.get(200, TimeUnit.MILLISECONDS),
+              "release should wait while the segments are read");
+          super.write(b, off, len);
+        }
+      };
+      bytes.writeTo(output);
+      release.get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals("%PDF", output.toString(StandardCharsets.UTF_8),
+          "read should complete before the segments are recycled");
+    }
+  }
+
+  @Test
+  public void resultCacheOnlyRemovesItsOwnFiles() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate-results");
+    Path report = Files.write(directory.resolve("report.pdf"), new byte[] {1});
+    Path notes = Files.write(directory.resolve("notes.tmp"), new byte[] {1});
+    Path orphan = Files.write(directory.resolve(
+        "00112233445566778899aabbccddeeff00112233445566778899aabbccddeeff.pdf"), new byte[] {1});
+    Path staleTemp = Files.write(directory.resolve("pdfgate123.tmp"), new byte[] {1});
+
+    PdfGateResultCache.open(buildConfig("http://localhost/").toBuilder()
+        .resultCacheDirectory(directory)
+        .build());
+
+    Assertions.assertTrue(Files.exists(report), "unrelated PDFs should be kept");
+    Assertions.assertTrue(Files.exists(notes), "unrelated temporary files should be kept");
+    Assertions.assertFalse(Files.exists(orphan), "unindexed entries should be removed");
+    Assertions.assertFalse(Files.exists(staleTemp), "interrupted writes should be removed");
+  }
+
+  @Test
+  public void resultCacheRejectsConflictingSettingsForOpenDirectory() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate-results");
+    PdfGateConfig config = buildConfig("http://localhost/").toBuilder()
+        .resultCacheDirectory(directory)
+        .build();
+    new PdfGate("test_mock_key", config);
+    new PdfGate("other_mock_key", config);
+
+    PdfGateConfig smaller = config.toBuilder()
+        .resultCacheMaxBytes(1024)
+        .build();
+    IllegalArgumentException error = Assertions.assertThrows(IllegalArgumentException.class,
+        () -> new PdfGate("test_mock_key", smaller),
+        "different limits on an open directory should be rejected");
+    Assertions.assertTrue(error.getMessage().contains("resultCacheMaxBytes"),
+        "message should name the conflicting settings");
+  }
+
+  @Test
+  public void memoryCacheStoresAsyncFilesBeforeCallersSeeThem() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 async"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .memoryCacheMaxBytes(1024 * 1024)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      pdfGateClient.getFileAsync(fileParams)
+          .thenAccept(file -> file[0] = 'X')
+          .get(2, TimeUnit.SECONDS);
+      Assertions.assertEquals("%PDF-1.7 async",
+          new String(pdfGateClient.getFile(fileParams), StandardCharsets.UTF_8),
+          "caller's changes should not reach the cached file");
+      Assertions.assertEquals(1, server.getRequestCount(), "second call should be a hit");
+    }
+  }
+
+  @Test
+  public void retryPolicyRetriesErrorReturnedByWinningHedge() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+    AtomicInteger requests = new AtomicInteger();
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+          int index = requests.getAndIncrement();
+          if (index == 21) {
+            return new MockResponse()
+                .setResponseCode(503)
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"message\":\"Service Unavailable\"}");
+          }
+          // Warm-up latencies put the hedge delay well above the retry's own round trip.
+          return new MockResponse()
+              .setResponseCode(200)
+              .setHeadersDelay(index == 20 ? 3000 : index < 20 ? 50 : 0, TimeUnit.MILLISECONDS)
+              .setHeader("Content-Type", "application/json")
+              .setBody(documentBody);
+        }
+      });
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .hedgePolicy(PdfGateHedgePolicy.builder().percentile(0.9).build())
+          .retryPolicy(PdfGateRetryPolicy.builder()
+              .initialBackoff(Duration.ofMillis(10))
+              .maxBackoff(Duration.ofMillis(50))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+      for (int i = 0; i < 20; i++) {
+        pdfGateClient.getDocument(params);
+      }
+
+      PdfGateDocument document = pdfGateClient.getDocument(params);
+      Assertions.assertEquals("6642381c5c61", document.getId(),
+          "503 from the winning hedge should be retried");
+      Assertions.assertEquals(23, server.getRequestCount(),
+          "slow attempt, hedge and retry should each reach the server");
+    }
+  }
+
+  @Test
+  public void resultCacheIsNotSharedBetweenApiKeys() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate-results");
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 2; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/pdf")
+            .setBody("%PDF-1.7 account " + i));
+      }
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .resultCacheDirectory(directory)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<p>Statement</p>")
+          .buildWithFileResponse();
+
+      pdfGateClient.generatePdf(params);
+      Assertions.assertEquals("%PDF-1.7 account 1",
+          new String(pdfGateClient.withApiKey("other_mock_key").generatePdf(params),
+              StandardCharsets.UTF_8),
+          "another API key should generate its own PDF");
+      Assertions.assertEquals("%PDF-1.7 account 1",
+          new String(new PdfGate("other_mock_key", config).generatePdf(params),
+              StandardCharsets.UTF_8),
+          "clients with the same API key should share the cached PDF");
+      Assertions.assertEquals(2, server.getRequestCount(), "each API key should be billed once");
+    }
+  }
+
+  @Test
+  public void circuitBreakerIgnoresRateLimiterWaits() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c61",
+        "status", "completed",
+        "type", "from_html"
+    ));
+
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setHeader("X-RateLimit-Remaining", "0")
+          .setHeader("X-RateLimit-Reset", "1")
+          .setBody(documentBody));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody(documentBody));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .circuitBreaker(PdfGateEndpoint.GET_DOCUMENT, PdfGateCircuitBreakerPolicy.builder()
+              .windowSize(2)
+              .minimumCalls(2)
+              .slowCallRateThreshold(0.5)
+              .slowCallDuration(Duration.ofMillis(500))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+
+      pdfGateClient.getDocument(params);
+      pdfGateClient.getDocument(params);
+      Assertions.assertEquals(PdfGateCircuitState.CLOSED,
+          pdfGateClient.getEndpointMetrics(PdfGateEndpoint.GET_DOCUMENT).getCircuitState(),
+          "waiting for a rate limit token should not count as a slow call");
+    }
+  }
+
+  @Test
+  public void downloadsKeepDefaultAndExistingPermissions() throws Exception {
+    Assumptions.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"),
+        "permissions are only checked on POSIX file systems");
+    Path directory = Files.createTempDirectory("pdfgate");
+    Path reference = Files.createFile(directory.resolve("reference.pdf"));
+    Path created = directory.resolve("created.pdf");
+    Path replaced = Files.createFile(directory.resolve("replaced.pdf"));
+    Files.setPosixFilePermissions(replaced, PosixFilePermissions.fromString("rw-r-----"));
+    try (MockWebServer server = new MockWebServer()) {
+      for (int i = 0; i < 2; i++) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/octet-stream")
+            .setBody("%PDF"));
+      }
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetFileParams fileParams = GetFileParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+      pdfGateClient.getFile(fileParams, created);
+      pdfGateClient.getFile(fileParams, replaced);
+
+      Assertions.assertEquals(Files.getPosixFilePermissions(reference),
+          Files.getPosixFilePermissions(created), "new file should get default permissions");
+      Assertions.assertEquals(PosixFilePermissions.fromString("rw-r-----"),
+          Files.getPosixFilePermissions(replaced), "replaced file should keep its permissions");
+    } finally {
+      for (Path file : List.of(reference, created, replaced)) {
+        Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  public void retryPolicyRejectsInvalidBackoffs() {
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateRetryPolicy.builder().initialBackoff(null).build(),
+        "missing initial backoff should be rejected");
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateRetryPolicy.builder().maxRetryAfter(Duration.ofSeconds(-1)).build(),
+        "negative Retry-After cap should be rejected");
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateRetryPolicy.builder()
+            .initialBackoff(Duration.ofSeconds(2))
+            .maxBackoff(Duration.ofSeconds(1))
+            .build(),
+        "max backoff below the initial backoff should be rejected");
+    Assertions.assertThrows(IllegalArgumentException.class,
+        () -> PdfGateRetryPolicy.builder().maxElapsed(Duration.ofMillis(-1)).build(),
+        "negative deadline should be rejected");
+  }
+
+  @Test
+  public void retryPolicyRetriesPostTimeoutsOnlyWhenEnabled() throws Exception {
+    String documentBody = PdfGateJson.gson().toJson(Map.of(
+        "id", "6642381c5c62",
+        "status", "completed",
+        "type", "flattened"
+    ));
+
+    for (boolean retryTimeouts : new boolean[] {false, true}) {
+      try (MockWebServer server = new MockWebServer()) {
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeadersDelay(2, TimeUnit.SECONDS)
+            .setHeader("Content-Type", "application/json")
+            .setBody(documentBody));
+        server.enqueue(new MockResponse()
+            .setResponseCode(200)
+            .setHeader("Content-Type", "application/json")
+            .setBody(documentBody));
+        server.start();
+
+        PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+            .flattenPdfTimeout(Duration.ofMillis(300))
+            .retryPolicy(PdfGateRetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(10))
+                .maxBackoff(Duration.ofMillis(50))
+                .retryNonIdempotentTimeouts(retryTimeouts)
+                .build())
+            .build();
+        PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+        FlattenPdfJsonParams params = FlattenPdfParams.builder()
+            .documentId("6642381c5c61")
+            .buildWithJsonResponse();
+
+        if (retryTimeouts) {
+          Assertions.assertEquals("6642381c5c62", pdfGateClient.flattenPdf(params).getId(),
+              "enabled timeout retries should succeed");
+          Assertions.assertEquals(2, server.getRequestCount(), "timeout should be retried");
+        } else {
+          Assertions.assertThrows(PdfGateException.class, () -> pdfGateClient.flattenPdf(params),
+              "timeout should be reported");
+          Assertions.assertEquals(1, server.getRequestCount(),
+              "POST timeout should not be retried by default");
+        }
+      }
+    }
+  }
+
+  @Test
+  public void retryPolicyStopsRetryingAfterMaxElapsed() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(503)
+          .setHeader("Content-Type", "application/json")
+          .setHeader("Retry-After", "5")
+          .setBody("{\"message\":\"Service Unavailable\"}"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .retryPolicy(PdfGateRetryPolicy.builder()
+              .maxElapsed(Duration.ofSeconds(1))
+              .build())
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+
+      PdfGateException error = Assertions.assertThrows(PdfGateException.class,
+          () -> pdfGateClient.getDocument(GetDocumentParams.builder()
+              .documentId("6642381c5c61")
+              .build()),
+          "retry past the deadline should not be attempted");
+      Assertions.assertEquals(503, error.getStatusCode(), "last response should be reported");
+      Assertions.assertEquals(1, server.getRequestCount(), "no retry should be sent");
+    }
+  }
+
+  @Test
+  public void jdkHttpCallFailsBodyReadsOnTimeoutAndCancel() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("%PDF-1.7")
+          .throttleBody(1, 10, TimeUnit.SECONDS));
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("%PDF-1.7")
+          .throttleBody(1, 10, TimeUnit.SECONDS));
+      server.start();
+
+      Request request = new Request.Builder().url(server.url("/")).build();
+      HttpClient httpClient = HttpClient.newHttpClient();
+      Response timedOut = new JdkHttpCall(httpClient, Runnable::run, request,
+          Duration.ofMillis(300)).execute();
+      Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+        Assertions.assertThrows(InterruptedIOException.class, () -> timedOut.body().bytes(),
+            "a stalled body read should time out");
+      });
+
+      JdkHttpCall call = new JdkHttpCall(httpClient, Runnable::run, request,
+          Duration.ofSeconds(30));
+      Response canceled = call.execute();
+      CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS).execute(call::cancel);
+      Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+        Assertions.assertThrows(IOException.class, () -> canceled.body().bytes(),
+            "cancel should fail a stalled body read");
+      });
+    }
+  }
+
+  @Test
+  public void bulkheadCallHoldsAsyncPermitUntilBodyCloses() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("%PDF"));
+      server.start();
+
+      PdfGateBulkhead bulkhead = new PdfGateBulkhead(PdfGateEndpoint.GENERATE_PDF, 1, 10, null);
+      Call call = new BulkheadCall(new OkHttpClient().newCall(
+          new Request.Builder().url(server.url("/")).build()), bulkhead);
+      CompletableFuture<Response> response = new CompletableFuture<>();
+      call.enqueue(new Callback() {
+        @Override
+        public void onFailure(Call call, IOException e) {
+          response.completeExceptionally(e);
+        }
+
+        @Override
+        public void onResponse(Call call, Response r) {
+          response.complete(r);
+        }
+      });
+
+      Response held = response.get(5, TimeUnit.SECONDS);
+      Assertions.assertEquals(1, bulkhead.getActiveCount(),
+          "permit should outlive the callback while the body is open");
+      Assertions.assertEquals("%PDF", held.body().string(), "body should be readable");
+      Assertions.assertEquals(0, bulkhead.getActiveCount(),
+          "permit should be released once the body is closed");
+    }
+  }
+
+  @Test
+  public void memoryCacheKeyUsesCachedFileDigest() throws Exception {
+    Path path = Files.createTempFile("pdfgate-key", ".pdf");
+    Files.write(path, "%PDF-1.7 upload".getBytes(StandardCharsets.UTF_8));
+    FileParam file = FileParam.fromPath(path);
+
+    String first = PdfGateMemoryCache.key(uploadRequest(file));
+    Files.delete(path);
+    String second = PdfGateMemoryCache.key(uploadRequest(file));
+
+    Assertions.assertNotNull(first, "uploads of a file should be cacheable");
+    Assertions.assertEquals(first, second,
+        "the key should come from the file's digest, not from reading the file again");
+  }
+
+  private static Request uploadRequest(FileParam file) {
+    MultipartBody body = new MultipartBody.Builder()
+        .setType(MultipartBody.FORM)
+        .addFormDataPart("file", file.getName(), file.requestBody())
+        .build();
+    return new Request.Builder().url("http://localhost/compress").post(body).build();
+  }
+
+  @Test
+  public void resultCacheStoresAsyncPdfsBeforeCompleting() throws Exception {
+    Path directory = Files.createTempDirectory("pdfgate-results");
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 first"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/pdf")
+          .setBody("%PDF-1.7 second"));
+      server.start();
+
+      PdfGateConfig config = buildConfig(server.url("/").toString()).toBuilder()
+          .resultCacheDirectory(directory)
+          .build();
+      PdfGate pdfGateClient = new PdfGate("test_mock_key", config);
+      GeneratePdfFileParams params = GeneratePdfParams.builder()
+          .html("<p>Invoice</p>")
+          .buildWithFileResponse();
+
+      pdfGateClient.generatePdfAsync(params).get(5, TimeUnit.SECONDS);
+      Assertions.assertEquals("%PDF-1.7 first",
+          new String(pdfGateClient.generatePdf(params), StandardCharsets.UTF_8),
+          "a completed async render should already be cached");
+      Assertions.assertEquals(1, server.getRequestCount(), "the hit should not call the API");
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(file -> file.toFile().delete());
+      }
+      Files.deleteIfExists(directory);
+    }
+  }
+
+  @Test
+  public void documentMetadataShapeIsCheckedWhileParsing() throws Exception {
+    try (MockWebServer server = new MockWebServer()) {
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"id\":\"6642381c5c61\",\"metadata\":{\"tags\":[\"a\",null],"
+              + "\"total\":12.50,\"nested\":{\"ok\":true}}}"));
+      server.enqueue(new MockResponse()
+          .setResponseCode(200)
+          .setHeader("Content-Type", "application/json")
+          .setBody("{\"id\":\"6642381c5c61\",\"metadata\":[\"not\",\"an\",\"object\"]}"));
+      server.start();
+
+      PdfGate pdfGateClient = buildClient(server.url("/").toString());
+      GetDocumentParams params = GetDocumentParams.builder()
+          .documentId("6642381c5c61")
+          .build();
+      Map<String, Object> metadata = pdfGateClient.getDocument(params).getMetadata()
+          .orElseThrow();
+      Assertions.assertEquals(Arrays.asList("a", null), metadata.get("tags"),
+          "arrays and nulls should survive the copy");
+      Assertions.assertEquals(12.5, metadata.get("total"), "numbers should survive the copy");
+      Assertions.assertEquals(Map.of("ok", true), metadata.get("nested"),
+          "nested objects should survive the copy");
+
+      Assertions.assertThrows(JsonParseException.class, () -> pdfGateClient.getDocument(params),
+          "metadata that is not an object should fail the request, not getMetadata()");
+    }
+  }
+
+  @Test
+  public void frequencySketchCountsUsesAndAgesThem() {
+    PdfGateFrequencySketch sketch = new PdfGateFrequencySketch(64);
+    for (int i = 0; i < 5; i++) {
+      sketch.increment(42);
+    }
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(7);
+    }
+    Assertions.assertEquals(5, sketch.frequency(42), "uses should be counted");
+    Assertions.assertEquals(15, sketch.frequency(7), "counters should saturate at 15");
+    Assertions.assertEquals(0, sketch.frequency(99), "unused keys should have no uses");
+
+    // After ten uses per table slot, every counter is halved.
+    for (int i = 0; i < 640; i++) {
+      sketch.increment(1000 + i);
+    }
+    Assertions.assertTrue(sketch.frequency(42) < 5, "old uses should fade");
+    Assertions.assertTrue(sketch.frequency(7) <= 7, "saturated counters should be halved");
+  }
+
+  @Test
+  public void memoryCacheAdmitsNewEntriesOnlyWhenMoreValuable() {
+    PdfGateMemoryCache cache = new PdfGateMemoryCache(10_000);
+    for (int i = 0; i < 9; i++) {
+      cache.put("hot" + i, new byte[1000], PdfGateEndpoint.GET_FILE);
+    }
+    for (int round = 0; round < 4; round++) {
+      for (int i = 0; i < 9; i++) {
+        cache.get("hot" + i);
+      }
+    }
+    for (int i = 0; i < 5; i++) {
+      cache.put("cold" + i, new byte[1000], PdfGateEndpoint.GET_FILE);
+    }
+
+    for (int i = 0; i < 9; i++) {
+      Assertions.assertNotNull(cache.get("hot" + i),
+          "frequently read entries should survive a scan of new ones");
+    }
+    Assertions.assertNotNull(cache.get("cold0"), "an entry that fits should be kept");
+    for (int i = 1; i < 5; i++) {
+      Assertions.assertNull(cache.get("cold" + i), "one-off entries should not be admitted");
+    }
+    Assertions.assertEquals(4, cache.metrics().getEvictions(), "rejections should be counted");
+    Assertions.assertEquals(10_000, cache.metrics().getWeightedSize(),
+        "cache should stay within its budget");
+  }
+
+  @Test
+  public void circuitBreakerProbesWhileHalfOpen() {
+    List<String> transitions = new ArrayList<>();
+    PdfGateCircuitBreakerPolicy.Builder policy = PdfGateCircuitBreakerPolicy.builder()
+        .windowSize(4)
+        .minimumCalls(2)
+        .failureRateThreshold(0.5)
+        .halfOpenCalls(2);
+    PdfGateCircuitBreaker breaker = new PdfGateCircuitBreaker(PdfGateEndpoint.GET_DOCUMENT,
+        policy.openDuration(Duration.ZERO).build(),
+        (endpoint, from, to) -> transitions.add(from + "->" + to));
+
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertTrue(breaker.tryAcquire(), "closed circuit should admit requests");
+      breaker.onResult(0, true);
+    }
+    Assertions.assertEquals(PdfGateCircuitState.OPEN, breaker.getState(),
+        "failures over the threshold should open the circuit");
+
+    Assertions.assertTrue(breaker.tryAcquire(), "expired open circuit should admit a probe");
+    Assertions.assertTrue(breaker.tryAcquire(), "half-open circuit should admit its probes");
+    Assertions.assertFalse(breaker.tryAcquire(), "half-open circuit should admit no more");
+    breaker.onIgnored();
+    Assertions.assertTrue(breaker.tryAcquire(), "an ignored probe should return its permit");
+
+    breaker.onResult(0, false);
+    Assertions.assertEquals(PdfGateCircuitState.HALF_OPEN, breaker.getState(),
+        "one successful probe should not close the circuit");
+    breaker.onResult(0, true);
+    Assertions.assertEquals(PdfGateCircuitState.OPEN, breaker.getState(),
+        "a failed probe should reopen the circuit");
+
+    for (int i = 0; i < 2; i++) {
+      Assertions.assertTrue(breaker.tryAcquire(), "reopened circuit should probe again");
+      breaker.onResult(0, false);
+    }
+    Assertions.assertEquals(PdfGateCircuitState.CLOSED, breaker.getState(),
+        "successful probes should close the circuit");
+    Assertions.assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN",
+        "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions, "listener should see each change");
+
+    PdfGateCircuitBreaker waiting = new PdfGateCircuitBreaker(PdfGateEndpoint.GET_DOCUMENT,
+        policy.openDuration(Duration.ofHours(1)).build(), null);
+    for (int i = 0; i < 2; i++) {
+      waiting.tryAcquire();
+      waiting.onResult(0, true);
+    }
+    Assertions.assertFalse(waiting.tryAcquire(), "open circuit should reject until it expires");
+  }
+
+  @Test
+  public void retryBudgetLimitsExtraAttemptsToItsRatio() {
+    PdfGateRetryBudget budget = new PdfGateRetryBudget(0.5);
+    int saved = 0;
+    while (budget.tryRetry()) {
+      saved++;
+    }
+    Assertions.assertEquals(10, saved, "a quiet budget should allow a short burst");
+
+    budget.recordRequest();
+    Assertions.assertFalse(budget.tryRetry(), "half a retry should not be allowed");
+    budget.recordRequest();
+    Assertions.assertTrue(budget.tryRetry(), "two requests should earn one retry");
+    Assertions.assertFalse(budget.tryRetry(), "an exhausted budget should deny retries");
+
+    for (int i = 0; i < 100; i++) {
+      budget.recordRequest();
+    }
+    int capped = 0;
+    while (budget.tryRetry()) {
+      capped++;
+    }
+    Assertions.assertEquals(10, capped, "saved retries should be capped");
+  }
+
+  @Test
+  public void bloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+    PdfGateBloomFilter filter = new PdfGateBloomFilter(1000);
+    for (int i = 0; i < 1000; i++) {
+      filter.add(sha256Hex("added" + i));
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 1000; i++) {
+      Assertions.assertTrue(filter.mightContain(sha256Hex("added" + i)),
+          "added digests should always match");
+    }
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.mightContain(sha256Hex("absent" + i))) {
+        falsePositives++;
+      }
+    }
+    Assertions.assertTrue(falsePositives < 200, "false positive rate should be near 1%");
+  }
+
+  @Test
+  public void uploadCacheRebuildsFilterWhenEvicting() {
+    PdfGateUploadCache cache = new PdfGateUploadCache(2);
+    cache.record(sha256Hex("first"), "doc-first", null);
+    cache.record(sha256Hex("second"), "doc-second", null);
+    cache.record(sha256Hex("third"), "doc-third", null);
+
+    int found = 0;
+    for (String name : List.of("first", "second")) {
+      if (cache.lookup(sha256Hex(name)) != null) {
+        found++;
+      }
+    }
+    Assertions.assertEquals(1, found, "one older digest should be evicted to make room");
+    Assertions.assertEquals("doc-third", cache.lookup(sha256Hex("third")),
+        "rebuilt filter should still match the new digest");
+
+    cache.record(sha256Hex("fourth"), "doc-fourth", null);
+    Assertions.assertEquals("doc-fourth", cache.lookup(sha256Hex("fourth")),
+        "digests recorded after a rebuild should match");
+    Assertions.assertNull(cache.lookup(sha256Hex("never")), "unknown digests should miss");
+  }
+
+  private static String sha256Hex(String value) {
+    return ByteString.encodeUtf8(value).sha256().hex();
+  }
 }